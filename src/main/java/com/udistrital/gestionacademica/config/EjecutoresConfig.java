@@ -0,0 +1,142 @@
+package com.udistrital.gestionacademica.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecutores con nombre para el trabajo en segundo plano.
+ *
+ * - ejecutorCorreo: sesiones SMTP de la bandeja de salida
+ * - ejecutorReportes: renderizado de boletines por lote
+ * - ejecutorMantenimiento: tareas internas y @Async sin ejecutor explícito
+ * - ejecutorHash: hash de contraseñas en el inicio de sesión
+ *
+ * Cada uno tiene hilos y cola acotados (ejecutores.NOMBRE.nucleo, maximo,
+ * cola) y opcionalmente hilos virtuales (ejecutores.NOMBRE.virtuales). Si la
+ * cola se llena, la tarea la ejecuta el hilo que la envía (contrapresión) y se
+ * cuenta como rechazo. En ejecutorHash, en cambio, se rechaza con
+ * RejectedExecutionException: ejecutarla en el hilo de la petición es
+ * justamente lo que se quiere evitar.
+ *
+ * Métricas (actuator): executor.queued, executor.active, executor.pool.size,
+ * etc. las publica Spring Boot por cada bean con la etiqueta name; aquí se
+ * agregan ejecutor.rechazos, ejecutor.espera (tiempo en cola) y
+ * ejecutor.ejecucion, con la etiqueta nombre.
+ *
+ * Definir beans Executor desactiva el applicationTaskExecutor de Spring Boot,
+ * que usan las respuestas en streaming (PDF, ZIP); por eso se fuerza con
+ * spring.task.execution.mode=force y se acota con spring.task.execution.pool.*
+ */
+@Configuration
+public class EjecutoresConfig implements AsyncConfigurer {
+
+    private static final int PROCESADORES = Runtime.getRuntime().availableProcessors();
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public EjecutoresConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor ejecutorCorreo() {
+        return crearEjecutor("correo", 4, 4, 100);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor ejecutorReportes() {
+        return crearEjecutor("reportes", PROCESADORES, PROCESADORES, PROCESADORES * 4);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor ejecutorMantenimiento() {
+        return crearEjecutor("mantenimiento", 1, 2, 50);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor ejecutorHash() {
+        return crearEjecutor("hash", Math.max(1, PROCESADORES / 2), Math.max(1, PROCESADORES / 2), 200, false);
+    }
+
+    /**
+     * Los métodos @Async sin nombre de ejecutor usan el de mantenimiento
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return ejecutorMantenimiento();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return new SimpleAsyncUncaughtExceptionHandler();
+    }
+
+    private ThreadPoolTaskExecutor crearEjecutor(String nombre, int nucleo, int maximo, int cola) {
+        return crearEjecutor(nombre, nucleo, maximo, cola, true);
+    }
+
+    private ThreadPoolTaskExecutor crearEjecutor(String nombre, int nucleo, int maximo, int cola, boolean enHiloLlamadorSiLleno) {
+        String prefijo = "ejecutores." + nombre + ".";
+        // 0 = número de procesadores
+        int hilosNucleo = hilos(environment.getProperty(prefijo + "nucleo", Integer.class, nucleo));
+        int hilosMaximo = Math.max(hilosNucleo, hilos(environment.getProperty(prefijo + "maximo", Integer.class, maximo)));
+
+        ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(hilosNucleo);
+        ejecutor.setMaxPoolSize(hilosMaximo);
+        ejecutor.setQueueCapacity(environment.getProperty(prefijo + "cola", Integer.class, cola));
+        ejecutor.setThreadNamePrefix(nombre + "-");
+        ejecutor.setVirtualThreads(environment.getProperty(prefijo + "virtuales", Boolean.class, false));
+        ejecutor.setWaitForTasksToCompleteOnShutdown(true);
+        ejecutor.setAwaitTerminationSeconds(30);
+
+        Counter rechazos = Counter.builder("ejecutor.rechazos")
+                .description("Tareas que no cupieron en la cola (ejecutadas por el hilo que las envía, o rechazadas)")
+                .tag("nombre", nombre)
+                .register(meterRegistry);
+        RejectedExecutionHandler politica = enHiloLlamadorSiLleno
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        ejecutor.setRejectedExecutionHandler((tarea, pool) -> {
+            rechazos.increment();
+            politica.rejectedExecution(tarea, pool);
+        });
+
+        Timer espera = Timer.builder("ejecutor.espera")
+                .description("Tiempo que una tarea pasa en cola")
+                .tag("nombre", nombre)
+                .register(meterRegistry);
+        Timer ejecucion = Timer.builder("ejecutor.ejecucion")
+                .description("Tiempo de ejecución de una tarea")
+                .tag("nombre", nombre)
+                .register(meterRegistry);
+        ejecutor.setTaskDecorator(tarea -> {
+            long encolada = System.nanoTime();
+            return () -> {
+                espera.record(System.nanoTime() - encolada, TimeUnit.NANOSECONDS);
+                ejecucion.record(tarea);
+            };
+        });
+
+        return ejecutor;
+    }
+
+    private static int hilos(int configurados) {
+        return configurados > 0 ? configurados : PROCESADORES;
+    }
+}
@@ -0,0 +1,187 @@
+package com.udistrital.gestionacademica.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udistrital.gestionacademica.servicio.LimiteSolicitudesService;
+import com.udistrital.gestionacademica.servicio.LimiteSolicitudesService.ReglaActiva;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Rechaza con 429 y Retry-After las solicitudes que exceden el límite de su
+ * ruta (ver LimiteSolicitudesService), antes de autenticar y de llegar al
+ * controlador.
+ *
+ * La IP es getRemoteAddr(): detrás de un proxy se debe configurar
+ * server.forward-headers-strategy para que sea la del cliente. Si la regla
+ * limita por cuenta, el cuerpo (acotado a TAMANO_MAXIMO_CUERPO) se lee aquí
+ * para extraer el campo y se vuelve a entregar intacto al controlador.
+ *
+ * No es un bean, igual que FiltroTokenSesion: solo se registra en la cadena
+ * de SecurityConfig.
+ */
+@RequiredArgsConstructor
+public class FiltroLimiteSolicitudes extends OncePerRequestFilter {
+
+    private static final int TAMANO_MAXIMO_CUERPO = 16 * 1024;
+
+    private final LimiteSolicitudesService limiteSolicitudesService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        ReglaActiva regla = limiteSolicitudesService.regla(request.getMethod(), ruta);
+        if (regla == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Duration espera = limiteSolicitudesService.consumirPorIp(regla, request.getRemoteAddr());
+        if (!espera.isZero()) {
+            rechazar(response, espera);
+            return;
+        }
+
+        HttpServletRequest solicitud = request;
+        String campoCuenta = regla.regla().getCampoCuenta();
+        if (campoCuenta != null && regla.regla().getPorCuentaMinuto() > 0) {
+            CuerpoReutilizable conCuerpo = CuerpoReutilizable.leer(request);
+            solicitud = conCuerpo;
+            espera = limiteSolicitudesService.consumirPorCuenta(regla, cuenta(conCuerpo.cuerpo, campoCuenta));
+            if (!espera.isZero()) {
+                rechazar(response, espera);
+                return;
+            }
+        }
+
+        chain.doFilter(solicitud, response);
+    }
+
+    /**
+     * Valor del campo en el cuerpo JSON, o null si no se puede leer
+     */
+    private String cuenta(byte[] cuerpo, String campo) {
+        if (cuerpo.length == 0 || cuerpo.length > TAMANO_MAXIMO_CUERPO) {
+            return null;
+        }
+        try {
+            JsonNode valor = objectMapper.readTree(cuerpo).get(campo);
+            return valor != null && valor.isTextual() && !valor.asText().isBlank() ? valor.asText().trim() : null;
+        } catch (IOException e) {
+            // Cuerpo que no es JSON: lo rechazará el controlador
+            return null;
+        }
+    }
+
+    private static void rechazar(HttpServletResponse response, Duration espera) throws IOException {
+        long segundos = Math.max(1, (espera.toMillis() + 999) / 1000);
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":true,\"mensaje\":\"Demasiadas solicitudes, intenta de nuevo en "
+                + segundos + " segundos\"}");
+    }
+
+    /**
+     * Solicitud cuyo cuerpo ya se leyó (hasta TAMANO_MAXIMO_CUERPO + 1 bytes)
+     * y se puede volver a leer; lo que exceda se sigue leyendo de la original
+     */
+    private static final class CuerpoReutilizable extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+        private final boolean completo;
+        private boolean entregado;
+
+        private CuerpoReutilizable(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+            this.completo = cuerpo.length <= TAMANO_MAXIMO_CUERPO;
+        }
+
+        static CuerpoReutilizable leer(HttpServletRequest request) throws IOException {
+            return new CuerpoReutilizable(request, request.getInputStream().readNBytes(TAMANO_MAXIMO_CUERPO + 1));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (entregado && !completo) {
+                throw new IllegalStateException("El cuerpo de la solicitud ya se leyó");
+            }
+            entregado = true;
+            ByteArrayInputStream enMemoria = new ByteArrayInputStream(cuerpo);
+            // Si el cuerpo no cabía en el búfer, el resto sigue en la solicitud original
+            ServletInputStream resto = completo ? null : getRequest().getInputStream();
+            InputStream entrada = completo ? enMemoria : new SequenceInputStream(enMemoria, resto);
+            return new ServletInputStream() {
+                private boolean terminado;
+
+                @Override
+                public int read() throws IOException {
+                    int leido = entrada.read();
+                    terminado = leido == -1;
+                    return leido;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int leidos = entrada.read(b, off, len);
+                    terminado = leidos == -1;
+                    return leidos;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return completo ? enMemoria.available() == 0 : terminado;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return completo || enMemoria.available() > 0 || resto.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (!completo) {
+                        resto.setReadListener(listener);
+                        return;
+                    }
+                    // Todo el cuerpo ya está en memoria: se puede leer de una vez
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String codificacion = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(codificacion)));
+        }
+    }
+}
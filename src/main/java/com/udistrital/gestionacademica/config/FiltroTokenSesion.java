@@ -0,0 +1,66 @@
+package com.udistrital.gestionacademica.config;
+
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService;
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService.SesionUsuario;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Autentica las peticiones que envían "Authorization: Bearer <token>".
+ *
+ * El token se verifica solo con la firma y la lista de revocados en memoria,
+ * sin consultar la base de datos. Si es válido, el principal (SesionUsuario)
+ * queda en el contexto de seguridad con la autoridad ROLE_<rol>; si no, se
+ * responde 401. Las peticiones sin token siguen como antes.
+ *
+ * No es un bean: así Spring Boot no lo registra también como filtro del
+ * contenedor, solo en la cadena de SecurityConfig.
+ */
+@RequiredArgsConstructor
+public class FiltroTokenSesion extends OncePerRequestFilter {
+
+    private final SesionUsuarioService sesionUsuarioService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorizacion == null || !autorizacion.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<SesionUsuario> sesion = sesionUsuarioService.verificar(SesionUsuarioService.quitarPrefijo(autorizacion));
+        if (sesion.isEmpty()) {
+            SecurityContextHolder.clearContext();
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"error\":true,\"mensaje\":\"Sesión inválida o vencida\"}");
+            return;
+        }
+
+        SesionUsuario principal = sesion.get();
+        List<SimpleGrantedAuthority> autoridades = principal.rol() != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + principal.rol()))
+                : List.of();
+        UsernamePasswordAuthenticationToken autenticacion =
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, autoridades);
+        SecurityContextHolder.getContext().setAuthentication(autenticacion);
+        chain.doFilter(request, response);
+    }
+}
@@ -1,11 +1,16 @@
 package com.udistrital.gestionacademica.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udistrital.gestionacademica.servicio.LimiteSolicitudesService;
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -16,12 +21,19 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, SesionUsuarioService sesionUsuarioService,
+                                                   LimiteSolicitudesService limiteSolicitudesService,
+                                                   ObjectMapper objectMapper) throws Exception {
         http
                 // Habilitar CORS
                 .cors(Customizer.withDefaults())
                 // Desactivar CSRF para llamadas fetch desde JS
                 .csrf(csrf -> csrf.disable())
+                // Sin sesión HTTP: cada petición se autentica con su token firmado
+                .sessionManagement(sesion -> sesion.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new FiltroTokenSesion(sesionUsuarioService), UsernamePasswordAuthenticationFilter.class)
+                // Límite por IP y por cuenta en las rutas públicas, antes de autenticar
+                .addFilterBefore(new FiltroLimiteSolicitudes(limiteSolicitudesService, objectMapper), FiltroTokenSesion.class)
                 .authorizeHttpRequests(auth -> auth
                 // Permitir acceso público a toda la API y recursos estáticos
                 .requestMatchers(
@@ -3,12 +3,18 @@ package com.udistrital.gestionacademica.control;
 import com.udistrital.gestionacademica.servicio.BoletinService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,26 +28,47 @@ public class BoletinController {
     private final BoletinService boletinService;
 
     /**
-     * Generar boletín de calificaciones en PDF y guardarlo
+     * Generar boletín de calificaciones en PDF y guardarlo.
+     * Responde 304 si el cliente ya tiene la misma versión (If-None-Match).
      */
     @GetMapping("/generar/{codigoEstudiante}/{idPeriodo}")
     public ResponseEntity<?> generarBoletin(
             @PathVariable Long codigoEstudiante,
-            @PathVariable Long idPeriodo) {
+            @PathVariable Long idPeriodo,
+            WebRequest request) {
         
         try {
             log.info("Solicitud de boletín para estudiante {} en periodo {}", codigoEstudiante, idPeriodo);
 
-            byte[] pdfBytes = boletinService.generarYGuardarBoletin(codigoEstudiante, idPeriodo);
+            BoletinService.BoletinDescarga boletin = boletinService.buscarEnCache(codigoEstudiante, idPeriodo);
+            if (boletin == null) {
+                boletin = boletinService.generarYGuardarBoletin(codigoEstudiante, idPeriodo);
+            }
+
+            String etag = "\"" + boletin.clave() + "\"";
+            if (request.checkNotModified(etag)) {
+                cerrar(boletin);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
 
             // Retornar PDF
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             // inline para previsualizar
             headers.setContentDispositionFormData("inline", "boletin_" + codigoEstudiante + "_" + idPeriodo + ".pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            // El navegador puede guardarlo, pero debe revalidar con el ETag en cada descarga
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
+            headers.setETag(etag);
+
+            if (boletin.archivo() != null) {
+                headers.setContentLength(boletin.archivo().tamano());
+                return new ResponseEntity<>(new InputStreamResource(boletin.archivo().contenido()), headers, HttpStatus.OK);
+            }
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            // No estaba en caché: el PDF se escribe en la respuesta a medida que se genera
+            BoletinService.BoletinDescarga porGenerar = boletin;
+            StreamingResponseBody cuerpo = salida -> boletinService.escribirBoletin(porGenerar, salida);
+            return new ResponseEntity<>(cuerpo, headers, HttpStatus.OK);
 
         } catch (IllegalArgumentException e) {
             log.warn("Error de validación: {}", e.getMessage());
@@ -52,6 +79,73 @@ public class BoletinController {
         }
     }
 
+    /**
+     * Generar los boletines de todo un grupo en un periodo, como ZIP
+     */
+    @GetMapping("/generar/grupo/{idGrupo}/{idPeriodo}")
+    public ResponseEntity<?> generarBoletinesGrupo(
+            @PathVariable Long idGrupo,
+            @PathVariable Long idPeriodo) {
+        try {
+            log.info("Solicitud de boletines por lote del grupo {} en periodo {}", idGrupo, idPeriodo);
+            return responderZip(boletinService.prepararLotePorGrupo(idGrupo, idPeriodo));
+        } catch (IllegalArgumentException e) {
+            log.warn("Error de validación: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(crearRespuestaError(e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Error al preparar boletines del grupo: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(crearRespuestaError(e.getMessage()));
+        }
+    }
+
+    /**
+     * Generar los boletines de todo un grado en un periodo, como ZIP (una carpeta por grupo)
+     */
+    @GetMapping("/generar/grado/{idGrado}/{idPeriodo}")
+    public ResponseEntity<?> generarBoletinesGrado(
+            @PathVariable Long idGrado,
+            @PathVariable Long idPeriodo) {
+        try {
+            log.info("Solicitud de boletines por lote del grado {} en periodo {}", idGrado, idPeriodo);
+            return responderZip(boletinService.prepararLotePorGrado(idGrado, idPeriodo));
+        } catch (IllegalArgumentException e) {
+            log.warn("Error de validación: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(crearRespuestaError(e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Error al preparar boletines del grado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(crearRespuestaError(e.getMessage()));
+        }
+    }
+
+    /**
+     * El ZIP se escribe directamente en la respuesta mientras se generan los PDFs;
+     * los boletines se registran en BD solo si el ZIP se completó
+     */
+    private ResponseEntity<StreamingResponseBody> responderZip(BoletinService.LoteBoletines lote) {
+        StreamingResponseBody cuerpo = salida -> {
+            boletinService.escribirZipLote(lote, salida);
+            boletinService.registrarBoletinesLote(lote);
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(lote.nombreArchivo()).build());
+
+        return new ResponseEntity<>(cuerpo, headers, HttpStatus.OK);
+    }
+
+    // En un 304 no se envía el archivo de la caché que ya se abrió
+    private void cerrar(BoletinService.BoletinDescarga boletin) {
+        if (boletin.archivo() == null) {
+            return;
+        }
+        try {
+            boletin.archivo().contenido().close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el boletín en caché: {}", e.getMessage());
+        }
+    }
+
     private Map<String, Object> crearRespuestaError(String mensaje) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", true);
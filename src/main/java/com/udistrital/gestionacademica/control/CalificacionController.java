@@ -1,13 +1,19 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.HistorialDto;
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.dto.MatrizCalificacionesDto;
 import com.udistrital.gestionacademica.modelo.Calificacion;
 import com.udistrital.gestionacademica.servicio.CalificacionService;
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +25,7 @@ import java.util.Map;
 public class CalificacionController {
 
     private final CalificacionService calificacionService;
+    private final SesionUsuarioService sesionUsuarioService;
 
     /**
      * Obtener calificaciones de un estudiante
@@ -31,7 +38,7 @@ public class CalificacionController {
             List<Calificacion> calificaciones = 
                 calificacionService.obtenerCalificacionesPorEstudiante(codigoEstudiante);
             
-            return ResponseEntity.ok(calificaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(calificaciones, LecturaMapper::calificacion));
             
         } catch (RuntimeException e) {
             log.error("Error al obtener calificaciones: {}", e.getMessage());
@@ -59,7 +66,7 @@ public class CalificacionController {
             List<Calificacion> calificaciones = 
                 calificacionService.obtenerCalificacionesPorEstudianteYPeriodo(codigoEstudiante, idPeriodo);
             
-            return ResponseEntity.ok(calificaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(calificaciones, LecturaMapper::calificacion));
             
         } catch (RuntimeException e) {
             log.error("Error al obtener calificaciones: {}", e.getMessage());
@@ -85,7 +92,7 @@ public class CalificacionController {
             List<Calificacion> calificaciones = 
                 calificacionService.obtenerCalificacionesPorPeriodo(nombrePeriodo);
             
-            return ResponseEntity.ok(calificaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(calificaciones, LecturaMapper::calificacion));
             
         } catch (Exception e) {
             log.error("Error al obtener calificaciones: {}", e.getMessage());
@@ -95,6 +102,33 @@ public class CalificacionController {
         }
     }
 
+    /**
+     * Obtener la matriz estudiante x logro de un grupo en un período
+     */
+    @GetMapping("/grupo/{idGrupo}/periodo/{idPeriodo}/matriz")
+    public ResponseEntity<?> obtenerMatrizGrupo(
+            @PathVariable Long idGrupo,
+            @PathVariable Long idPeriodo) {
+        try {
+            log.info("Obteniendo matriz de calificaciones del grupo {} en periodo {}", idGrupo, idPeriodo);
+
+            MatrizCalificacionesDto matriz = calificacionService.obtenerMatrizGrupo(idGrupo, idPeriodo);
+
+            return ResponseEntity.ok(matriz);
+
+        } catch (RuntimeException e) {
+            log.error("Error al obtener matriz de calificaciones: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(crearRespuestaError(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener matriz de calificaciones", e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(crearRespuestaError("Error en la base de datos"));
+        }
+    }
+
     /**
      * Asignar logro a estudiante en un período específico
      */
@@ -108,7 +142,7 @@ public class CalificacionController {
                 request.getCodigoEstudiante(),
                 request.getIdLogro(),
                 request.getIdPeriodo(),
-                request.getNombreUsuario()
+                sesionUsuarioService.usuarioSolicitante(request.getNombreUsuario())
             );
             
             return ResponseEntity
@@ -128,6 +162,57 @@ public class CalificacionController {
         }
     }
 
+    /**
+     * Asignar en un solo llamado los logros de varios estudiantes de un grupo
+     * (matriz estudiante x logros) en un período
+     */
+    @PostMapping("/asignar/lote")
+    public ResponseEntity<?> asignarLogrosEnLote(@RequestBody AsignarLogrosLoteRequest request) {
+        try {
+            log.info("Asignación masiva de logros al grupo {} en periodo {}",
+                request.getIdGrupo(), request.getIdPeriodo());
+
+            if (request.getIdGrupo() == null || request.getIdPeriodo() == null
+                    || request.getAsignaciones() == null) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(crearRespuestaError("El grupo, el período y las asignaciones son obligatorios"));
+            }
+
+            // Unir filas repetidas del mismo estudiante
+            Map<Long, List<Long>> logrosPorEstudiante = new LinkedHashMap<>();
+            for (AsignacionEstudiante asignacion : request.getAsignaciones()) {
+                if (asignacion.getCodigoEstudiante() != null && asignacion.getIdsLogro() != null) {
+                    logrosPorEstudiante
+                            .computeIfAbsent(asignacion.getCodigoEstudiante(), k -> new ArrayList<>())
+                            .addAll(asignacion.getIdsLogro());
+                }
+            }
+
+            CalificacionService.ResultadoAsignacionLote resultado = calificacionService.asignarLogrosEnLote(
+                request.getIdGrupo(),
+                request.getIdPeriodo(),
+                logrosPorEstudiante,
+                sesionUsuarioService.usuarioSolicitante(request.getNombreUsuario())
+            );
+
+            return ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .body(resultado);
+
+        } catch (RuntimeException e) {
+            log.error("Error en la asignación masiva de logros: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(crearRespuestaError(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error en la asignación masiva de logros", e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(crearRespuestaError("Error en la base de datos"));
+        }
+    }
+
     /**
      * Asignar logro a estudiante usando el período actual
      */
@@ -140,7 +225,7 @@ public class CalificacionController {
             Calificacion calificacion = calificacionService.asignarLogroConPeriodoActual(
                 request.getCodigoEstudiante(),
                 request.getIdLogro(),
-                request.getNombreUsuario()
+                sesionUsuarioService.usuarioSolicitante(request.getNombreUsuario())
             );
             
             return ResponseEntity
@@ -225,7 +310,7 @@ public class CalificacionController {
             CalificacionService.HistorialEstudiante historial = 
                 calificacionService.obtenerHistorial(codigoEstudiante);
             
-            return ResponseEntity.ok(historial);
+            return ResponseEntity.ok(aDto(historial));
                     
         } catch (RuntimeException e) {
             log.error("Error al obtener historial: {}", e.getMessage());
@@ -253,7 +338,7 @@ public class CalificacionController {
             CalificacionService.HistorialEstudiante historial = 
                 calificacionService.obtenerHistorialPorPeriodo(codigoEstudiante, idPeriodo);
             
-            return ResponseEntity.ok(historial);
+            return ResponseEntity.ok(aDto(historial));
                     
         } catch (RuntimeException e) {
             log.error("Error al obtener historial: {}", e.getMessage());
@@ -268,6 +353,10 @@ public class CalificacionController {
         }
     }
 
+    private HistorialDto aDto(CalificacionService.HistorialEstudiante historial) {
+        return LecturaMapper.historial(historial.getEstudiante(), historial.getCalificaciones(), historial.getTotalLogros());
+    }
+
     /**
      * Crear respuesta de error
      */
@@ -295,6 +384,20 @@ public class CalificacionController {
         private String nombreUsuario;
     }
 
+    @lombok.Data
+    public static class AsignarLogrosLoteRequest {
+        private Long idGrupo;
+        private Long idPeriodo;
+        private String nombreUsuario;
+        private List<AsignacionEstudiante> asignaciones;
+    }
+
+    @lombok.Data
+    public static class AsignacionEstudiante {
+        private Long codigoEstudiante;
+        private List<Long> idsLogro;
+    }
+
     @lombok.Data
     public static class ModificarCalificacionRequest {
     }
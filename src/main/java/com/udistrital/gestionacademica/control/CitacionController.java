@@ -1,5 +1,6 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.LecturaMapper;
 import com.udistrital.gestionacademica.modelo.Citacion;
 import com.udistrital.gestionacademica.servicio.CitacionService;
 import lombok.RequiredArgsConstructor;
@@ -60,7 +61,7 @@ public class CitacionController {
         try {
             log.info("Creando citaciones para {} estudiantes", request.getCodigosEstudiantes().size());
 
-            List<Citacion> citaciones = citacionService.crearCitacionesMultiples(
+            CitacionService.ResultadoCitacionesLote resultado = citacionService.crearCitacionesMultiples(
                     request.getCodigosEstudiantes(),
                     request.getFechaCitacion()
             );
@@ -68,8 +69,10 @@ public class CitacionController {
             Map<String, Object> response = new HashMap<>();
             response.put("error", false);
             response.put("mensaje", "Citaciones creadas exitosamente");
-            response.put("citacionesCreadas", citaciones.size());
-            response.put("citaciones", citaciones);
+            response.put("citacionesCreadas", resultado.creadas().size());
+            response.put("citaciones", LecturaMapper.lista(resultado.creadas(), LecturaMapper::citacion));
+            // Estudiantes sin citación (no existen o no tienen acudiente) con su motivo
+            response.put("fallidas", resultado.fallidas());
 
             return ResponseEntity
                     .status(HttpStatus.CREATED)
@@ -95,7 +98,7 @@ public class CitacionController {
     public ResponseEntity<?> obtenerCitacionesPorAcudiente(@PathVariable Long idAcudiente) {
         try {
             List<Citacion> citaciones = citacionService.obtenerCitacionesPorAcudiente(idAcudiente);
-            return ResponseEntity.ok(citaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(citaciones, LecturaMapper::citacion));
         } catch (Exception e) {
             log.error("Error al obtener citaciones", e);
             return ResponseEntity
@@ -111,7 +114,7 @@ public class CitacionController {
     public ResponseEntity<?> obtenerCitacionesPorEstudiante(@PathVariable Long codigoEstudiante) {
         try {
             List<Citacion> citaciones = citacionService.obtenerCitacionesPorEstudiante(codigoEstudiante);
-            return ResponseEntity.ok(citaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(citaciones, LecturaMapper::citacion));
         } catch (Exception e) {
             log.error("Error al obtener citaciones", e);
             return ResponseEntity
@@ -127,7 +130,7 @@ public class CitacionController {
     public ResponseEntity<?> obtenerCitacionesPorGrupo(@PathVariable Long idGrupo) {
         try {
             List<Citacion> citaciones = citacionService.obtenerCitacionesPorGrupo(idGrupo);
-            return ResponseEntity.ok(citaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(citaciones, LecturaMapper::citacion));
         } catch (Exception e) {
             log.error("Error al obtener citaciones", e);
             return ResponseEntity
@@ -143,7 +146,7 @@ public class CitacionController {
     public ResponseEntity<?> obtenerTodasLasCitaciones() {
         try {
             List<Citacion> citaciones = citacionService.obtenerTodasLasCitaciones();
-            return ResponseEntity.ok(citaciones);
+            return ResponseEntity.ok(LecturaMapper.lista(citaciones, LecturaMapper::citacion));
         } catch (Exception e) {
             log.error("Error al obtener citaciones", e);
             return ResponseEntity
@@ -1,9 +1,13 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.EstudianteDto;
+import com.udistrital.gestionacademica.dto.LecturaMapper;
 import com.udistrital.gestionacademica.modelo.Estudiante;
 import com.udistrital.gestionacademica.servicio.EstudianteService;
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +24,9 @@ import java.util.Map;
 public class EstudianteController {
 
     private final EstudianteService estudianteService;
+    private final SesionUsuarioService sesionUsuarioService;
+
+    private static final int TAMANO_PAGINA_POR_DEFECTO = 20;
 
     @PostMapping("/crear")
     public ResponseEntity<?> crearEstudiante(@RequestBody Estudiante estudiante) {
@@ -62,7 +69,7 @@ public class EstudianteController {
     public ResponseEntity<?> obtenerTodosLosEstudiantes() {
         try {
             List<Estudiante> estudiantes = estudianteService.obtenerTodosLosEstudiantes();
-            return ResponseEntity.ok(estudiantes);
+            return ResponseEntity.ok(LecturaMapper.lista(estudiantes, LecturaMapper::estudiante));
         } catch (Exception e) {
             log.error("Error al obtener estudiantes", e);
             return ResponseEntity
@@ -77,12 +84,36 @@ public class EstudianteController {
             @RequestParam(required = false) String genero,
             @RequestParam(required = false) Integer edadMinima,
             @RequestParam(required = false) Integer edadMaxima,
-            @RequestParam(required = false, defaultValue = "true") Boolean ordenAlfabetico) {
+            @RequestParam(required = false, defaultValue = "true") Boolean ordenAlfabetico,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamano) {
 
         try {
             log.info("Buscando estudiantes con filtros - Búsqueda: {}, Género: {}, EdadMin: {}, EdadMax: {}, Orden: {}",
                     textoBusqueda, genero, edadMinima, edadMaxima, ordenAlfabetico);
 
+            // Si se solicita una página, responder con el contenido y los datos de paginación
+            if (pagina != null || tamano != null) {
+                Page<Estudiante> resultado = estudianteService.buscarYFiltrarEstudiantes(
+                        textoBusqueda,
+                        genero,
+                        edadMinima,
+                        edadMaxima,
+                        ordenAlfabetico,
+                        pagina != null ? pagina : 0,
+                        tamano != null ? tamano : TAMANO_PAGINA_POR_DEFECTO
+                );
+
+                if (resultado.getTotalElements() == 0) {
+                    log.info("No se encontraron estudiantes con los criterios especificados");
+                    return ResponseEntity
+                            .status(HttpStatus.NOT_FOUND)
+                            .body(crearRespuestaError("No se encontró ningún estudiante con los criterios especificados"));
+                }
+
+                return ResponseEntity.ok(crearRespuestaPagina(resultado.map(LecturaMapper::estudiante)));
+            }
+
             List<Estudiante> estudiantes = estudianteService.buscarYFiltrarEstudiantes(
                     textoBusqueda,
                     genero,
@@ -99,7 +130,7 @@ public class EstudianteController {
             }
 
             log.info("Se encontraron {} estudiantes", estudiantes.size());
-            return ResponseEntity.ok(estudiantes);
+            return ResponseEntity.ok(LecturaMapper.lista(estudiantes, LecturaMapper::estudiante));
 
         } catch (Exception e) {
             log.error("Error al buscar y filtrar estudiantes", e);
@@ -114,7 +145,7 @@ public class EstudianteController {
         try {
             log.info("Obteniendo estudiante con código: {}", codigoEstudiante);
             Estudiante estudiante = estudianteService.obtenerEstudiantePorCodigo(codigoEstudiante);
-            return ResponseEntity.ok(estudiante);
+            return ResponseEntity.ok(LecturaMapper.estudiante(estudiante));
         } catch (RuntimeException e) {
             log.error("Error al obtener estudiante: {}", e.getMessage());
             return ResponseEntity
@@ -249,6 +280,16 @@ public class EstudianteController {
         return response;
     }
 
+    private Map<String, Object> crearRespuestaPagina(Page<?> pagina) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("contenido", pagina.getContent());
+        response.put("pagina", pagina.getNumber());
+        response.put("tamano", pagina.getSize());
+        response.put("totalElementos", pagina.getTotalElements());
+        response.put("totalPaginas", pagina.getTotalPages());
+        return response;
+    }
+
     private Map<String, Object> crearRespuestaExito(String mensaje, Object data) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", false);
@@ -258,10 +299,9 @@ public class EstudianteController {
     }
 
     @GetMapping("/grupo/{idGrupo}")
-    public ResponseEntity<List<Estudiante>> obtenerEstudiantesPorGrupo(@PathVariable Long idGrupo) {
-        // Asumiendo que tienes un método en tu servicio:
+    public ResponseEntity<List<EstudianteDto>> obtenerEstudiantesPorGrupo(@PathVariable Long idGrupo) {
         List<Estudiante> estudiantes = estudianteService.obtenerEstudiantesPorGrupo(idGrupo);
-        return ResponseEntity.ok(estudiantes);
+        return ResponseEntity.ok(LecturaMapper.lista(estudiantes, LecturaMapper::estudiante));
     }
 
     /**
@@ -271,8 +311,10 @@ public class EstudianteController {
     public ResponseEntity<?> obtenerMisEstudiantes(@PathVariable String nombreUsuario) {
         try {
             log.info("Obteniendo estudiantes para acudiente usuario: {}", nombreUsuario);
-            
-            List<Estudiante> estudiantes = estudianteService.obtenerEstudiantesPorAcudiente(nombreUsuario);
+
+            // Con token, solo el propio acudiente puede consultar sus estudiantes
+            String solicitante = sesionUsuarioService.usuarioSolicitante(nombreUsuario);
+            List<Estudiante> estudiantes = estudianteService.obtenerEstudiantesPorAcudiente(solicitante);
             
             if (estudiantes.isEmpty()) {
                 return ResponseEntity
@@ -280,7 +322,7 @@ public class EstudianteController {
                         .body(crearRespuestaError("No se encontraron estudiantes asignados a este acudiente"));
             }
             
-            return ResponseEntity.ok(estudiantes);
+            return ResponseEntity.ok(LecturaMapper.lista(estudiantes, LecturaMapper::estudiante));
             
         } catch (RuntimeException e) {
             log.error("Error al obtener estudiantes por acudiente: {}", e.getMessage());
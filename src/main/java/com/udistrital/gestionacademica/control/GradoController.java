@@ -1,12 +1,17 @@
 package com.udistrital.gestionacademica.control;
 
-import com.udistrital.gestionacademica.modelo.Grado;
+import com.udistrital.gestionacademica.dto.GradoDto;
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import com.udistrital.gestionacademica.servicio.GradoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,12 +24,19 @@ import java.util.Map;
 public class GradoController {
 
     private final GradoService gradoService;
+    private final DatosReferenciaService datosReferencia;
 
     @GetMapping
-    public ResponseEntity<?> obtenerTodosLosGrados() {
+    public ResponseEntity<?> obtenerTodosLosGrados(WebRequest request) {
         try {
-            List<Grado> grados = gradoService.obtenerTodosLosGrados();
-            return ResponseEntity.ok(grados);
+            // Si el navegador ya tiene la versión vigente, 304 sin consultar la base de datos
+            String etag = datosReferencia.etag(Dominio.GRADOS);
+            if (request.checkNotModified(etag)) {
+                return noModificado(etag);
+            }
+            List<GradoDto> grados = datosReferencia.obtener(Dominio.GRADOS, "todos",
+                    () -> LecturaMapper.lista(gradoService.obtenerTodosLosGrados(), LecturaMapper::grado));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(grados);
         } catch (Exception e) {
             log.error("Error al obtener grados", e);
             return ResponseEntity
@@ -33,6 +45,10 @@ public class GradoController {
         }
     }
 
+    private ResponseEntity<?> noModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
     private Map<String, Object> crearRespuestaError(String mensaje) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", true);
@@ -1,24 +1,30 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.GrupoDto;
+import com.udistrital.gestionacademica.dto.LecturaMapper;
 import com.udistrital.gestionacademica.modelo.Estudiante;
 import com.udistrital.gestionacademica.modelo.Grupo;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
+import com.udistrital.gestionacademica.servicio.EstudianteService;
 import com.udistrital.gestionacademica.servicio.GrupoService;
 import com.udistrital.gestionacademica.servicio.PdfGeneratorService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Comparator;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -31,13 +37,23 @@ import org.springframework.http.MediaType;
 public class GrupoController {
 
     private final GrupoService grupoService;
+    private final EstudianteService estudianteService;
     private final PdfGeneratorService pdfGeneratorService;
+    private final DatosReferenciaService datosReferencia;
 
     @GetMapping("/grado/{idGrado}")
-    public ResponseEntity<?> obtenerGruposPorGrado(@PathVariable Long idGrado) {
+    public ResponseEntity<?> obtenerGruposPorGrado(@PathVariable Long idGrado, WebRequest request) {
         try {
-            List<Grupo> grupos = grupoService.obtenerGruposPorGrado(idGrado);
-            return ResponseEntity.ok(grupos);
+            // Si el navegador ya tiene la versión vigente, 304 sin consultar la base de datos
+            String etag = datosReferencia.etag(Dominio.GRUPOS);
+            if (request.checkNotModified(etag)) {
+                return noModificado(etag);
+            }
+            List<GrupoDto> grupos = datosReferencia.obtener(Dominio.GRUPOS, "grado:" + idGrado, () -> {
+                List<Grupo> delGrado = grupoService.obtenerGruposPorGrado(idGrado);
+                return LecturaMapper.grupos(delGrado, grupoService.contarEstudiantesPorGrupo(delGrado));
+            });
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(grupos);
         } catch (Exception e) {
             log.error("Error al obtener grupos del grado", e);
             return ResponseEntity
@@ -46,6 +62,10 @@ public class GrupoController {
         }
     }
 
+    private ResponseEntity<?> noModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
     private Map<String, Object> crearRespuestaError(String mensaje) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", true);
@@ -134,22 +154,23 @@ public class GrupoController {
         }
     }
 
+    /**
+     * Listado de estudiantes del grupo en PDF. Los datos se cargan antes de
+     * responder; el PDF se escribe directamente en la respuesta a medida que
+     * se genera, sin armarlo completo en memoria.
+     */
     @GetMapping("/{idGrupo}/generar-listado-pdf")
-    public ResponseEntity<byte[]> generarListadoPdf(@PathVariable Long idGrupo) {
+    public ResponseEntity<StreamingResponseBody> generarListadoPdf(@PathVariable Long idGrupo) {
         try {
             log.info("Generando PDF para grupo {}", idGrupo);
 
-            Grupo grupo = grupoService.obtenerGrupoPorId(idGrupo);
-
-            // Obtener estudiantes del grupo
-            List<Estudiante> estudiantes = grupo.getEstudiantes() != null
-                    ? new ArrayList<>(grupo.getEstudiantes().values()) : new ArrayList<>();
+            Grupo grupo = grupoService.obtenerGrupoConDetalle(idGrupo);
 
-            // Ordenar por apellido
-            estudiantes.sort(Comparator.comparing(e -> e.getPersona().getApellido()));
+            // Estudiantes del grupo ordenados por apellido, con persona cargada en la misma consulta
+            List<Estudiante> estudiantes = estudianteService.obtenerEstudiantesPorGrupo(idGrupo);
 
-            // Generar PDF
-            byte[] pdfBytes = pdfGeneratorService.generarListadoEstudiantes(grupo, estudiantes);
+            StreamingResponseBody cuerpo = salida ->
+                    pdfGeneratorService.generarListadoEstudiantes(grupo, estudiantes, salida);
 
             // Configurar headers para el PDF
             HttpHeaders headers = new HttpHeaders();
@@ -162,7 +183,7 @@ public class GrupoController {
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(pdfBytes);
+                    .body(cuerpo);
 
         } catch (RuntimeException e) {
             log.error("Error al generar PDF del grupo", e);
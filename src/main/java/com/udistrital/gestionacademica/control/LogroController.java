@@ -1,12 +1,18 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.dto.LogroDto;
 import com.udistrital.gestionacademica.modelo.Logro;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import com.udistrital.gestionacademica.servicio.LogroService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,19 +25,26 @@ import java.util.Map;
 public class LogroController {
 
     private final LogroService logroService;
+    private final DatosReferenciaService datosReferencia;
 
     /**
      * Obtener logros por categoría
      */
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<?> obtenerLogrosPorCategoria(@PathVariable String categoria) {
+    public ResponseEntity<?> obtenerLogrosPorCategoria(@PathVariable String categoria, WebRequest request) {
         try {
             log.info("Obteniendo logros de la categoría: {}", categoria);
             
-            List<Logro> logros = logroService.obtenerLogrosPorCategoria(categoria);
+            // Si el navegador ya tiene la versión vigente, 304 sin consultar la base de datos
+            String etag = datosReferencia.etag(Dominio.LOGROS);
+            if (request.checkNotModified(etag)) {
+                return noModificado(etag);
+            }
+            List<LogroDto> logros = datosReferencia.obtener(Dominio.LOGROS, "categoria:" + categoria,
+                    () -> LecturaMapper.lista(logroService.obtenerLogrosPorCategoria(categoria), LecturaMapper::logro));
             
             // Devolver 200 OK incluso si la lista está vacía (más RESTful)
-            return ResponseEntity.ok(logros);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(logros);
             
         } catch (Exception e) {
             log.error("Error al obtener logros de la categoría", e);
@@ -50,7 +63,7 @@ public class LogroController {
             log.info("Obteniendo logro con ID: {}", idLogro);
             
             Logro logro = logroService.obtenerLogroPorId(idLogro);
-            return ResponseEntity.ok(logro);
+            return ResponseEntity.ok(LecturaMapper.logro(logro));
             
         } catch (RuntimeException e) {
             log.error("Error al obtener logro: {}", e.getMessage());
@@ -161,6 +174,10 @@ public class LogroController {
     /**
      * Crear respuesta de error
      */
+    private ResponseEntity<?> noModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
     private Map<String, Object> crearRespuestaError(String mensaje) {
         Map<String, Object> response = new HashMap<>();
         response.put("error", true);
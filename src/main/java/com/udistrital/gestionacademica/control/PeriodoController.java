@@ -1,12 +1,17 @@
 package com.udistrital.gestionacademica.control;
 
-import com.udistrital.gestionacademica.modelo.Periodo;
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.dto.PeriodoDto;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import com.udistrital.gestionacademica.servicio.PeriodoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,15 +24,22 @@ import java.util.Optional;
 public class PeriodoController {
 
     private final PeriodoService periodoService;
+    private final DatosReferenciaService datosReferencia;
 
     /**
      * Obtener todos los períodos
      */
     @GetMapping
-    public ResponseEntity<List<Periodo>> obtenerTodos() {
+    public ResponseEntity<List<PeriodoDto>> obtenerTodos(WebRequest request) {
         log.info("Obteniendo todos los periodos");
-        List<Periodo> periodos = periodoService.obtenerTodosPeriodos();
-        return ResponseEntity.ok(periodos);
+        // Si el navegador ya tiene la versión vigente, 304 sin consultar la base de datos
+        String etag = datosReferencia.etag(Dominio.PERIODOS);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        List<PeriodoDto> periodos = datosReferencia.obtener(Dominio.PERIODOS, "todos",
+                () -> LecturaMapper.lista(periodoService.obtenerTodosPeriodos(), LecturaMapper::periodo));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(periodos);
     }
 
 
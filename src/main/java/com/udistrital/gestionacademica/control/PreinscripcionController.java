@@ -1,5 +1,6 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.LecturaMapper;
 import com.udistrital.gestionacademica.modelo.Estudiante;
 import com.udistrital.gestionacademica.modelo.Preinscripcion;
 import com.udistrital.gestionacademica.servicio.EstudianteService;
@@ -57,7 +58,7 @@ public class PreinscripcionController {
 
             List<Preinscripcion> preinscripciones = preinscripcionService.obtenerTodasLasPreinscripciones();
 
-            return ResponseEntity.ok(preinscripciones);
+            return ResponseEntity.ok(LecturaMapper.lista(preinscripciones, LecturaMapper::preinscripcion));
 
         } catch (Exception e) {
             log.error("Error al obtener preinscripciones", e);
@@ -77,7 +78,7 @@ public class PreinscripcionController {
 
             Preinscripcion preinscripcion = preinscripcionService.obtenerPreinscripcionPorId(idPreinscripcion);
 
-            return ResponseEntity.ok(preinscripcion);
+            return ResponseEntity.ok(LecturaMapper.preinscripcion(preinscripcion));
 
         } catch (RuntimeException e) {
             log.error("Preinscripción no encontrada: {}", e.getMessage());
@@ -109,7 +110,7 @@ public class PreinscripcionController {
                         .body(crearRespuestaError("No se encontraron preinscripciones"));
             }
 
-            return ResponseEntity.ok(preinscripciones);
+            return ResponseEntity.ok(LecturaMapper.lista(preinscripciones, LecturaMapper::preinscripcion));
 
         } catch (Exception e) {
             log.error("Error al buscar preinscripciones", e);
@@ -1,12 +1,20 @@
 package com.udistrital.gestionacademica.control;
 
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.dto.SesionDto;
+import com.udistrital.gestionacademica.dto.UsuarioResumenDto;
 import com.udistrital.gestionacademica.modelo.TokenUsuario;
+import com.udistrital.gestionacademica.servicio.CredencialesService;
+import com.udistrital.gestionacademica.servicio.SesionUsuarioService;
 import com.udistrital.gestionacademica.servicio.TokenUsuarioService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +25,10 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://127.0.0.1:5500", "http://localhost:5500", "http://127.0.0.1:8080", "http://localhost:8080"})
 public class TokenUsuarioController {
 
+    private static final int TAMANO_PAGINA_POR_DEFECTO = 20;
+
     private final TokenUsuarioService tokenUsuarioService;
+    private final SesionUsuarioService sesionUsuarioService;
 
     // Login
     @PostMapping("/validarLogin")
@@ -38,13 +49,18 @@ public class TokenUsuarioController {
                 );
             }
 
-            TokenUsuario nuevoTokenUsuario = tokenUsuarioService.validarTokenUsuario(
+            SesionDto sesion = tokenUsuarioService.iniciarSesion(
                     tokenUsuario.getNombreUsuario(),
                     tokenUsuario.getContrasena()
             );
 
-            return new ResponseEntity<>(nuevoTokenUsuario, HttpStatus.OK);
+            return new ResponseEntity<>(sesion, HttpStatus.OK);
 
+        } catch (CredencialesService.CredencialesNoDisponiblesException e) {
+            return new ResponseEntity<>(
+                    Map.of("error", true, "mensaje", e.getMessage()),
+                    HttpStatus.SERVICE_UNAVAILABLE
+            );
         } catch (IllegalArgumentException e) {
             // Distinguir entre usuario inhabilitado y credenciales inválidas
             String mensaje = e.getMessage();
@@ -67,12 +83,44 @@ public class TokenUsuarioController {
         }
     }
 
-    // Obtener todos los usuarios
+    // Cierre de sesión: el token deja de aceptarse aunque no haya vencido
+    @PostMapping("/cerrarSesion")
+    public ResponseEntity<?> cerrarSesion(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacion) {
+        if (autorizacion == null || autorizacion.isBlank()) {
+            return new ResponseEntity<>(
+                    Map.of("error", true, "mensaje", "No hay sesión para cerrar"),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        sesionUsuarioService.cerrarSesion(SesionUsuarioService.quitarPrefijo(autorizacion));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Obtener usuarios: con pagina, tamano, orden, rol o busqueda responde una página
+    // de la proyección resumida; sin parámetros, la lista completa como antes
     @GetMapping
-    public ResponseEntity<?> obtenerTodos() {
+    public ResponseEntity<?> obtenerTodos(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String orden,
+            @RequestParam(required = false, defaultValue = "false") boolean descendente,
+            @RequestParam(required = false) String rol,
+            @RequestParam(required = false) String busqueda) {
         try {
+            if (pagina != null || tamano != null || orden != null || rol != null || busqueda != null) {
+                Page<UsuarioResumenDto> resultado = tokenUsuarioService.buscarUsuarios(
+                        rol,
+                        busqueda,
+                        orden,
+                        descendente,
+                        pagina != null ? pagina : 0,
+                        tamano != null ? tamano : TAMANO_PAGINA_POR_DEFECTO
+                );
+                return new ResponseEntity<>(crearRespuestaPagina(resultado), HttpStatus.OK);
+            }
+
             List<TokenUsuario> usuarios = tokenUsuarioService.obtenerTodos();
-            return new ResponseEntity<>(usuarios, HttpStatus.OK);
+            return new ResponseEntity<>(LecturaMapper.lista(usuarios, LecturaMapper::usuario), HttpStatus.OK);
         } catch (Exception e) {
             log.error("Error al obtener usuarios: {}", e.getMessage());
             return new ResponseEntity<>(
@@ -87,7 +135,7 @@ public class TokenUsuarioController {
     public ResponseEntity<?> obtenerPorId(@PathVariable Long id) {
         try {
             TokenUsuario usuario = tokenUsuarioService.obtenerPorId(id);
-            return new ResponseEntity<>(usuario, HttpStatus.OK);
+            return new ResponseEntity<>(LecturaMapper.usuario(usuario), HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(
                     Map.of("error", true, "mensaje", "Usuario no encontrado"),
@@ -114,7 +162,7 @@ public class TokenUsuarioController {
             }
 
             TokenUsuario nuevoUsuario = tokenUsuarioService.crearUsuario(usuario);
-            return new ResponseEntity<>(nuevoUsuario, HttpStatus.CREATED);
+            return new ResponseEntity<>(LecturaMapper.usuario(nuevoUsuario), HttpStatus.CREATED);
 
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(
@@ -135,7 +183,7 @@ public class TokenUsuarioController {
     public ResponseEntity<?> editar(@PathVariable Long id, @RequestBody TokenUsuario tokenUsuario) {
         try {
             TokenUsuario usuarioEditado = tokenUsuarioService.editar(id, tokenUsuario);
-            return new ResponseEntity<>(usuarioEditado, HttpStatus.OK);
+            return new ResponseEntity<>(LecturaMapper.usuario(usuarioEditado), HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             String mensaje = e.getMessage();
             if (mensaje != null && mensaje.contains("ya existe")) {
@@ -167,7 +215,7 @@ public class TokenUsuarioController {
     public ResponseEntity<?> cambiarEstado(@PathVariable Long id) {
         try {
             TokenUsuario usuarioActualizado = tokenUsuarioService.cambiarEstado(id);
-            return new ResponseEntity<>(usuarioActualizado, HttpStatus.OK);
+            return new ResponseEntity<>(LecturaMapper.usuario(usuarioActualizado), HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(
                     Map.of("error", true, "mensaje", "Usuario no encontrado"),
@@ -195,7 +243,7 @@ public class TokenUsuarioController {
             }
 
             TokenUsuario usuarioActualizado = tokenUsuarioService.cambiarPassword(id, nuevaContrasena);
-            return new ResponseEntity<>(usuarioActualizado, HttpStatus.OK);
+            return new ResponseEntity<>(LecturaMapper.usuario(usuarioActualizado), HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(
                     Map.of("error", true, "mensaje", "Usuario no encontrado"),
@@ -210,4 +258,14 @@ public class TokenUsuarioController {
         }
     }
 
+    private Map<String, Object> crearRespuestaPagina(Page<?> pagina) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("contenido", pagina.getContent());
+        response.put("pagina", pagina.getNumber());
+        response.put("tamano", pagina.getSize());
+        response.put("totalElementos", pagina.getTotalElements());
+        response.put("totalPaginas", pagina.getTotalPages());
+        return response;
+    }
+
 }
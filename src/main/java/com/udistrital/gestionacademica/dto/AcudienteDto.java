@@ -0,0 +1,12 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un acudiente (sin la colección de estudiantes)
+ */
+public record AcudienteDto(
+        Long idAcudiente,
+        PersonaDto persona,
+        String correoElectronico,
+        String estado,
+        String telefono) {
+}
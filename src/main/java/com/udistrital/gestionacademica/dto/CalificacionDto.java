@@ -0,0 +1,15 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de lectura de una calificación
+ */
+public record CalificacionDto(
+        Long idCalificacion,
+        EstudianteResumenDto estudiante,
+        LogroDto logro,
+        PeriodoDto periodo,
+        ProfesorDto profesor,
+        LocalDateTime fechaAsignacion) {
+}
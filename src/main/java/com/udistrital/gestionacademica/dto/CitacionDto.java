@@ -0,0 +1,13 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de lectura de una citación
+ */
+public record CitacionDto(
+        Long idCitacion,
+        AcudienteDto acudiente,
+        EstudianteDto estudiante,
+        LocalDateTime fechaCitacion) {
+}
@@ -0,0 +1,14 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un estudiante.
+ * nombreGrupo se conserva porque la interfaz lo usaba del método auxiliar de la entidad
+ */
+public record EstudianteDto(
+        Long codigoEstudiante,
+        PersonaDto persona,
+        AcudienteDto acudiente,
+        GrupoResumenDto grupo,
+        String estado,
+        String nombreGrupo) {
+}
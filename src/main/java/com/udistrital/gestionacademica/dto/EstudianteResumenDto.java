@@ -0,0 +1,7 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Estudiante tal como se muestra dentro de una calificación: solo identificación
+ */
+public record EstudianteResumenDto(Long codigoEstudiante, PersonaDto persona, String estado) {
+}
@@ -0,0 +1,7 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un grado
+ */
+public record GradoDto(Long idGrado, String nombreGrado) {
+}
@@ -0,0 +1,12 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un grupo con su ocupación actual
+ */
+public record GrupoDto(
+        Long idGrupo,
+        Integer numeroGrupo,
+        GradoDto grado,
+        ProfesorDto directorGrupo,
+        long numeroEstudiantes) {
+}
@@ -0,0 +1,7 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Grupo tal como se muestra dentro de un estudiante: solo número y grado
+ */
+public record GrupoResumenDto(Long idGrupo, Integer numeroGrupo, GradoDto grado) {
+}
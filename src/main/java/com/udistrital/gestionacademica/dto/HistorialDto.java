@@ -0,0 +1,9 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.util.List;
+
+/**
+ * Historial de calificaciones de un estudiante
+ */
+public record HistorialDto(EstudianteDto estudiante, List<CalificacionDto> calificaciones, long totalLogros) {
+}
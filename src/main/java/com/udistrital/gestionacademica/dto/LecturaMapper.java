@@ -0,0 +1,214 @@
+package com.udistrital.gestionacademica.dto;
+
+import com.udistrital.gestionacademica.modelo.Acudiente;
+import com.udistrital.gestionacademica.modelo.Calificacion;
+import com.udistrital.gestionacademica.modelo.Citacion;
+import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Grado;
+import com.udistrital.gestionacademica.modelo.Grupo;
+import com.udistrital.gestionacademica.modelo.Logro;
+import com.udistrital.gestionacademica.modelo.Periodo;
+import com.udistrital.gestionacademica.modelo.Persona;
+import com.udistrital.gestionacademica.modelo.Preinscripcion;
+import com.udistrital.gestionacademica.modelo.Profesor;
+import com.udistrital.gestionacademica.modelo.TokenUsuario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Conversión explícita de entidades a los registros de lectura que devuelven
+ * los endpoints GET.
+ *
+ * Reglas:
+ * - Solo se leen las asociaciones que forman parte de la respuesta; las
+ *   colecciones de las entidades (estudiantes de un grupo o de un acudiente,
+ *   usuarios de una persona) nunca se recorren
+ * - Las consultas que alimentan estos métodos cargan esas asociaciones con su
+ *   grafo de entidad, de modo que el mapeo no dispara consultas adicionales
+ * - Una asociación nula se devuelve como null, igual que antes
+ */
+public final class LecturaMapper {
+
+    private LecturaMapper() {
+    }
+
+    public static PersonaDto persona(Persona persona) {
+        if (persona == null) {
+            return null;
+        }
+        return new PersonaDto(
+                persona.getIdPersona(),
+                persona.getDocumento(),
+                persona.getNombre(),
+                persona.getApellido(),
+                persona.getFechaDeNacimiento(),
+                persona.getGenero());
+    }
+
+    public static GradoDto grado(Grado grado) {
+        if (grado == null) {
+            return null;
+        }
+        return new GradoDto(grado.getIdGrado(), grado.getNombreGrado());
+    }
+
+    public static PeriodoDto periodo(Periodo periodo) {
+        if (periodo == null) {
+            return null;
+        }
+        return new PeriodoDto(
+                periodo.getIdPeriodo(),
+                periodo.getNombrePeriodo(),
+                periodo.getFechaInicio(),
+                periodo.getFechaFin());
+    }
+
+    public static LogroDto logro(Logro logro) {
+        if (logro == null) {
+            return null;
+        }
+        return new LogroDto(logro.getIdLogro(), logro.getNombreLogro(), logro.getDescripcion(), logro.getCategoria());
+    }
+
+    public static ProfesorDto profesor(Profesor profesor) {
+        if (profesor == null) {
+            return null;
+        }
+        return new ProfesorDto(profesor.getIdProfesor(), persona(profesor.getPersona()));
+    }
+
+    public static AcudienteDto acudiente(Acudiente acudiente) {
+        if (acudiente == null) {
+            return null;
+        }
+        return new AcudienteDto(
+                acudiente.getIdAcudiente(),
+                persona(acudiente.getPersona()),
+                acudiente.getCorreoElectronico(),
+                acudiente.getEstado(),
+                acudiente.getTelefono());
+    }
+
+    /**
+     * Grupo con su número de estudiantes, calculado aparte con una consulta agregada
+     */
+    public static GrupoDto grupo(Grupo grupo, long numeroEstudiantes) {
+        if (grupo == null) {
+            return null;
+        }
+        return new GrupoDto(
+                grupo.getIdGrupo(),
+                grupo.getNumeroGrupo(),
+                grado(grupo.getGrado()),
+                profesor(grupo.getDirectorGrupo()),
+                numeroEstudiantes);
+    }
+
+    /**
+     * Grupos con su número de estudiantes (idGrupo -> cantidad; ausente = 0)
+     */
+    public static List<GrupoDto> grupos(List<Grupo> grupos, Map<Long, Long> estudiantesPorGrupo) {
+        List<GrupoDto> resultado = new ArrayList<>(grupos.size());
+        for (Grupo grupo : grupos) {
+            resultado.add(grupo(grupo, estudiantesPorGrupo.getOrDefault(grupo.getIdGrupo(), 0L)));
+        }
+        return resultado;
+    }
+
+    public static EstudianteDto estudiante(Estudiante estudiante) {
+        if (estudiante == null) {
+            return null;
+        }
+        GrupoResumenDto grupo = null;
+        String nombreGrupo = "Sin grupo";
+        if (estudiante.getGrupo() != null) {
+            Grupo entidadGrupo = estudiante.getGrupo();
+            grupo = new GrupoResumenDto(entidadGrupo.getIdGrupo(), entidadGrupo.getNumeroGrupo(), grado(entidadGrupo.getGrado()));
+            nombreGrupo = (grupo.grado() != null ? grupo.grado().nombreGrado() : "") + " - Grupo " + grupo.numeroGrupo();
+        }
+        return new EstudianteDto(
+                estudiante.getCodigoEstudiante(),
+                persona(estudiante.getPersona()),
+                acudiente(estudiante.getAcudiente()),
+                grupo,
+                estudiante.getEstado(),
+                nombreGrupo);
+    }
+
+    public static EstudianteResumenDto estudianteResumen(Estudiante estudiante) {
+        if (estudiante == null) {
+            return null;
+        }
+        return new EstudianteResumenDto(
+                estudiante.getCodigoEstudiante(),
+                persona(estudiante.getPersona()),
+                estudiante.getEstado());
+    }
+
+    public static CalificacionDto calificacion(Calificacion calificacion) {
+        if (calificacion == null) {
+            return null;
+        }
+        return new CalificacionDto(
+                calificacion.getIdCalificacion(),
+                estudianteResumen(calificacion.getEstudiante()),
+                logro(calificacion.getLogro()),
+                periodo(calificacion.getPeriodo()),
+                profesor(calificacion.getProfesor()),
+                calificacion.getFechaAsignacion());
+    }
+
+    public static HistorialDto historial(Estudiante estudiante, List<Calificacion> calificaciones, long totalLogros) {
+        return new HistorialDto(estudiante(estudiante), lista(calificaciones, LecturaMapper::calificacion), totalLogros);
+    }
+
+    public static CitacionDto citacion(Citacion citacion) {
+        if (citacion == null) {
+            return null;
+        }
+        return new CitacionDto(
+                citacion.getIdCitacion(),
+                acudiente(citacion.getAcudiente()),
+                estudiante(citacion.getEstudiante()),
+                citacion.getFechaCitacion());
+    }
+
+    public static PreinscripcionDto preinscripcion(Preinscripcion preinscripcion) {
+        if (preinscripcion == null) {
+            return null;
+        }
+        return new PreinscripcionDto(
+                preinscripcion.getIdPreinscripcion(),
+                estudianteResumen(preinscripcion.getAspirante()),
+                preinscripcion.getFechaEntrevista(),
+                preinscripcion.getLugarEntrevista(),
+                preinscripcion.getFechaPreinscripcion(),
+                acudiente(preinscripcion.getAcudiente()));
+    }
+
+    public static UsuarioDto usuario(TokenUsuario usuario) {
+        if (usuario == null) {
+            return null;
+        }
+        return new UsuarioDto(
+                usuario.getIdTokenUsuario(),
+                usuario.getNombreUsuario(),
+                usuario.getEstado(),
+                usuario.getRol(),
+                persona(usuario.getPersona()));
+    }
+
+    /**
+     * Convertir una lista completa con el mapeo indicado
+     */
+    public static <E, D> List<D> lista(List<E> entidades, Function<E, D> mapeo) {
+        List<D> resultado = new ArrayList<>(entidades.size());
+        for (E entidad : entidades) {
+            resultado.add(mapeo.apply(entidad));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,7 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un logro
+ */
+public record LogroDto(Long idLogro, String nombreLogro, String descripcion, String categoria) {
+}
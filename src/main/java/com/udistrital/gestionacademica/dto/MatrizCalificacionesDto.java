@@ -0,0 +1,28 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.util.List;
+
+/**
+ * Estado completo de calificaciones de un grupo en un período, en forma compacta.
+ *
+ * estudiantes y logros son diccionarios; cada calificación k se codifica con
+ * tres arreglos paralelos: filas[k] es el índice en estudiantes, columnas[k]
+ * el índice en logros e idsCalificacion[k] el ID de la calificación.
+ * Los estudiantes del grupo sin calificaciones aparecen en el diccionario
+ * aunque no tengan ninguna celda.
+ */
+public record MatrizCalificacionesDto(
+        Long idGrupo,
+        Long idPeriodo,
+        List<EstudianteMatriz> estudiantes,
+        List<LogroMatriz> logros,
+        int[] filas,
+        int[] columnas,
+        long[] idsCalificacion) {
+
+    public record EstudianteMatriz(Long codigoEstudiante, String nombre, String apellido) {
+    }
+
+    public record LogroMatriz(Long idLogro, String nombreLogro, String categoria) {
+    }
+}
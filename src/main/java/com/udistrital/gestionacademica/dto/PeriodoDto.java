@@ -0,0 +1,9 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Datos de lectura de un período
+ */
+public record PeriodoDto(Long idPeriodo, String nombrePeriodo, LocalDate fechaInicio, LocalDate fechaFin) {
+}
@@ -0,0 +1,15 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de lectura de una persona
+ */
+public record PersonaDto(
+        Long idPersona,
+        String documento,
+        String nombre,
+        String apellido,
+        LocalDateTime fechaDeNacimiento,
+        String genero) {
+}
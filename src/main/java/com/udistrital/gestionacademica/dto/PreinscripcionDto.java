@@ -0,0 +1,15 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de lectura de una preinscripción
+ */
+public record PreinscripcionDto(
+        Long idPreinscripcion,
+        EstudianteResumenDto aspirante,
+        LocalDateTime fechaEntrevista,
+        String lugarEntrevista,
+        LocalDateTime fechaPreinscripcion,
+        AcudienteDto acudiente) {
+}
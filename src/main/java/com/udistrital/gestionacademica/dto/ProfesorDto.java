@@ -0,0 +1,7 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un profesor
+ */
+public record ProfesorDto(Long idProfesor, PersonaDto persona) {
+}
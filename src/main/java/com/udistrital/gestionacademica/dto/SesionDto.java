@@ -0,0 +1,19 @@
+package com.udistrital.gestionacademica.dto;
+
+import java.time.Instant;
+
+/**
+ * Respuesta del inicio de sesión: el usuario con sus perfiles ya resueltos y
+ * el token firmado que lo identifica en las siguientes peticiones
+ * (Authorization: Bearer ...). Nunca incluye la contraseña
+ */
+public record SesionDto(
+        Long idTokenUsuario,
+        String nombreUsuario,
+        String rol,
+        PersonaDto persona,
+        Long idProfesor,
+        Long idAcudiente,
+        String token,
+        Instant expira) {
+}
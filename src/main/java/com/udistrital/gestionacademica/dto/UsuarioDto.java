@@ -0,0 +1,12 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Datos de lectura de un usuario. Nunca incluye la contraseña
+ */
+public record UsuarioDto(
+        Long idTokenUsuario,
+        String nombreUsuario,
+        Boolean estado,
+        String rol,
+        PersonaDto persona) {
+}
@@ -0,0 +1,15 @@
+package com.udistrital.gestionacademica.dto;
+
+/**
+ * Fila del listado paginado de usuarios: se construye directamente en la
+ * consulta (sin cargar la entidad ni la persona completa). Nunca incluye la
+ * contraseña
+ */
+public record UsuarioResumenDto(
+        Long idTokenUsuario,
+        String nombreUsuario,
+        Boolean estado,
+        String rol,
+        String nombre,
+        String apellido) {
+}
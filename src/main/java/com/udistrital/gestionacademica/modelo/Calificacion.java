@@ -1,6 +1,7 @@
 
 package com.udistrital.gestionacademica.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,26 +13,41 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(
+        name = "Calificacion.detalle",
+        attributeNodes = {
+            @NamedAttributeNode(value = "estudiante", subgraph = "estudiante"),
+            @NamedAttributeNode("logro"),
+            @NamedAttributeNode("periodo"),
+            @NamedAttributeNode(value = "profesor", subgraph = "profesor")
+        },
+        subgraphs = {
+            @NamedSubgraph(name = "estudiante", attributeNodes = @NamedAttributeNode("persona")),
+            @NamedSubgraph(name = "profesor", attributeNodes = @NamedAttributeNode("persona"))
+        }
+)
 public class Calificacion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calificacion_seq")
+    @SequenceGenerator(name = "calificacion_seq", sequenceName = "calificacion_seq", allocationSize = 50)
     @Column(name = "id_calificacion")
     private Long idCalificacion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "codigo_estudiante", nullable = false)
     private Estudiante estudiante;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_logro", nullable = false)
     private Logro logro;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_periodo", nullable = false)
     private Periodo periodo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_profesor")
     private Profesor profesor;
 
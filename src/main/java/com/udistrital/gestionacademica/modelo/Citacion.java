@@ -1,5 +1,6 @@
 package com.udistrital.gestionacademica.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,19 +12,35 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(
+        name = "Citacion.detalle",
+        attributeNodes = {
+            @NamedAttributeNode(value = "acudiente", subgraph = "acudiente"),
+            @NamedAttributeNode(value = "estudiante", subgraph = "estudiante")
+        },
+        subgraphs = {
+            @NamedSubgraph(name = "acudiente", attributeNodes = @NamedAttributeNode("persona")),
+            @NamedSubgraph(name = "estudiante", attributeNodes = {
+                @NamedAttributeNode("persona"),
+                @NamedAttributeNode(value = "grupo", subgraph = "grupo")
+            }),
+            @NamedSubgraph(name = "grupo", attributeNodes = @NamedAttributeNode("grado"))
+        }
+)
 public class Citacion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "citacion_seq")
+    @SequenceGenerator(name = "citacion_seq", sequenceName = "citacion_seq", allocationSize = 50)
     @Column(name = "id_citacion")
     private Long idCitacion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idAcudiente", nullable = false)
     private Acudiente acudiente;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "codigoEstudiante", nullable = false)
     private Estudiante estudiante;
 
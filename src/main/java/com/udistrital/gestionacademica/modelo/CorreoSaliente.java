@@ -0,0 +1,104 @@
+package com.udistrital.gestionacademica.modelo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío (bandeja de salida).
+ *
+ * Se escribe en la misma transacción que la operación que lo origina
+ * (citación, entrevista), de modo que si la operación se confirma el correo
+ * no se pierde aunque el servidor SMTP falle o la aplicación se reinicie.
+ *
+ * Estados:
+ * - PENDIENTE: espera su turno (proximoIntento)
+ * - ENVIANDO: reclamado por una instancia hasta bloqueadoHasta; si esa
+ *   instancia muere, vence el bloqueo y otra lo vuelve a reclamar
+ * - ENVIADO: entregado al servidor SMTP
+ * - DESCARTADO: agotó los reintentos o tiene un error permanente (cola de
+ *   mensajes muertos, se conserva para revisión)
+ *
+ * Un correo con claveAgrupacion es un resumen: mientras siga PENDIENTE y su
+ * proximoIntento no haya llegado, se le pueden agregar más contenidos.
+ */
+@Entity
+@Table(name = "correo_saliente",
+        indexes = @Index(name = "idx_correo_saliente_estado_proximo", columnList = "estado, proximo_intento"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class CorreoSaliente {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String ENVIANDO = "ENVIANDO";
+    public static final String ENVIADO = "ENVIADO";
+    public static final String DESCARTADO = "DESCARTADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "correo_saliente_seq")
+    @SequenceGenerator(name = "correo_saliente_seq", sequenceName = "correo_saliente_seq", allocationSize = 50)
+    @Column(name = "id_correo")
+    private Long idCorreo;
+
+    // CITACION, ENTREVISTA, ...
+    @Column(name = "tipo", nullable = false, length = 30)
+    private String tipo;
+
+    @Column(name = "destinatario", nullable = false)
+    private String destinatario;
+
+    @Column(name = "asunto", nullable = false)
+    private String asunto;
+
+    @Column(name = "contenido_html", nullable = false, columnDefinition = "TEXT")
+    private String contenidoHtml;
+
+    // Correos que pueden fusionarse en un resumen (p. ej. CITACIONES:idAcudiente); null si no
+    @Column(name = "clave_agrupacion", length = 60)
+    private String claveAgrupacion;
+
+    // IDs de las citaciones incluidas en el correo, separados por coma
+    @Column(name = "referencias", columnDefinition = "TEXT")
+    private String referencias;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "bloqueado_hasta")
+    private LocalDateTime bloqueadoHasta;
+
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (fechaCreacion == null) {
+            fechaCreacion = ahora;
+        }
+        if (proximoIntento == null) {
+            proximoIntento = ahora;
+        }
+        if (estado == null) {
+            estado = PENDIENTE;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
 @Entity
@@ -12,22 +13,36 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(
+        name = "Estudiante.detalle",
+        attributeNodes = {
+            @NamedAttributeNode("persona"),
+            @NamedAttributeNode(value = "acudiente", subgraph = "acudiente"),
+            @NamedAttributeNode(value = "grupo", subgraph = "grupo")
+        },
+        subgraphs = {
+            @NamedSubgraph(name = "acudiente", attributeNodes = @NamedAttributeNode("persona")),
+            @NamedSubgraph(name = "grupo", attributeNodes = @NamedAttributeNode("grado"))
+        }
+)
 public class Estudiante {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estudiante_seq")
+    @SequenceGenerator(name = "estudiante_seq", sequenceName = "estudiante_seq", allocationSize = 50)
     @Column(name = "codigoEstudiante")
     private Long codigoEstudiante;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idAcudiente")
     private Acudiente acudiente;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idPersona")
     private Persona persona;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idGrupo")
     private Grupo grupo;
 
@@ -2,6 +2,7 @@ package com.udistrital.gestionacademica.modelo;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,21 +14,31 @@ import java.util.Map;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(
+        name = "Grupo.detalle",
+        attributeNodes = {
+            @NamedAttributeNode("grado"),
+            @NamedAttributeNode(value = "directorGrupo", subgraph = "director")
+        },
+        subgraphs = @NamedSubgraph(name = "director", attributeNodes = @NamedAttributeNode("persona"))
+)
 public class Grupo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grupo_seq")
+    @SequenceGenerator(name = "grupo_seq", sequenceName = "grupo_seq", allocationSize = 50)
     @Column(name = "id_grupo")
     private Long idGrupo;
 
     @Column(name = "numero_grupo", nullable = false)
     private Integer numeroGrupo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_director_grupo", nullable = true)
     private Profesor directorGrupo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_grado", nullable = false)
     private Grado grado;
 
@@ -1,6 +1,9 @@
 package com.udistrital.gestionacademica.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,13 +11,17 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "periodo")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Periodo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "periodo_seq")
+    @SequenceGenerator(name = "periodo_seq", sequenceName = "periodo_seq", allocationSize = 50)
     @Column(name = "idPeriodo")
     private Long idPeriodo;
 
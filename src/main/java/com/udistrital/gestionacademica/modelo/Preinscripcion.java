@@ -1,5 +1,6 @@
 package com.udistrital.gestionacademica.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,14 +13,27 @@ import java.time.LocalTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(
+        name = "Preinscripcion.detalle",
+        attributeNodes = {
+            @NamedAttributeNode(value = "aspirante", subgraph = "aspirante"),
+            @NamedAttributeNode(value = "acudiente", subgraph = "acudiente")
+        },
+        subgraphs = {
+            @NamedSubgraph(name = "aspirante", attributeNodes = @NamedAttributeNode("persona")),
+            @NamedSubgraph(name = "acudiente", attributeNodes = @NamedAttributeNode("persona"))
+        }
+)
 public class Preinscripcion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "preinscripcion_seq")
+    @SequenceGenerator(name = "preinscripcion_seq", sequenceName = "preinscripcion_seq", allocationSize = 50)
     @Column(name = "idPreinscripcion")
     private Long idPreinscripcion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idEstudiante", nullable = false)
     private Estudiante aspirante;
 
@@ -32,7 +46,7 @@ public class Preinscripcion {
     @Column(name = "fechaPreinscripcion", nullable = false)
     private LocalDateTime fechaPreinscripcion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idAcudiente", nullable = false)
     private Acudiente acudiente;
 
@@ -1,5 +1,6 @@
 package com.udistrital.gestionacademica.modelo;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,10 +11,12 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class TokenUsuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_usuario_seq")
+    @SequenceGenerator(name = "token_usuario_seq", sequenceName = "token_usuario_seq", allocationSize = 50)
     @Column(name = "id_token_usuario")
     private Long idTokenUsuario;
 
@@ -26,7 +29,7 @@ public class TokenUsuario {
     @Column(name = "estado", nullable = false)
     private Boolean estado;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idPersona")
     private Persona persona;
 
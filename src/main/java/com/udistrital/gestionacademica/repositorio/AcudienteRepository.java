@@ -1,10 +1,15 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Acudiente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +24,17 @@ public interface AcudienteRepository extends JpaRepository<Acudiente, Long> {
 
     @Query("SELECT a FROM Acudiente a WHERE a.persona.idPersona = :idPersona")
     Optional<Acudiente> findByPersona(@Param("idPersona") Long idPersona);
+
+    /**
+     * Bloquear las filas de los acudientes hasta el commit, en orden de ID para
+     * que dos transacciones con acudientes en común no se bloqueen mutuamente.
+     * Serializa la creación del resumen de citaciones de cada acudiente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Acudiente a WHERE a.idAcudiente IN :ids ORDER BY a.idAcudiente")
+    List<Acudiente> bloquear(@Param("ids") Collection<Long> ids);
+
+    @Override
+    @EntityGraph(attributePaths = "persona")
+    List<Acudiente> findAll();
 }
@@ -2,8 +2,11 @@ package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Boletin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,8 @@ public interface BoletinRepository extends JpaRepository<Boletin, Long> {
     
     // Buscar si ya existe un boletín para un estudiante en un periodo
     Optional<Boletin> findByEstudianteCodigoEstudianteAndPeriodoIdPeriodo(Long codigoEstudiante, Long idPeriodo);
+
+    // Boletines ya existentes de varios estudiantes en un periodo (generación por lote)
+    @Query("SELECT b FROM Boletin b WHERE b.periodo.idPeriodo = :idPeriodo AND b.estudiante.codigoEstudiante IN :codigosEstudiante")
+    List<Boletin> findByPeriodoYEstudiantes(@Param("idPeriodo") Long idPeriodo, @Param("codigosEstudiante") Collection<Long> codigosEstudiante);
 }
@@ -1,10 +1,12 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Calificacion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +16,14 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
     /**
      * Buscar calificaciones por código de estudiante
      */
+    @EntityGraph("Calificacion.detalle")
     @Query("SELECT c FROM Calificacion c WHERE c.estudiante.codigoEstudiante = :codigoEstudiante ORDER BY c.fechaAsignacion DESC")
     List<Calificacion> findByEstudianteCodigoEstudiante(@Param("codigoEstudiante") Long codigoEstudiante);
 
     /**
      * Buscar calificaciones por código de estudiante y período
      */
+    @EntityGraph("Calificacion.detalle")
     @Query("SELECT c FROM Calificacion c WHERE c.estudiante.codigoEstudiante = :codigoEstudiante AND c.periodo.idPeriodo = :idPeriodo ORDER BY c.fechaAsignacion DESC")
     List<Calificacion> findByEstudianteCodigoEstudianteAndPeriodo(
         @Param("codigoEstudiante") Long codigoEstudiante,
@@ -29,6 +33,7 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
     /**
      * Buscar calificaciones por nombre de período
      */
+    @EntityGraph("Calificacion.detalle")
     @Query("SELECT c FROM Calificacion c WHERE c.periodo.nombrePeriodo = :nombrePeriodo ORDER BY c.fechaAsignacion DESC")
     List<Calificacion> findByPeriodoNombrePeriodo(@Param("nombrePeriodo") String nombrePeriodo);
     
@@ -42,6 +47,45 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
         @Param("idPeriodo") Long idPeriodo
     );
     
+    /**
+     * Pares [codigoEstudiante, idLogro] ya asignados en un período, restringidos
+     * a los estudiantes y logros indicados. Permite verificar duplicados de
+     * toda una asignación masiva con una sola consulta.
+     */
+    @Query("SELECT c.estudiante.codigoEstudiante, c.logro.idLogro FROM Calificacion c "
+            + "WHERE c.periodo.idPeriodo = :idPeriodo "
+            + "AND c.estudiante.codigoEstudiante IN :codigosEstudiante "
+            + "AND c.logro.idLogro IN :idsLogro")
+    List<Object[]> findAsignacionesExistentes(
+        @Param("idPeriodo") Long idPeriodo,
+        @Param("codigosEstudiante") Collection<Long> codigosEstudiante,
+        @Param("idsLogro") Collection<Long> idsLogro
+    );
+
+    /**
+     * Todas las calificaciones de los estudiantes de un grupo en un período (boletines por lote)
+     */
+    @EntityGraph("Calificacion.detalle")
+    @Query("SELECT c FROM Calificacion c WHERE c.estudiante.grupo.idGrupo = :idGrupo AND c.periodo.idPeriodo = :idPeriodo ORDER BY c.fechaAsignacion DESC")
+    List<Calificacion> findByGrupoYPeriodo(@Param("idGrupo") Long idGrupo, @Param("idPeriodo") Long idPeriodo);
+
+    /**
+     * Todas las calificaciones de los estudiantes de un grado en un período (boletines por lote)
+     */
+    @EntityGraph("Calificacion.detalle")
+    @Query("SELECT c FROM Calificacion c WHERE c.estudiante.grupo.grado.idGrado = :idGrado AND c.periodo.idPeriodo = :idPeriodo ORDER BY c.fechaAsignacion DESC")
+    List<Calificacion> findByGradoYPeriodo(@Param("idGrado") Long idGrado, @Param("idPeriodo") Long idPeriodo);
+
+    /**
+     * Celdas de la matriz de calificaciones de un grupo en un período.
+     * Cada fila es [idCalificacion, codigoEstudiante, idLogro, nombreLogro, categoria]
+     */
+    @Query("SELECT c.idCalificacion, c.estudiante.codigoEstudiante, l.idLogro, l.nombreLogro, l.categoria "
+            + "FROM Calificacion c JOIN c.logro l "
+            + "WHERE c.estudiante.grupo.idGrupo = :idGrupo AND c.periodo.idPeriodo = :idPeriodo "
+            + "ORDER BY l.categoria, l.nombreLogro")
+    List<Object[]> findCeldasMatriz(@Param("idGrupo") Long idGrupo, @Param("idPeriodo") Long idPeriodo);
+
     /**
      * Verificar si ya existe una calificación para un estudiante con un logro específico (sin periodo)
      */
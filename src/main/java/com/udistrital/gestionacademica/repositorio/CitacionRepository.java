@@ -1,11 +1,14 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Citacion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CitacionRepository extends JpaRepository<Citacion, Long> {
@@ -13,18 +16,40 @@ public interface CitacionRepository extends JpaRepository<Citacion, Long> {
     /**
      * Buscar citaciones por acudiente
      */
+    @EntityGraph("Citacion.detalle")
     @Query("SELECT c FROM Citacion c WHERE c.acudiente.idAcudiente = :idAcudiente ORDER BY c.fechaCitacion DESC")
     List<Citacion> findByAcudienteId(@Param("idAcudiente") Long idAcudiente);
 
     /**
      * Buscar citaciones por estudiante
      */
+    @EntityGraph("Citacion.detalle")
     @Query("SELECT c FROM Citacion c WHERE c.estudiante.codigoEstudiante = :codigoEstudiante ORDER BY c.fechaCitacion DESC")
     List<Citacion> findByEstudianteId(@Param("codigoEstudiante") Long codigoEstudiante);
 
     /**
      * Buscar citaciones por grupo
      */
+    @EntityGraph("Citacion.detalle")
     @Query("SELECT c FROM Citacion c WHERE c.estudiante.grupo.idGrupo = :idGrupo ORDER BY c.fechaCitacion DESC")
     List<Citacion> findByGrupoId(@Param("idGrupo") Long idGrupo);
+
+    /**
+     * Citación con estudiante y acudiente cargados (para el envío de correos)
+     */
+    @EntityGraph("Citacion.detalle")
+    @Query("SELECT c FROM Citacion c WHERE c.idCitacion = :idCitacion")
+    Optional<Citacion> findConDetalle(@Param("idCitacion") Long idCitacion);
+
+    /**
+     * Citaciones con detalle por IDs (para volver a armar un resumen de correo)
+     */
+    @EntityGraph("Citacion.detalle")
+    @Query("SELECT c FROM Citacion c WHERE c.idCitacion IN :ids ORDER BY c.fechaCitacion")
+    List<Citacion> findConDetalleEnLista(@Param("ids") Collection<Long> ids);
+
+    @Override
+    @EntityGraph("Citacion.detalle")
+    @Query("SELECT c FROM Citacion c ORDER BY c.fechaCitacion DESC")
+    List<Citacion> findAll();
 }
@@ -0,0 +1,54 @@
+package com.udistrital.gestionacademica.repositorio;
+
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CorreoSalienteRepository extends JpaRepository<CorreoSaliente, Long> {
+
+    /**
+     * Correos listos para enviar: pendientes cuyo turno llegó, o en envío con
+     * el bloqueo vencido (la instancia que los reclamó murió).
+     * FOR UPDATE SKIP LOCKED: filas que otra instancia está reclamando en este
+     * momento se saltan en lugar de esperar, así varias instancias drenan la
+     * bandeja en paralelo sin enviar dos veces el mismo correo.
+     * Debe ejecutarse dentro de una transacción que marque los correos como ENVIANDO.
+     */
+    @Query(value = "SELECT * FROM correo_saliente "
+            + "WHERE (estado = 'PENDIENTE' AND proximo_intento <= :ahora) "
+            + "OR (estado = 'ENVIANDO' AND bloqueado_hasta < :ahora) "
+            + "ORDER BY proximo_intento "
+            + "LIMIT :lote "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CorreoSaliente> reclamar(@Param("ahora") LocalDateTime ahora, @Param("lote") int lote);
+
+    /**
+     * Correos de un lote que siguen en envío, bloqueados para registrar su
+     * resultado. Quien llama debe comprobar además que bloqueadoHasta sea el
+     * de su reclamo: si venció y otra instancia los volvió a reclamar, el
+     * resultado ya no le corresponde.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CorreoSaliente c WHERE c.idCorreo IN :ids AND c.estado = 'ENVIANDO'")
+    List<CorreoSaliente> bloquearEnviando(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Resúmenes todavía abiertos (pendientes y dentro de su ventana) para las
+     * claves indicadas, bloqueados para agregarles contenido. El despachador no
+     * los toca hasta que llega su proximoIntento.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CorreoSaliente c WHERE c.claveAgrupacion IN :claves "
+            + "AND c.estado = 'PENDIENTE' AND c.proximoIntento > :ahora")
+    List<CorreoSaliente> findResumenesAbiertos(@Param("claves") Collection<String> claves,
+                                               @Param("ahora") LocalDateTime ahora);
+}
@@ -1,26 +1,83 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Estudiante;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EstudianteRepository extends JpaRepository<Estudiante, Long> {
+public interface EstudianteRepository extends JpaRepository<Estudiante, Long>, JpaSpecificationExecutor<Estudiante> {
 
+    @EntityGraph("Estudiante.detalle")
     @Query("SELECT e FROM Estudiante e ORDER BY e.persona.apellido, e.persona.nombre")
     List<Estudiante> findAllOrdenados();
 
     @Query("SELECT e FROM Estudiante e WHERE e.persona.documento = :documento")
     Optional<Estudiante> findByDocumentoEstudiante(@Param("documento") String documento);
 
-    @Query("SELECT e FROM Estudiante e WHERE e.grupo.idGrupo = :idGrupo")
+    @EntityGraph("Estudiante.detalle")
+    @Query("SELECT e FROM Estudiante e WHERE e.grupo.idGrupo = :idGrupo ORDER BY e.persona.apellido, e.persona.nombre")
     List<Estudiante> buscarPorIdGrupo(@Param("idGrupo") Long idGrupo);
 
+    @EntityGraph("Estudiante.detalle")
+    @Query("SELECT e FROM Estudiante e WHERE e.grupo.grado.idGrado = :idGrado ORDER BY e.grupo.numeroGrupo, e.persona.apellido, e.persona.nombre")
+    List<Estudiante> buscarPorIdGrado(@Param("idGrado") Long idGrado);
+
+    @EntityGraph("Estudiante.detalle")
     @Query("SELECT e FROM Estudiante e WHERE e.acudiente.idAcudiente = :idAcudiente ORDER BY e.persona.apellido, e.persona.nombre")
     List<Estudiante> findByAcudiente(@Param("idAcudiente") Long idAcudiente);
+
+    /**
+     * Estudiante con persona, acudiente y grupo cargados en una sola consulta.
+     * Evita una consulta por relación al armar el contenido de un correo en la bandeja de salida
+     */
+    @EntityGraph("Estudiante.detalle")
+    @Query("SELECT e FROM Estudiante e WHERE e.codigoEstudiante = :codigoEstudiante")
+    Optional<Estudiante> findConDetalle(@Param("codigoEstudiante") Long codigoEstudiante);
+
+    /**
+     * Varios estudiantes con persona, acudiente y grupo cargados en una sola consulta
+     */
+    @EntityGraph("Estudiante.detalle")
+    @Query("SELECT e FROM Estudiante e WHERE e.codigoEstudiante IN :codigos")
+    List<Estudiante> findConDetalleEnLista(@Param("codigos") Collection<Long> codigos);
+
+    /**
+     * Solo los códigos de los estudiantes de un grupo (sin cargar las entidades)
+     */
+    @Query("SELECT e.codigoEstudiante FROM Estudiante e WHERE e.grupo.idGrupo = :idGrupo")
+    List<Long> findCodigosPorGrupo(@Param("idGrupo") Long idGrupo);
+
+    /**
+     * Código, nombre y apellido de los estudiantes de un grupo, ordenados por apellido
+     */
+    @Query("SELECT e.codigoEstudiante, p.nombre, p.apellido FROM Estudiante e JOIN e.persona p "
+            + "WHERE e.grupo.idGrupo = :idGrupo ORDER BY p.apellido, p.nombre")
+    List<Object[]> findNombresPorGrupo(@Param("idGrupo") Long idGrupo);
+
+    /**
+     * Número de estudiantes por grupo, en una sola consulta agregada.
+     * Cada fila es [idGrupo, cantidad]; los grupos sin estudiantes no aparecen
+     */
+    @Query("SELECT e.grupo.idGrupo, COUNT(e) FROM Estudiante e WHERE e.grupo.idGrupo IN :idsGrupo GROUP BY e.grupo.idGrupo")
+    List<Object[]> contarPorGrupos(@Param("idsGrupo") Collection<Long> idsGrupo);
+
+    @Override
+    @EntityGraph("Estudiante.detalle")
+    List<Estudiante> findAll(Specification<Estudiante> spec, Sort sort);
+
+    @Override
+    @EntityGraph("Estudiante.detalle")
+    Page<Estudiante> findAll(Specification<Estudiante> spec, Pageable pageable);
 }
@@ -0,0 +1,96 @@
+package com.udistrital.gestionacademica.repositorio;
+
+import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Persona;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Predicados componibles para la búsqueda de estudiantes.
+ * Cada filtro se traduce a SQL, de modo que la base de datos filtra y ordena
+ * en lugar de cargar toda la tabla en memoria.
+ */
+public final class EstudianteSpecifications {
+
+    private EstudianteSpecifications() {
+    }
+
+    /**
+     * Búsqueda por texto en nombre, apellido o documento (insensible a mayúsculas)
+     */
+    public static Specification<Estudiante> textoContiene(String texto) {
+        String patron = "%" + escaparLike(texto.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> {
+            Join<Estudiante, Persona> persona = persona(root);
+            return cb.or(
+                    cb.like(cb.lower(persona.get("nombre")), patron, '\\'),
+                    cb.like(cb.lower(persona.get("apellido")), patron, '\\'),
+                    cb.like(cb.lower(persona.get("documento")), patron, '\\'));
+        };
+    }
+
+    /**
+     * Restringir a las personas indicadas (resultado del índice de búsqueda)
+     */
+    public static Specification<Estudiante> personaEn(Collection<Long> idsPersona) {
+        return (root, query, cb) -> idsPersona.isEmpty()
+                ? cb.disjunction()
+                : persona(root).get("idPersona").in(idsPersona);
+    }
+
+    /**
+     * Filtrar por género (insensible a mayúsculas)
+     */
+    public static Specification<Estudiante> generoIgual(String genero) {
+        String generoLower = genero.trim().toLowerCase();
+        return (root, query, cb) -> cb.equal(cb.lower(persona(root).get("genero")), generoLower);
+    }
+
+    /**
+     * Filtrar por rango de edad.
+     * Regla de negocio: la edad es la diferencia de años calendario
+     * (ver Persona.calcularEdad), por lo que el rango se traduce a límites
+     * sobre el año de nacimiento y puede resolverse con el índice de la columna.
+     */
+    public static Specification<Estudiante> edadEntre(Integer edadMinima, Integer edadMaxima) {
+        int anioActual = LocalDate.now().getYear();
+        return (root, query, cb) -> {
+            Join<Estudiante, Persona> persona = persona(root);
+            Predicate predicado = cb.isNotNull(persona.get("fechaDeNacimiento"));
+
+            if (edadMinima != null) {
+                // edad >= edadMinima  <=>  año de nacimiento <= anioActual - edadMinima
+                LocalDate limite = LocalDate.of(anioActual - edadMinima + 1, 1, 1);
+                predicado = cb.and(predicado,
+                        cb.lessThan(persona.<LocalDateTime>get("fechaDeNacimiento"), limite.atStartOfDay()));
+            }
+            if (edadMaxima != null) {
+                // edad <= edadMaxima  <=>  año de nacimiento >= anioActual - edadMaxima
+                LocalDate limite = LocalDate.of(anioActual - edadMaxima, 1, 1);
+                predicado = cb.and(predicado,
+                        cb.greaterThanOrEqualTo(persona.<LocalDateTime>get("fechaDeNacimiento"), limite.atStartOfDay()));
+            }
+            return predicado;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Join<Estudiante, Persona> persona(Root<Estudiante> root) {
+        // Reutilizar el join si otro predicado ya lo creó, para no duplicar la tabla en el SQL
+        return (Join<Estudiante, Persona>) root.getJoins().stream()
+                .filter(j -> "persona".equals(j.getAttribute().getName()))
+                .findFirst()
+                .orElseGet(() -> root.join("persona", JoinType.INNER));
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,16 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Grado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface GradoRepository extends JpaRepository<Grado, Long> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Grado> findByNombreGrado(String nombreGrado);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Grupo;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,9 +12,18 @@ import java.util.Optional;
 @Repository
 public interface GrupoRepository extends JpaRepository<Grupo, Long> {
     
+    @EntityGraph("Grupo.detalle")
     @Query("SELECT g FROM Grupo g WHERE g.grado.idGrado = :idGrado ORDER BY g.numeroGrupo")
     List<Grupo> findByGradoId(@Param("idGrado") Long idGrado);
     
+    /**
+     * Grupo con grado y director (y su persona) cargados en una sola consulta.
+     * Necesario cuando el grupo se usa fuera de la transacción (p. ej. PDF en streaming)
+     */
+    @EntityGraph("Grupo.detalle")
+    @Query("SELECT g FROM Grupo g WHERE g.idGrupo = :idGrupo")
+    Optional<Grupo> findConDetalle(@Param("idGrupo") Long idGrupo);
+
     @Query("SELECT g FROM Grupo g WHERE g.grado.idGrado = :idGrado AND g.numeroGrupo = :numeroGrupo")
     Optional<Grupo> findByGradoIdAndNumeroGrupo(@Param("idGrado") Long idGrado, @Param("numeroGrupo") Integer numeroGrupo);
 }
\ No newline at end of file
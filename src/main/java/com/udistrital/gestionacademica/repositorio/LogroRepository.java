@@ -1,8 +1,14 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Logro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,10 +17,17 @@ public interface LogroRepository extends JpaRepository<Logro, Long> {
     /**
      * Buscar logros por categoría
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Logro> findByCategoria(String categoria);
     
     /**
      * Verificar si existe un logro con el mismo nombre en una categoría
      */
     boolean existsByNombreLogroAndCategoria(String nombreLogro, String categoria);
-}
\ No newline at end of file
+
+    /**
+     * De los IDs indicados, devolver solo los que existen
+     */
+    @Query("SELECT l.idLogro FROM Logro l WHERE l.idLogro IN :idsLogro")
+    List<Long> findIdsExistentes(@Param("idsLogro") Collection<Long> idsLogro);
+}
@@ -1,8 +1,11 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Preinscripcion;
+import org.springframework.data.jpa.repository.EntityGraph;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -18,4 +21,29 @@ public interface PreinscripcionRepository extends JpaRepository<Preinscripcion,
             @Param("fechaEntrevista") LocalDateTime fecha,
             @Param("acudiente") Long idAcudiente);
 
+    /**
+     * Buscar preinscripciones cuyo aspirante o acudiente sea una de las personas indicadas
+     */
+    @EntityGraph("Preinscripcion.detalle")
+    @Query("SELECT p FROM Preinscripcion p WHERE p.aspirante.persona.idPersona IN :idsPersona OR p.acudiente.persona.idPersona IN :idsPersona")
+    List<Preinscripcion> findByPersonas(@Param("idsPersona") Collection<Long> idsPersona);
+
+    /**
+     * Buscar preinscripciones por nombre completo del aspirante o del acudiente
+     * (insensible a mayúsculas)
+     */
+    @EntityGraph("Preinscripcion.detalle")
+    @Query("SELECT p FROM Preinscripcion p "
+            + "LEFT JOIN p.aspirante.persona pa "
+            + "LEFT JOIN p.acudiente.persona pc "
+            + "WHERE LOWER(CONCAT(pa.nombre, ' ', pa.apellido)) LIKE LOWER(CONCAT('%', :texto, '%')) "
+            + "OR LOWER(CONCAT(pc.nombre, ' ', pc.apellido)) LIKE LOWER(CONCAT('%', :texto, '%'))")
+    List<Preinscripcion> buscarPorNombre(@Param("texto") String texto);
+
+    /**
+     * Buscar preinscripciones por estado del aspirante (insensible a mayúsculas)
+     */
+    @EntityGraph("Preinscripcion.detalle")
+    @Query("SELECT p FROM Preinscripcion p WHERE LOWER(p.aspirante.estado) = LOWER(:estado)")
+    List<Preinscripcion> findByEstadoAspirante(@Param("estado") String estado);
 }
@@ -1,7 +1,10 @@
 package com.udistrital.gestionacademica.repositorio;
 
 import com.udistrital.gestionacademica.modelo.Profesor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,5 +14,6 @@ public interface ProfesorRepository extends JpaRepository<Profesor, Long> {
 
     Optional<Profesor> findByPersona_Documento(String documento);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Profesor> findByPersona(com.udistrital.gestionacademica.modelo.Persona persona);
 }
@@ -1,20 +1,62 @@
 package com.udistrital.gestionacademica.repositorio;
 
+import com.udistrital.gestionacademica.dto.UsuarioResumenDto;
 import com.udistrital.gestionacademica.modelo.TokenUsuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface TokenUsuarioRepository extends JpaRepository<TokenUsuario, Long> {
 
 
     
-    @Query("SELECT t FROM TokenUsuario t WHERE t.nombreUsuario = :nombreUsuario AND t.contrasena = :contrasena")
-    java.util.Optional<TokenUsuario> findByNombreUsuarioAndContrasena(@Param("nombreUsuario") String nombreUsuario, @Param("contrasena") String contrasena);
-    
     @Query("SELECT t FROM TokenUsuario t WHERE t.nombreUsuario = :nombreUsuario")
     java.util.Optional<TokenUsuario> findByNombreUsuario(@Param("nombreUsuario") String nombreUsuario);
-    
+
+    /**
+     * Usuario con su persona, para el inicio de sesión: se lee en una
+     * transacción corta y la contraseña se verifica después, sin conexión abierta
+     */
+    @Query("SELECT t FROM TokenUsuario t LEFT JOIN FETCH t.persona WHERE t.nombreUsuario = :nombreUsuario")
+    java.util.Optional<TokenUsuario> findConPersona(@Param("nombreUsuario") String nombreUsuario);
+
+    /**
+     * Guardar el hash migrado en el inicio de sesión, solo si la contraseña no
+     * cambió mientras se calculaba. Retorna las filas actualizadas (0 o 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE TokenUsuario t SET t.contrasena = :nueva "
+            + "WHERE t.idTokenUsuario = :idTokenUsuario AND t.contrasena = :anterior")
+    int migrarContrasena(@Param("idTokenUsuario") Long idTokenUsuario,
+                         @Param("anterior") String anterior,
+                         @Param("nueva") String nueva);
+
+    @Override
+    @EntityGraph(attributePaths = "persona")
+    java.util.List<TokenUsuario> findAll();
+
+    /**
+     * Listado paginado para administración: filtro opcional por rol y búsqueda
+     * por prefijo (en minúsculas, ya escapado) sobre usuario, nombre o apellido.
+     * El OR entre tablas recorre token_usuario completa (ver indices_usuarios.sql)
+     */
+    @Query(value = "SELECT new com.udistrital.gestionacademica.dto.UsuarioResumenDto(" +
+            "t.idTokenUsuario, t.nombreUsuario, t.estado, t.rol, p.nombre, p.apellido) " +
+            "FROM TokenUsuario t LEFT JOIN t.persona p " +
+            "WHERE (:rol IS NULL OR t.rol = :rol) " +
+            "AND (:prefijo IS NULL OR LOWER(t.nombreUsuario) LIKE :prefijo ESCAPE '!' " +
+            "OR LOWER(p.nombre) LIKE :prefijo ESCAPE '!' OR LOWER(p.apellido) LIKE :prefijo ESCAPE '!')",
+            countQuery = "SELECT COUNT(t) FROM TokenUsuario t LEFT JOIN t.persona p " +
+            "WHERE (:rol IS NULL OR t.rol = :rol) " +
+            "AND (:prefijo IS NULL OR LOWER(t.nombreUsuario) LIKE :prefijo ESCAPE '!' " +
+            "OR LOWER(p.nombre) LIKE :prefijo ESCAPE '!' OR LOWER(p.apellido) LIKE :prefijo ESCAPE '!')")
+    Page<UsuarioResumenDto> buscarResumen(@Param("rol") String rol, @Param("prefijo") String prefijo, Pageable pageable);
 }
@@ -1,10 +1,7 @@
 package com.udistrital.gestionacademica.servicio;
 
 import com.udistrital.gestionacademica.modelo.Acudiente;
-import com.udistrital.gestionacademica.modelo.Persona;
-import com.udistrital.gestionacademica.modelo.TokenUsuario;
 import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
-import com.udistrital.gestionacademica.repositorio.TokenUsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,7 +16,7 @@ import java.util.List;
 public class AcudienteService {
 
     private final AcudienteRepository acudienteRepository;
-    private final TokenUsuarioRepository tokenUsuarioRepository;
+    private final SesionUsuarioService sesionUsuarioService;
 
     public Acudiente crearAcudiente(Acudiente acudiente) {
         try {
@@ -65,27 +62,22 @@ public class AcudienteService {
     }
 
     /**
-     * Obtener Acudiente por nombre de usuario
+     * Obtener Acudiente por nombre de usuario (referencia: sus datos se cargan al usarlos)
      */
     @Transactional(readOnly = true)
     public Acudiente obtenerAcudientePorUsuario(String nombreUsuario) {
         log.info("Buscando acudiente para usuario: {}", nombreUsuario);
-        
-        // Buscar el usuario
-        TokenUsuario usuario = tokenUsuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + nombreUsuario));
-        
-        // Obtener la persona asociada
-        Persona persona = usuario.getPersona();
-        if (persona == null) {
+
+        // El perfil de acudiente se resolvió al iniciar sesión (o en la primera consulta)
+        SesionUsuarioService.SesionUsuario sesion = sesionUsuarioService.principal(nombreUsuario);
+        if (sesion.idPersona() == null) {
             throw new RuntimeException("El usuario " + nombreUsuario + " no tiene persona asociada");
         }
-        
-        // Buscar el acudiente por persona
-        Acudiente acudiente = acudienteRepository.findByPersona(persona.getIdPersona())
-                .orElseThrow(() -> new RuntimeException("El usuario " + nombreUsuario + " no tiene perfil de acudiente"));
-        
-        log.info("Acudiente encontrado con ID: {}", acudiente.getIdAcudiente());
-        return acudiente;
+        if (sesion.idAcudiente() == null) {
+            throw new RuntimeException("El usuario " + nombreUsuario + " no tiene perfil de acudiente");
+        }
+
+        log.info("Acudiente encontrado con ID: {}", sesion.idAcudiente());
+        return acudienteRepository.getReferenceById(sesion.idAcudiente());
     }
 }
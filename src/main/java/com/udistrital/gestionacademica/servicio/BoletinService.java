@@ -3,17 +3,43 @@ package com.udistrital.gestionacademica.servicio;
 import com.udistrital.gestionacademica.modelo.Boletin;
 import com.udistrital.gestionacademica.modelo.Calificacion;
 import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Grado;
+import com.udistrital.gestionacademica.modelo.Grupo;
 import com.udistrital.gestionacademica.modelo.Periodo;
 import com.udistrital.gestionacademica.repositorio.BoletinRepository;
+import com.udistrital.gestionacademica.repositorio.CalificacionRepository;
 import com.udistrital.gestionacademica.repositorio.EstudianteRepository;
+import com.udistrital.gestionacademica.repositorio.GradoRepository;
+import com.udistrital.gestionacademica.repositorio.GrupoRepository;
 import com.udistrital.gestionacademica.repositorio.PeriodoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @Transactional
@@ -26,16 +52,31 @@ public class BoletinService {
     private final PeriodoRepository periodoRepository;
     private final CalificacionService calificacionService;
     private final PdfGeneratorService pdfGeneratorService;
+    private final CalificacionRepository calificacionRepository;
+    private final GrupoRepository grupoRepository;
+    private final GradoRepository gradoRepository;
+    private final CacheBoletinService cacheBoletinService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Qualifier("ejecutorReportes")
+    private final ThreadPoolTaskExecutor ejecutorReportes;
 
     /**
-     * Genera un boletín valida que existan calificaciones, lo guarda en BD y retorna el PDF.
-     * Si ya existe un boletín para ese periodo, lo actualiza (regenera).
+     * Genera un boletín: valida que existan calificaciones y retorna lo necesario
+     * para descargarlo. El PDF se escribe después con escribirBoletin, que lo
+     * registra en BD solo cuando se generó completo.
+     * Si el mismo contenido ya se generó antes, se devuelve el PDF de la caché
+     * sin volver a renderizarlo ni registrar una nueva generación.
      */
-    public byte[] generarYGuardarBoletin(Long codigoEstudiante, Long idPeriodo) {
+    @Transactional(readOnly = true)
+    public BoletinDescarga generarYGuardarBoletin(Long codigoEstudiante, Long idPeriodo) {
         log.info("Iniciando proceso de generación de boletín para estudiante {} en periodo {}", codigoEstudiante, idPeriodo);
 
+        // Antes de leer datos: si cambian mientras se genera, la clave no queda vigente
+        CacheBoletinService.Generacion generacion = cacheBoletinService.generacion(codigoEstudiante, idPeriodo);
+
         // 1. Validaciones
-        Estudiante estudiante = estudianteRepository.findById(codigoEstudiante)
+        Estudiante estudiante = estudianteRepository.findConDetalle(codigoEstudiante)
                 .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
 
         Periodo periodo = periodoRepository.findById(idPeriodo)
@@ -48,28 +89,286 @@ public class BoletinService {
             throw new IllegalArgumentException("No se encontraron calificaciones registradas para el estudiante en el periodo seleccionado.");
         }
 
-        // 3. Generar PDF
-        byte[] pdfBytes = pdfGeneratorService.generarBoletin(estudiante, periodo, calificaciones);
-
-        // 4. Persistencia (Guardar o Actualizar)
-        Optional<Boletin> boletinExistente = boletinRepository.findByEstudianteCodigoEstudianteAndPeriodoIdPeriodo(codigoEstudiante, idPeriodo);
-
-        Boletin boletin;
-        if (boletinExistente.isPresent()) {
-            log.info("Actualizando boletín existente");
-            boletin = boletinExistente.get();
-        } else {
-            log.info("Creando nuevo boletín");
-            boletin = new Boletin();
-            boletin.setEstudiante(estudiante);
-            boletin.setPeriodo(periodo);
+        // 3. Buscar el mismo contenido en la caché
+        String clave = CacheBoletinService.calcularClave(estudiante, periodo, calificaciones);
+        CacheBoletinService.Archivo enCache = cacheBoletinService.abrir(clave);
+        if (enCache != null) {
+            log.info("Boletín sin cambios desde la última generación, se sirve desde caché");
+            cacheBoletinService.recordarVigente(codigoEstudiante, idPeriodo, clave, generacion);
+            return new BoletinDescarga(clave, enCache, null);
+        }
+
+        // 4. El PDF se genera al escribir la respuesta, con los datos ya cargados
+        return new BoletinDescarga(clave, null, new BoletinPorGenerar(estudiante, periodo, calificaciones, generacion));
+    }
+
+    /**
+     * Escribir en la salida un boletín que no estaba en caché. El PDF se envía a
+     * medida que se genera y a la vez se guarda en la caché, que solo lo publica
+     * si se escribió completo. Solo entonces se registra en BD (guardar o
+     * actualizar), igual que los lotes: si falla iText o el cliente, no queda
+     * registrado un boletín que nunca se generó.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void escribirBoletin(BoletinDescarga boletin, OutputStream salida) throws IOException {
+        BoletinPorGenerar datos = boletin.porGenerar();
+        Long codigoEstudiante = datos.estudiante().getCodigoEstudiante();
+        Long idPeriodo = datos.periodo().getIdPeriodo();
+
+        try (CacheBoletinService.Escritura escritura = cacheBoletinService.abrirEscritura(boletin.clave())) {
+            OutputStream destino = escritura != null ? escritura.duplicar(salida) : salida;
+            pdfGeneratorService.generarBoletin(datos.estudiante(), datos.periodo(), datos.calificaciones(), destino);
+            destino.flush();
+
+            if (escritura != null && escritura.confirmar()) {
+                cacheBoletinService.recordarVigente(codigoEstudiante, idPeriodo, boletin.clave(), datos.generacion());
+            }
+        }
+
+        registrarBoletin(codigoEstudiante, idPeriodo);
+    }
+
+    // Guardar o actualizar el boletín en su propia transacción corta, como registrarBoletinesLote
+    private void registrarBoletin(Long codigoEstudiante, Long idPeriodo) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaccion.executeWithoutResult(estado -> {
+            Optional<Boletin> boletinExistente = boletinRepository.findByEstudianteCodigoEstudianteAndPeriodoIdPeriodo(codigoEstudiante, idPeriodo);
+
+            Boletin boletin;
+            if (boletinExistente.isPresent()) {
+                log.info("Actualizando boletín existente");
+                boletin = boletinExistente.get();
+            } else {
+                log.info("Creando nuevo boletín");
+                boletin = new Boletin();
+                boletin.setEstudiante(estudianteRepository.getReferenceById(codigoEstudiante));
+                boletin.setPeriodo(periodoRepository.getReferenceById(idPeriodo));
+            }
+
+            boletin.setFechaGeneracion(LocalDateTime.now());
+
+            boletinRepository.save(boletin);
+            log.info("Boletín guardado exitosamente en base de datos. ID: {}", boletin.getIdBoletin());
+        });
+    }
+
+    /**
+     * Boletín vigente en caché, sin consultar la base de datos; null si hay que generarlo
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BoletinDescarga buscarEnCache(Long codigoEstudiante, Long idPeriodo) {
+        String clave = cacheBoletinService.buscarVigente(codigoEstudiante, idPeriodo);
+        if (clave == null) {
+            return null;
         }
+        CacheBoletinService.Archivo archivo = cacheBoletinService.abrir(clave);
+        return archivo != null ? new BoletinDescarga(clave, archivo, null) : null;
+    }
 
-        boletin.setFechaGeneracion(java.time.LocalDateTime.now());
+    /**
+     * Preparar los boletines de todos los estudiantes de un grupo en un periodo.
+     * Carga estudiantes y calificaciones con una consulta cada uno; el PDF se
+     * genera después, al escribir el ZIP.
+     */
+    @Transactional(readOnly = true)
+    public LoteBoletines prepararLotePorGrupo(Long idGrupo, Long idPeriodo) {
+        log.info("Preparando boletines por lote del grupo {} en periodo {}", idGrupo, idPeriodo);
+
+        Grupo grupo = grupoRepository.findById(idGrupo)
+                .orElseThrow(() -> new RuntimeException("Grupo no encontrado"));
+        Periodo periodo = periodoRepository.findById(idPeriodo)
+                .orElseThrow(() -> new RuntimeException("Periodo no encontrado"));
+
+        String nombreArchivo = String.format("boletines_%s_Grupo%d_%s.zip",
+                grupo.getGrado().getNombreGrado(), grupo.getNumeroGrupo(), periodo.getNombrePeriodo());
+
+        return armarLote(periodo, nombreArchivo, false,
+                estudianteRepository.buscarPorIdGrupo(idGrupo),
+                calificacionRepository.findByGrupoYPeriodo(idGrupo, idPeriodo));
+    }
+
+    /**
+     * Preparar los boletines de todos los estudiantes de un grado en un periodo
+     */
+    @Transactional(readOnly = true)
+    public LoteBoletines prepararLotePorGrado(Long idGrado, Long idPeriodo) {
+        log.info("Preparando boletines por lote del grado {} en periodo {}", idGrado, idPeriodo);
 
-        boletinRepository.save(boletin);
-        log.info("Boletín guardado exitosamente en base de datos. ID: {}", boletin.getIdBoletin());
+        Grado grado = gradoRepository.findById(idGrado)
+                .orElseThrow(() -> new RuntimeException("Grado no encontrado"));
+        Periodo periodo = periodoRepository.findById(idPeriodo)
+                .orElseThrow(() -> new RuntimeException("Periodo no encontrado"));
+
+        String nombreArchivo = String.format("boletines_%s_%s.zip", grado.getNombreGrado(), periodo.getNombrePeriodo());
+
+        return armarLote(periodo, nombreArchivo, true,
+                estudianteRepository.buscarPorIdGrado(idGrado),
+                calificacionRepository.findByGradoYPeriodo(idGrado, idPeriodo));
+    }
+
+    private LoteBoletines armarLote(Periodo periodo, String nombreArchivo, boolean carpetaPorGrupo,
+                                    List<Estudiante> estudiantes, List<Calificacion> calificaciones) {
 
-        return pdfBytes;
+        Map<Long, List<Calificacion>> porEstudiante = new HashMap<>();
+        for (Calificacion calificacion : calificaciones) {
+            porEstudiante.computeIfAbsent(calificacion.getEstudiante().getCodigoEstudiante(), k -> new ArrayList<>())
+                    .add(calificacion);
+        }
+
+        List<BoletinPendiente> pendientes = new ArrayList<>();
+        List<String> sinCalificaciones = new ArrayList<>();
+        for (Estudiante estudiante : estudiantes) {
+            List<Calificacion> delEstudiante = porEstudiante.get(estudiante.getCodigoEstudiante());
+            String nombre = nombreEntrada(estudiante, carpetaPorGrupo);
+            // Igual que en la generación individual: sin calificaciones no hay boletín
+            if (delEstudiante == null) {
+                sinCalificaciones.add(nombre);
+            } else {
+                pendientes.add(new BoletinPendiente(estudiante, delEstudiante, nombre + ".pdf"));
+            }
+        }
+
+        if (pendientes.isEmpty()) {
+            throw new IllegalArgumentException("No se encontraron calificaciones registradas para ningún estudiante en el periodo seleccionado.");
+        }
+
+        log.info("Lote preparado: {} boletines, {} estudiantes sin calificaciones", pendientes.size(), sinCalificaciones.size());
+        return new LoteBoletines(periodo, limpiarNombre(nombreArchivo), pendientes, sinCalificaciones);
+    }
+
+    /**
+     * Escribir el ZIP del lote en la salida. Los PDFs se generan en paralelo en
+     * el ejecutor de reportes (acotado) y se escriben en orden a medida que terminan; solo
+     * hay en memoria los PDFs de la ventana en curso, nunca el lote completo.
+     *
+     * Sin transacción: el lote ya trae sus datos cargados, y la escritura dura lo
+     * que tarde el render y la descarga del cliente; no debe retener una
+     * conexión del pool mientras tanto.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void escribirZipLote(LoteBoletines lote, OutputStream salida) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        // Como máximo estos PDFs de una misma solicitud están en memoria a la vez
+        int ventanaLote = ejecutorReportes.getMaxPoolSize() * 2;
+
+        Deque<Future<byte[]>> enCurso = new ArrayDeque<>();
+        Deque<BoletinPendiente> enCursoPendientes = new ArrayDeque<>();
+        Iterator<BoletinPendiente> siguientes = lote.boletines().iterator();
+
+        try {
+            while (siguientes.hasNext() || !enCurso.isEmpty()) {
+                while (siguientes.hasNext() && enCurso.size() < ventanaLote) {
+                    BoletinPendiente pendiente = siguientes.next();
+                    enCurso.addLast(ejecutorReportes.submit(() -> pdfGeneratorService.generarBoletin(
+                            pendiente.estudiante(), lote.periodo(), pendiente.calificaciones())));
+                    enCursoPendientes.addLast(pendiente);
+                }
+
+                byte[] pdf = enCurso.removeFirst().get();
+                zip.putNextEntry(new ZipEntry(enCursoPendientes.removeFirst().nombreEntrada()));
+                zip.write(pdf);
+                zip.closeEntry();
+            }
+
+            if (!lote.sinCalificaciones().isEmpty()) {
+                zip.putNextEntry(new ZipEntry("estudiantes_sin_calificaciones.txt"));
+                zip.write(String.join(System.lineSeparator(), lote.sinCalificaciones()).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+
+            zip.finish();
+            zip.flush();
+            log.info("ZIP de {} boletines escrito en {} ms", lote.boletines().size(), System.currentTimeMillis() - inicio);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enCurso.forEach(f -> f.cancel(true));
+            throw new IOException("Generación de boletines interrumpida", e);
+        } catch (ExecutionException e) {
+            enCurso.forEach(f -> f.cancel(true));
+            log.error("Error al generar un boletín del lote", e.getCause());
+            throw new IOException("Error al generar un boletín del lote: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Registrar (crear o actualizar) los boletines del lote con una sola
+     * consulta de existentes y una escritura por lotes, en su propia
+     * transacción corta (se llama al terminar de escribir el ZIP)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrarBoletinesLote(LoteBoletines lote) {
+        Long idPeriodo = lote.periodo().getIdPeriodo();
+        Map<Long, Estudiante> estudiantes = new LinkedHashMap<>();
+        for (BoletinPendiente pendiente : lote.boletines()) {
+            estudiantes.put(pendiente.estudiante().getCodigoEstudiante(), pendiente.estudiante());
+        }
+
+        Map<Long, Boletin> existentes = new HashMap<>();
+        for (Boletin boletin : boletinRepository.findByPeriodoYEstudiantes(idPeriodo, estudiantes.keySet())) {
+            existentes.put(boletin.getEstudiante().getCodigoEstudiante(), boletin);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        Periodo periodo = periodoRepository.getReferenceById(idPeriodo);
+        List<Boletin> aGuardar = new ArrayList<>(estudiantes.size());
+        for (Long codigoEstudiante : estudiantes.keySet()) {
+            Boletin boletin = existentes.get(codigoEstudiante);
+            if (boletin == null) {
+                boletin = new Boletin();
+                boletin.setEstudiante(estudianteRepository.getReferenceById(codigoEstudiante));
+                boletin.setPeriodo(periodo);
+            }
+            boletin.setFechaGeneracion(ahora);
+            aGuardar.add(boletin);
+        }
+
+        boletinRepository.saveAll(aGuardar);
+        log.info("Boletines registrados por lote: {} ({} nuevos)", aGuardar.size(), aGuardar.size() - existentes.size());
+    }
+
+    private String nombreEntrada(Estudiante estudiante, boolean carpetaPorGrupo) {
+        String nombre = String.format("boletin_%d_%s_%s",
+                estudiante.getCodigoEstudiante(),
+                estudiante.getPersona().getApellido(),
+                estudiante.getPersona().getNombre());
+        if (carpetaPorGrupo && estudiante.getGrupo() != null) {
+            return "Grupo" + estudiante.getGrupo().getNumeroGrupo() + "/" + limpiarNombre(nombre);
+        }
+        return limpiarNombre(nombre);
+    }
+
+    private static String limpiarNombre(String nombre) {
+        return nombre.trim().replaceAll("[\\s]+", "_").replaceAll("[^\\p{L}\\p{N}._-]", "");
+    }
+
+    /**
+     * Boletín listo para descargar: abierto desde la caché o pendiente de generar.
+     * La clave de contenido sirve de ETag.
+     */
+    public record BoletinDescarga(String clave, CacheBoletinService.Archivo archivo, BoletinPorGenerar porGenerar) {
+    }
+
+    /**
+     * Datos ya cargados de un boletín que no está en caché, con la generación
+     * de la caché leída antes de cargarlos
+     */
+    public record BoletinPorGenerar(Estudiante estudiante, Periodo periodo, List<Calificacion> calificaciones,
+                                    CacheBoletinService.Generacion generacion) {
+    }
+
+    /**
+     * Boletín de un estudiante listo para renderizar
+     */
+    public record BoletinPendiente(Estudiante estudiante, List<Calificacion> calificaciones, String nombreEntrada) {
+    }
+
+    /**
+     * Boletines de un grupo o grado ya cargados, listos para escribirse como ZIP
+     */
+    public record LoteBoletines(Periodo periodo, String nombreArchivo,
+                                List<BoletinPendiente> boletines, List<String> sinCalificaciones) {
     }
 }
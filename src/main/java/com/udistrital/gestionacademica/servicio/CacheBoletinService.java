@@ -0,0 +1,466 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.Calificacion;
+import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Periodo;
+import com.udistrital.gestionacademica.modelo.Persona;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de los PDF de boletines, direccionada por contenido.
+ *
+ * Reglas:
+ * - La clave es un SHA-256 de todo lo que aparece en el PDF: estudiante,
+ *   periodo, calificaciones (ID, fecha de asignación y logro) y la fecha del
+ *   día. Si algo cambia, cambia la clave; un archivo nunca queda desactualizado
+ * - El índice es LRU y está acotado por tamaño total en disco; al superar el
+ *   límite se borran los archivos usados hace más tiempo
+ * - Además se recuerda la clave vigente de cada (estudiante, periodo) para
+ *   responder descargas repetidas sin consultar la base de datos. Esa memoria
+ *   se invalida cuando cambian las calificaciones, el estudiante o los logros
+ * - La clave es también el ETag fuerte del PDF
+ * - Las invalidaciones se aplican después del commit e incrementan una
+ *   generación por (estudiante, periodo). La descarga lee la generación antes
+ *   de cargar los datos y solo recuerda su clave si la generación no cambió:
+ *   así una descarga que leyó los datos anteriores y termina después de la
+ *   invalidación no vuelve a dejar vigente la clave vieja
+ */
+@Service
+@Slf4j
+public class CacheBoletinService {
+
+    private static final String EXTENSION = ".pdf";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    @Value("${boletines.cache.directorio:${java.io.tmpdir}/gestionacademica/boletines}")
+    private String directorio;
+
+    @Value("${boletines.cache.tamano-maximo-mb:200}")
+    private long tamanoMaximoMb;
+
+    private Path raiz;
+    private long tamanoMaximo;
+
+    // Clave -> archivo, en orden de acceso (el primero es el menos usado)
+    private final LinkedHashMap<String, Entrada> indice = new LinkedHashMap<>(16, 0.75f, true);
+    private long tamanoTotal = 0;
+
+    // (estudiante, periodo) -> clave vigente del día
+    private final Map<Vigente, ClaveDelDia> vigentes = new ConcurrentHashMap<>();
+
+    // Generaciones de invalidación: por (estudiante, periodo), por estudiante y global
+    private final Map<Vigente, Long> generaciones = new ConcurrentHashMap<>();
+    private final Map<Long, Long> generacionesEstudiante = new ConcurrentHashMap<>();
+    private final AtomicLong generacionGlobal = new AtomicLong();
+
+    /**
+     * Crear el directorio, borrar los temporales que dejó una ejecución anterior
+     * interrumpida y recuperar el índice de sus archivos
+     */
+    @PostConstruct
+    void iniciar() throws IOException {
+        raiz = Paths.get(directorio);
+        tamanoMaximo = tamanoMaximoMb * 1024 * 1024;
+        Files.createDirectories(raiz);
+
+        List<Path> existentes;
+        List<Path> temporales;
+        try (Stream<Path> archivos = Files.list(raiz)) {
+            List<Path> todos = archivos.toList();
+            existentes = todos.stream()
+                    .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparingLong(CacheBoletinService::ultimaModificacion))
+                    .toList();
+            temporales = todos.stream()
+                    .filter(p -> p.getFileName().toString().endsWith(EXTENSION_TEMPORAL))
+                    .toList();
+        }
+
+        // Al arrancar ninguna escritura está en curso: todo temporal es huérfano
+        for (Path temporal : temporales) {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el temporal huérfano {}: {}", temporal, e.getMessage());
+            }
+        }
+
+        synchronized (indice) {
+            for (Path archivo : existentes) {
+                String nombre = archivo.getFileName().toString();
+                String clave = nombre.substring(0, nombre.length() - EXTENSION.length());
+                long tamano = Files.size(archivo);
+                indice.put(clave, new Entrada(archivo, tamano));
+                tamanoTotal += tamano;
+            }
+            expulsarExcedente();
+        }
+
+        log.info("Caché de boletines en {}: {} archivos, {} KB (máximo {} MB), {} temporales huérfanos borrados",
+                raiz, indice.size(), tamanoTotal / 1024, tamanoMaximoMb, temporales.size());
+    }
+
+    /**
+     * Calcular la clave de contenido de un boletín
+     */
+    public static String calcularClave(Estudiante estudiante, Periodo periodo, List<Calificacion> calificaciones) {
+        List<Calificacion> ordenadas = new ArrayList<>(calificaciones);
+        ordenadas.sort(Comparator.comparing(Calificacion::getIdCalificacion));
+
+        StringBuilder contenido = new StringBuilder(64 + ordenadas.size() * 64);
+        Persona persona = estudiante.getPersona();
+        contenido.append(estudiante.getCodigoEstudiante()).append('|')
+                .append(persona.getNombre()).append('|')
+                .append(persona.getApellido()).append('|')
+                .append(persona.getDocumento()).append('|')
+                .append(periodo.getIdPeriodo()).append('|')
+                .append(periodo.getNombrePeriodo()).append('|')
+                // El PDF muestra la fecha de generación
+                .append(LocalDate.now());
+
+        for (Calificacion calificacion : ordenadas) {
+            contenido.append('|').append(calificacion.getIdCalificacion())
+                    .append(':').append(calificacion.getFechaAsignacion())
+                    .append(':').append(calificacion.getLogro().getNombreLogro())
+                    .append(':').append(calificacion.getLogro().getDescripcion());
+        }
+
+        return sha256(contenido.toString());
+    }
+
+    /**
+     * Clave vigente recordada para (estudiante, periodo), solo si su archivo
+     * sigue en disco. Permite responder sin consultar la base de datos.
+     */
+    public String buscarVigente(Long codigoEstudiante, Long idPeriodo) {
+        Vigente llave = new Vigente(codigoEstudiante, idPeriodo);
+        ClaveDelDia vigente = vigentes.get(llave);
+        if (vigente == null) {
+            return null;
+        }
+        if (!vigente.dia().equals(LocalDate.now()) || obtener(vigente.clave()) == null) {
+            vigentes.remove(llave, vigente);
+            return null;
+        }
+        return vigente.clave();
+    }
+
+    /**
+     * Generación actual de (estudiante, periodo). Debe leerse antes de cargar
+     * los datos con los que se calcula la clave.
+     */
+    public Generacion generacion(Long codigoEstudiante, Long idPeriodo) {
+        return generacionActual(new Vigente(codigoEstudiante, idPeriodo));
+    }
+
+    /**
+     * Recordar la clave vigente de (estudiante, periodo), solo si desde que se
+     * leyó la generación no hubo ninguna invalidación que la afecte
+     */
+    public void recordarVigente(Long codigoEstudiante, Long idPeriodo, String clave, Generacion leida) {
+        ClaveDelDia nueva = new ClaveDelDia(clave, LocalDate.now());
+        // La invalidación incrementa la generación antes de quitar la clave:
+        // si este compute corre después de quitarla, ve la generación nueva
+        vigentes.compute(new Vigente(codigoEstudiante, idPeriodo),
+                (llave, actual) -> generacionActual(llave).equals(leida) ? nueva : actual);
+    }
+
+    private Generacion generacionActual(Vigente llave) {
+        return new Generacion(generacionGlobal.get(),
+                generacionesEstudiante.getOrDefault(llave.codigoEstudiante(), 0L),
+                generaciones.getOrDefault(llave, 0L));
+    }
+
+    /**
+     * Archivo en caché para la clave, o null si no existe (cuenta como uso para el LRU)
+     */
+    public Path obtener(String clave) {
+        synchronized (indice) {
+            Entrada entrada = indice.get(clave);
+            return entrada != null ? entrada.archivo() : null;
+        }
+    }
+
+    /**
+     * Abrir para lectura el archivo en caché para la clave, o null si no existe.
+     * Se abre aquí y no al escribir la respuesta: una vez abierto, que la
+     * expulsión LRU lo borre no afecta la lectura en curso.
+     */
+    public Archivo abrir(String clave) {
+        Entrada entrada;
+        synchronized (indice) {
+            entrada = indice.get(clave);
+        }
+        if (entrada == null) {
+            return null;
+        }
+        try {
+            return new Archivo(Files.newInputStream(entrada.archivo()), entrada.tamano());
+        } catch (NoSuchFileException e) {
+            // Expulsado entre la consulta del índice y la apertura: se regenera
+            synchronized (indice) {
+                if (indice.remove(clave, entrada)) {
+                    tamanoTotal -= entrada.tamano();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            log.warn("No se pudo abrir {} de la caché de boletines: {}", entrada.archivo(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Abrir la escritura de un PDF bajo su clave, para guardarlo mientras se
+     * envía al cliente. Se escribe en un temporal que solo al confirmar se mueve
+     * de forma atómica, de modo que nunca se sirve un archivo a medio escribir.
+     * Retorna null si no se pudo crear el temporal.
+     */
+    public Escritura abrirEscritura(String clave) {
+        try {
+            Path temporal = Files.createTempFile(raiz, clave, EXTENSION_TEMPORAL);
+            return new Escritura(clave, temporal, Files.newOutputStream(temporal));
+        } catch (IOException e) {
+            // La caché es una optimización: si falla el disco, el PDF se envía igual
+            log.warn("No se pudo abrir la escritura del boletín en caché: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void registrar(String clave, Path archivo, long tamano) {
+        synchronized (indice) {
+            Entrada anterior = indice.put(clave, new Entrada(archivo, tamano));
+            if (anterior != null) {
+                tamanoTotal -= anterior.tamano();
+            }
+            tamanoTotal += tamano;
+            expulsarExcedente();
+        }
+    }
+
+    /**
+     * Olvidar la clave vigente de un estudiante en un periodo (cambió una
+     * calificación) cuando se confirme la transacción actual
+     */
+    public void invalidarAlConfirmar(Long codigoEstudiante, Long idPeriodo) {
+        Vigente llave = new Vigente(codigoEstudiante, idPeriodo);
+        alConfirmar(() -> {
+            generaciones.merge(llave, 1L, Long::sum);
+            vigentes.remove(llave);
+        });
+    }
+
+    /**
+     * Olvidar las claves vigentes de un estudiante en todos los periodos
+     * (cambiaron sus datos) cuando se confirme la transacción actual
+     */
+    public void invalidarEstudianteAlConfirmar(Long codigoEstudiante) {
+        alConfirmar(() -> {
+            generacionesEstudiante.merge(codigoEstudiante, 1L, Long::sum);
+            vigentes.keySet().removeIf(llave -> Objects.equals(llave.codigoEstudiante(), codigoEstudiante));
+        });
+    }
+
+    /**
+     * Olvidar todas las claves vigentes (cambió un logro, que aparece en muchos
+     * boletines) cuando se confirme la transacción actual
+     */
+    public void invalidarTodoAlConfirmar() {
+        alConfirmar(() -> {
+            generacionGlobal.incrementAndGet();
+            vigentes.clear();
+        });
+    }
+
+    // Sin transacción activa se aplica de inmediato; si se revierte, no se aplica
+    private static void alConfirmar(Runnable invalidacion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidacion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidacion.run();
+            }
+        });
+    }
+
+    // Debe llamarse con el monitor de indice tomado
+    private void expulsarExcedente() {
+        Iterator<Map.Entry<String, Entrada>> iterador = indice.entrySet().iterator();
+        while (tamanoTotal > tamanoMaximo && iterador.hasNext()) {
+            Entrada entrada = iterador.next().getValue();
+            iterador.remove();
+            tamanoTotal -= entrada.tamano();
+            try {
+                Files.deleteIfExists(entrada.archivo());
+            } catch (IOException e) {
+                log.warn("No se pudo borrar {} de la caché de boletines: {}", entrada.archivo(), e.getMessage());
+            }
+        }
+    }
+
+    private static long ultimaModificacion(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * PDF en curso de escritura hacia la caché. Si no se confirma, al cerrarse
+     * se descarta el temporal.
+     */
+    public final class Escritura implements Closeable {
+
+        private final String clave;
+        private final Path temporal;
+        private final OutputStream archivo;
+        private boolean fallida = false;
+        private boolean confirmada = false;
+
+        private Escritura(String clave, Path temporal, OutputStream archivo) {
+            this.clave = clave;
+            this.temporal = temporal;
+            this.archivo = archivo;
+        }
+
+        /**
+         * Salida que escribe en el cliente y, a la vez, en la caché. Un error del
+         * disco solo descarta la copia en caché; un error del cliente se propaga.
+         */
+        public OutputStream duplicar(OutputStream cliente) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    cliente.write(b);
+                    if (!fallida) {
+                        try {
+                            archivo.write(b);
+                        } catch (IOException e) {
+                            marcarFallida(e);
+                        }
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int desde, int cantidad) throws IOException {
+                    cliente.write(b, desde, cantidad);
+                    if (!fallida) {
+                        try {
+                            archivo.write(b, desde, cantidad);
+                        } catch (IOException e) {
+                            marcarFallida(e);
+                        }
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    cliente.flush();
+                }
+            };
+        }
+
+        /**
+         * Publicar el archivo en la caché; retorna false si la copia falló
+         */
+        public boolean confirmar() {
+            if (fallida) {
+                return false;
+            }
+            Path destino = raiz.resolve(clave + EXTENSION);
+            try {
+                archivo.close();
+                long tamano = Files.size(temporal);
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                registrar(clave, destino, tamano);
+                confirmada = true;
+                return true;
+            } catch (IOException e) {
+                marcarFallida(e);
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (confirmada) {
+                return;
+            }
+            try {
+                archivo.close();
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                log.warn("No se pudo descartar el temporal {}: {}", temporal, e.getMessage());
+            }
+        }
+
+        private void marcarFallida(IOException e) {
+            fallida = true;
+            log.warn("No se pudo guardar el boletín en caché: {}", e.getMessage());
+        }
+    }
+
+    private record Entrada(Path archivo, long tamano) {
+    }
+
+    /**
+     * PDF de la caché ya abierto para enviarlo
+     */
+    public record Archivo(InputStream contenido, long tamano) {
+    }
+
+    /**
+     * Generación de invalidación leída antes de cargar los datos de un boletín
+     */
+    public record Generacion(long global, long estudiante, long periodo) {
+    }
+
+    private record Vigente(Long codigoEstudiante, Long idPeriodo) {
+    }
+
+    private record ClaveDelDia(String clave, LocalDate dia) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.Periodo;
+import com.udistrital.gestionacademica.repositorio.PeriodoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Calendario de períodos en memoria.
+ *
+ * Los períodos cambian pocas veces al año, pero "el período actual" se
+ * consulta en cada asignación de logro y en cada carga de pantalla. Se guardan
+ * todos ordenados por fecha de inicio y se resuelve el período de una fecha con
+ * búsqueda binaria, sin ir a la base de datos.
+ *
+ * - La fecha se evalúa en cada consulta, así que el cambio de día no requiere
+ *   recargar; aun así se recarga a medianoche (calendario.periodos.recarga-cron)
+ *   para recoger cambios hechos por otra instancia de la aplicación
+ * - PeriodoService invalida el calendario al confirmar crear, actualizar o
+ *   eliminar un período; la siguiente consulta lo vuelve a cargar
+ * - Se devuelven copias de los períodos: quien las modifique no altera el calendario
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarioPeriodosService {
+
+    private final PeriodoRepository periodoRepository;
+
+    private volatile Calendario calendario;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${calendario.periodos.recarga-cron:0 0 0 * * *}")
+    public void recargar() {
+        invalidar();
+        Calendario cargado = obtener();
+        log.info("Calendario de períodos cargado: {} períodos", cargado.periodos.length);
+    }
+
+    /**
+     * Período vigente hoy. Si hay varios superpuestos, el que empezó más tarde.
+     */
+    public Optional<Periodo> periodoActual() {
+        return periodoEnFecha(LocalDate.now());
+    }
+
+    /**
+     * Período vigente en la fecha indicada (inicio y fin inclusive)
+     */
+    public Optional<Periodo> periodoEnFecha(LocalDate fecha) {
+        List<Periodo> vigentes = obtener().vigentesEn(fecha);
+        return vigentes.isEmpty() ? Optional.empty() : Optional.of(copiar(vigentes.get(0)));
+    }
+
+    /**
+     * Todos los períodos vigentes hoy, por nombre descendente
+     */
+    public List<Periodo> periodosActivos() {
+        List<Periodo> activos = new ArrayList<>();
+        for (Periodo periodo : obtener().vigentesEn(LocalDate.now())) {
+            activos.add(copiar(periodo));
+        }
+        activos.sort(Comparator.comparing(Periodo::getNombrePeriodo).reversed());
+        return activos;
+    }
+
+    /**
+     * Descartar el calendario cuando la transacción actual se confirme (o ya,
+     * si no hay transacción)
+     */
+    public void invalidarAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar();
+            }
+        });
+    }
+
+    // Toma el mismo monitor que la carga: espera a que termine una carga en
+    // curso, de modo que un calendario cargado antes del cambio no queda publicado
+    private void invalidar() {
+        synchronized (this) {
+            calendario = null;
+        }
+    }
+
+    private Calendario obtener() {
+        Calendario actual = calendario;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this) {
+            if (calendario != null) {
+                return calendario;
+            }
+            calendario = new Calendario(periodoRepository.findAll());
+            return calendario;
+        }
+    }
+
+    private static Periodo copiar(Periodo periodo) {
+        return new Periodo(periodo.getIdPeriodo(), periodo.getNombrePeriodo(),
+                periodo.getFechaInicio(), periodo.getFechaFin());
+    }
+
+    /**
+     * Períodos ordenados por fecha de inicio, con el máximo de las fechas de
+     * fin hasta cada posición para resolver superposiciones
+     */
+    private static final class Calendario {
+
+        private final Periodo[] periodos;
+        private final LocalDate[] finMaximoHasta;
+
+        Calendario(List<Periodo> todos) {
+            periodos = todos.stream()
+                    .map(CalendarioPeriodosService::copiar)
+                    .sorted(Comparator.comparing(Periodo::getFechaInicio))
+                    .toArray(Periodo[]::new);
+            finMaximoHasta = new LocalDate[periodos.length];
+            LocalDate maximo = null;
+            for (int i = 0; i < periodos.length; i++) {
+                LocalDate fin = periodos[i].getFechaFin();
+                maximo = maximo == null || fin.isAfter(maximo) ? fin : maximo;
+                finMaximoHasta[i] = maximo;
+            }
+        }
+
+        /**
+         * Períodos que contienen la fecha, del que empezó más tarde al más
+         * antiguo. O(log n) más los que se superponen.
+         */
+        List<Periodo> vigentesEn(LocalDate fecha) {
+            // Último período que empieza en o antes de la fecha
+            int bajo = 0;
+            int alto = periodos.length - 1;
+            int ultimo = -1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (periodos[medio].getFechaInicio().isAfter(fecha)) {
+                    alto = medio - 1;
+                } else {
+                    ultimo = medio;
+                    bajo = medio + 1;
+                }
+            }
+
+            List<Periodo> vigentes = new ArrayList<>(1);
+            for (int i = ultimo; i >= 0 && !finMaximoHasta[i].isBefore(fecha); i--) {
+                if (!periodos[i].getFechaFin().isBefore(fecha)) {
+                    vigentes.add(periodos[i]);
+                }
+            }
+            return vigentes;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.udistrital.gestionacademica.servicio;
 
+import com.udistrital.gestionacademica.dto.MatrizCalificacionesDto;
 import com.udistrital.gestionacademica.modelo.*;
 import com.udistrital.gestionacademica.repositorio.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -19,8 +27,11 @@ public class CalificacionService {
     private final EstudianteRepository estudianteRepository;
     private final LogroRepository logroRepository;
     private final PeriodoRepository periodoRepository;
-    private final TokenUsuarioRepository tokenUsuarioRepository;
+    private final GrupoRepository grupoRepository;
     private final ProfesorRepository profesorRepository;
+    private final CacheBoletinService cacheBoletinService;
+    private final CalendarioPeriodosService calendarioPeriodos;
+    private final SesionUsuarioService sesionUsuarioService;
 
     /**
      * Obtener todas las calificaciones de un estudiante
@@ -82,23 +93,7 @@ public class CalificacionService {
                 .orElseThrow(() -> new RuntimeException("Período no encontrado"));
                 
         // Buscar el profesor basado en el usuario logueado (opcional)
-        TokenUsuario usuario = tokenUsuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + nombreUsuario));
-                
-        // Buscar la persona asociada
-        Persona personaUsuario = usuario.getPersona();
-        log.info("Buscando perfil de profesor para la persona ID: {} - Nombre: {} {}", 
-                personaUsuario.getIdPersona(), personaUsuario.getNombre(), personaUsuario.getApellido());
-
-        // Intentar encontrar el perfil de profesor, pero permitir que sea null
-        Profesor profesor = profesorRepository.findByPersona(personaUsuario)
-                .orElse(null);
-        
-        if (profesor != null) {
-            log.info("Perfil de profesor encontrado. Asignando logro con profesor ID: {}", profesor.getIdProfesor());
-        } else {
-            log.warn("No se encontró perfil de profesor para el usuario '{}'. La calificación se creará sin profesor asociado.", nombreUsuario);
-        }
+        Profesor profesor = resolverProfesor(nombreUsuario);
         
         // Verificar que no se haya asignado ya este logro al estudiante en este período
         Optional<Calificacion> calificacionExistente = 
@@ -116,11 +111,130 @@ public class CalificacionService {
         calificacion.setProfesor(profesor);
         
         Calificacion nuevaCalificacion = calificacionRepository.save(calificacion);
+        cacheBoletinService.invalidarAlConfirmar(codigoEstudiante, idPeriodo);
         log.info("Logro asignado exitosamente con ID: {}", nuevaCalificacion.getIdCalificacion());
         
         return nuevaCalificacion;
     }
 
+    /**
+     * Asignar en un solo paso una matriz de logros (estudiante -> logros) a
+     * los estudiantes de un grupo en un período.
+     *
+     * Reglas:
+     * - El profesor se resuelve una sola vez para todo el lote
+     * - Todos los estudiantes deben pertenecer al grupo y todos los logros
+     *   deben existir; si no, no se asigna nada
+     * - Las asignaciones que ya existían en el período se omiten (no son error)
+     *   y se verifican con una sola consulta
+     * - Las nuevas calificaciones se insertan en lotes JDBC (hibernate.jdbc.batch_size)
+     */
+    public ResultadoAsignacionLote asignarLogrosEnLote(
+            Long idGrupo,
+            Long idPeriodo,
+            Map<Long, List<Long>> logrosPorEstudiante,
+            String nombreUsuario) {
+
+        log.info("Asignación masiva de logros al grupo {} en periodo {} ({} estudiantes)",
+                idGrupo, idPeriodo, logrosPorEstudiante.size());
+
+        // Normalizar la matriz: pares únicos (estudiante, logro) en el orden recibido
+        Set<ParEstudianteLogro> solicitadas = new LinkedHashSet<>();
+        Set<Long> idsLogro = new HashSet<>();
+        for (Map.Entry<Long, List<Long>> fila : logrosPorEstudiante.entrySet()) {
+            if (fila.getKey() == null || fila.getValue() == null) {
+                continue;
+            }
+            for (Long idLogro : fila.getValue()) {
+                if (idLogro != null) {
+                    solicitadas.add(new ParEstudianteLogro(fila.getKey(), idLogro));
+                    idsLogro.add(idLogro);
+                }
+            }
+        }
+
+        if (solicitadas.isEmpty()) {
+            throw new RuntimeException("No se indicó ninguna asignación");
+        }
+
+        if (!periodoRepository.existsById(idPeriodo)) {
+            throw new RuntimeException("Período no encontrado");
+        }
+
+        Set<Long> codigosGrupo = new HashSet<>(estudianteRepository.findCodigosPorGrupo(idGrupo));
+        List<Long> fueraDelGrupo = logrosPorEstudiante.keySet().stream()
+                .filter(codigo -> codigo != null && !codigosGrupo.contains(codigo))
+                .toList();
+        if (!fueraDelGrupo.isEmpty()) {
+            throw new RuntimeException("Estudiantes que no pertenecen al grupo: " + fueraDelGrupo);
+        }
+
+        Set<Long> logrosExistentes = new HashSet<>(logroRepository.findIdsExistentes(idsLogro));
+        List<Long> logrosInexistentes = idsLogro.stream()
+                .filter(idLogro -> !logrosExistentes.contains(idLogro))
+                .sorted()
+                .toList();
+        if (!logrosInexistentes.isEmpty()) {
+            throw new RuntimeException("Logros no encontrados: " + logrosInexistentes);
+        }
+
+        Profesor profesor = resolverProfesor(nombreUsuario);
+
+        // Una sola consulta para todos los duplicados posibles
+        Set<ParEstudianteLogro> existentes = new HashSet<>();
+        Set<Long> codigosSolicitados = new HashSet<>();
+        solicitadas.forEach(par -> codigosSolicitados.add(par.codigoEstudiante()));
+        for (Object[] fila : calificacionRepository.findAsignacionesExistentes(idPeriodo, codigosSolicitados, idsLogro)) {
+            existentes.add(new ParEstudianteLogro((Long) fila[0], (Long) fila[1]));
+        }
+
+        List<ParEstudianteLogro> nuevas = new ArrayList<>();
+        List<ParEstudianteLogro> omitidas = new ArrayList<>();
+        for (ParEstudianteLogro par : solicitadas) {
+            if (existentes.contains(par)) {
+                omitidas.add(par);
+            } else {
+                nuevas.add(par);
+            }
+        }
+
+        // Referencias sin consulta: los IDs ya se validaron arriba
+        Periodo periodo = periodoRepository.getReferenceById(idPeriodo);
+        List<Calificacion> calificaciones = new ArrayList<>(nuevas.size());
+        for (ParEstudianteLogro par : nuevas) {
+            Calificacion calificacion = new Calificacion();
+            calificacion.setEstudiante(estudianteRepository.getReferenceById(par.codigoEstudiante()));
+            calificacion.setLogro(logroRepository.getReferenceById(par.idLogro()));
+            calificacion.setPeriodo(periodo);
+            calificacion.setProfesor(profesor);
+            calificaciones.add(calificacion);
+        }
+        // Con IDs por secuencia (pooled) Hibernate agrupa los INSERT en lotes JDBC
+        calificacionRepository.saveAll(calificaciones);
+        nuevas.forEach(par -> cacheBoletinService.invalidarAlConfirmar(par.codigoEstudiante(), idPeriodo));
+
+        log.info("Asignación masiva completada: {} creadas, {} omitidas por estar ya asignadas",
+                nuevas.size(), omitidas.size());
+
+        return new ResultadoAsignacionLote(nuevas.size(), omitidas);
+    }
+
+    /**
+     * Buscar el perfil de profesor del usuario. Si el usuario no es profesor
+     * se devuelve null y la calificación queda sin profesor asociado.
+     */
+    private Profesor resolverProfesor(String nombreUsuario) {
+        // Principal en caché: sin consultar usuario, persona ni profesor
+        SesionUsuarioService.SesionUsuario sesion = sesionUsuarioService.principal(nombreUsuario);
+
+        if (sesion.idProfesor() == null) {
+            log.warn("No se encontró perfil de profesor para el usuario '{}'. La calificación se creará sin profesor asociado.", nombreUsuario);
+            return null;
+        }
+        log.info("Perfil de profesor encontrado. Asignando logro con profesor ID: {}", sesion.idProfesor());
+        return profesorRepository.getReferenceById(sesion.idProfesor());
+    }
+
     /**
      * Asignar un logro a un estudiante (sin especificar período, usa el actual)
      */
@@ -128,7 +242,7 @@ public class CalificacionService {
         log.info("Asignando logro {} al estudiante {} (usando período actual)", idLogro, codigoEstudiante);
         
         // Obtener el período actual
-        Periodo periodoActual = periodoRepository.findPeriodoActual()
+        Periodo periodoActual = calendarioPeriodos.periodoActual()
                 .orElseThrow(() -> new RuntimeException("No hay un período activo en la fecha actual"));
         
         return asignarLogro(codigoEstudiante, idLogro, periodoActual.getIdPeriodo(), nombreUsuario);
@@ -147,6 +261,7 @@ public class CalificacionService {
         // Por ahora, solo guardamos para mantener la estructura pero sin cambios reales
         
         Calificacion calificacionActualizada = calificacionRepository.save(calificacion);
+        invalidarBoletin(calificacion);
         log.info("Calificación modificada exitosamente");
         
         return calificacionActualizada;
@@ -162,9 +277,19 @@ public class CalificacionService {
                 .orElseThrow(() -> new RuntimeException("Calificación no encontrada"));
         
         calificacionRepository.delete(calificacion);
+        invalidarBoletin(calificacion);
         log.info("Calificación eliminada exitosamente");
     }
 
+    /**
+     * El boletín del estudiante en ese periodo ya no coincide con sus calificaciones
+     */
+    private void invalidarBoletin(Calificacion calificacion) {
+        cacheBoletinService.invalidarAlConfirmar(
+                calificacion.getEstudiante().getCodigoEstudiante(),
+                calificacion.getPeriodo().getIdPeriodo());
+    }
+
     /**
      * Obtener el historial completo de un estudiante con estadísticas
      */
@@ -172,7 +297,7 @@ public class CalificacionService {
     public HistorialEstudiante obtenerHistorial(Long codigoEstudiante) {
         log.info("Obteniendo historial del estudiante: {}", codigoEstudiante);
         
-        Estudiante estudiante = estudianteRepository.findById(codigoEstudiante)
+        Estudiante estudiante = estudianteRepository.findConDetalle(codigoEstudiante)
                 .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
         
         List<Calificacion> calificaciones = 
@@ -190,7 +315,7 @@ public class CalificacionService {
     public HistorialEstudiante obtenerHistorialPorPeriodo(Long codigoEstudiante, Long idPeriodo) {
         log.info("Obteniendo historial del estudiante {} en período {}", codigoEstudiante, idPeriodo);
         
-        Estudiante estudiante = estudianteRepository.findById(codigoEstudiante)
+        Estudiante estudiante = estudianteRepository.findConDetalle(codigoEstudiante)
                 .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
         
         List<Calificacion> calificaciones = 
@@ -201,6 +326,64 @@ public class CalificacionService {
         return new HistorialEstudiante(estudiante, calificaciones, totalLogros);
     }
 
+    /**
+     * Matriz estudiante x logro de un grupo en un período, con dos consultas:
+     * los estudiantes del grupo y las celdas calificadas
+     */
+    @Transactional(readOnly = true)
+    public MatrizCalificacionesDto obtenerMatrizGrupo(Long idGrupo, Long idPeriodo) {
+        log.info("Obteniendo matriz de calificaciones del grupo {} en periodo {}", idGrupo, idPeriodo);
+
+        if (!grupoRepository.existsById(idGrupo)) {
+            throw new RuntimeException("Grupo no encontrado");
+        }
+        if (!periodoRepository.existsById(idPeriodo)) {
+            throw new RuntimeException("Período no encontrado");
+        }
+
+        List<MatrizCalificacionesDto.EstudianteMatriz> estudiantes = new ArrayList<>();
+        Map<Long, Integer> indiceEstudiante = new HashMap<>();
+        for (Object[] fila : estudianteRepository.findNombresPorGrupo(idGrupo)) {
+            indiceEstudiante.put((Long) fila[0], estudiantes.size());
+            estudiantes.add(new MatrizCalificacionesDto.EstudianteMatriz((Long) fila[0], (String) fila[1], (String) fila[2]));
+        }
+
+        List<Object[]> celdas = calificacionRepository.findCeldasMatriz(idGrupo, idPeriodo);
+        List<MatrizCalificacionesDto.LogroMatriz> logros = new ArrayList<>();
+        Map<Long, Integer> indiceLogro = new HashMap<>();
+        int[] filas = new int[celdas.size()];
+        int[] columnas = new int[celdas.size()];
+        long[] idsCalificacion = new long[celdas.size()];
+
+        int k = 0;
+        for (Object[] celda : celdas) {
+            Integer fila = indiceEstudiante.get((Long) celda[1]);
+            if (fila == null) {
+                continue;
+            }
+            Long idLogro = (Long) celda[2];
+            Integer columna = indiceLogro.get(idLogro);
+            if (columna == null) {
+                columna = logros.size();
+                indiceLogro.put(idLogro, columna);
+                logros.add(new MatrizCalificacionesDto.LogroMatriz(idLogro, (String) celda[3], (String) celda[4]));
+            }
+            filas[k] = fila;
+            columnas[k] = columna;
+            idsCalificacion[k] = (Long) celda[0];
+            k++;
+        }
+
+        return new MatrizCalificacionesDto(
+                idGrupo,
+                idPeriodo,
+                estudiantes,
+                logros,
+                Arrays.copyOf(filas, k),
+                Arrays.copyOf(columnas, k),
+                Arrays.copyOf(idsCalificacion, k));
+    }
+
     /**
      * Clase interna para encapsular el historial del estudiante
      */
@@ -227,4 +410,17 @@ public class CalificacionService {
             return totalLogros;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Par (estudiante, logro) de una asignación masiva
+     */
+    public record ParEstudianteLogro(Long codigoEstudiante, Long idLogro) {
+    }
+
+    /**
+     * Resultado de una asignación masiva: cuántas calificaciones se crearon y
+     * qué pares se omitieron porque ya estaban asignados en el período
+     */
+    public record ResultadoAsignacionLote(int creadas, List<ParEstudianteLogro> omitidas) {
+    }
+}
@@ -13,7 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -31,7 +35,8 @@ public class CitacionService {
     public Citacion crearCitacion(Long codigoEstudiante, LocalDateTime fechaCitacion) {
         log.info("Creando citación para estudiante: {}", codigoEstudiante);
 
-        Estudiante estudiante = estudianteRepository.findById(codigoEstudiante)
+        // El correo se arma con persona, acudiente y grupo: cargarlos en una sola consulta
+        Estudiante estudiante = estudianteRepository.findConDetalle(codigoEstudiante)
                 .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
 
         if (estudiante.getAcudiente() == null) {
@@ -46,45 +51,61 @@ public class CitacionService {
         Citacion citacionGuardada = citacionRepository.save(citacion);
         log.info("Citación creada exitosamente con ID: {}", citacionGuardada.getIdCitacion());
 
-        // Enviar correo electrónico de forma asíncrona
-        try {
-            emailService.enviarCorreoCitacion(citacionGuardada);
-            log.info("Correo de citación programado para envío al acudiente: {}",
-                    estudiante.getAcudiente().getCorreoElectronico());
-        } catch (Exception e) {
-            log.error("Error al programar envío de correo para citación {}: {}",
-                    citacionGuardada.getIdCitacion(), e.getMessage());
-            // No lanzamos excepción para no interrumpir el proceso de creación
-        }
+        // Encolar el correo en la misma transacción: se envía solo si la citación se confirma.
+        // Si el acudiente ya tiene un resumen pendiente, la citación se agrega a ese correo
+        emailService.enviarCorreosCitacion(List.of(citacionGuardada));
 
         return citacionGuardada;
     }
 
     /**
-     * Crear múltiples citaciones para varios estudiantes y enviar correos
+     * Crear citaciones para varios estudiantes en una sola transacción:
+     * - una consulta carga todos los estudiantes con acudiente, persona y grupo
+     * - la validación se hace en memoria y cada estudiante inválido se reporta
+     *   sin detener a los demás
+     * - las citaciones y sus correos se insertan por lotes JDBC
      */
-    public List<Citacion> crearCitacionesMultiples(List<Long> codigosEstudiantes, LocalDateTime fechaCitacion) {
-        log.info("Creando {} citaciones masivas", codigosEstudiantes.size());
-
-        List<Citacion> citacionesCreadas = new ArrayList<>();
-        int correosEnviados = 0;
-        int correosFallidos = 0;
-
-        for (Long codigoEstudiante : codigosEstudiantes) {
-            try {
-                Citacion citacion = crearCitacion(codigoEstudiante, fechaCitacion);
-                citacionesCreadas.add(citacion);
-                correosEnviados++;
-            } catch (RuntimeException e) {
-                log.warn("Error al crear citación para estudiante {}: {}", codigoEstudiante, e.getMessage());
-                correosFallidos++;
+    public ResultadoCitacionesLote crearCitacionesMultiples(List<Long> codigosEstudiantes, LocalDateTime fechaCitacion) {
+        Set<Long> codigos = new LinkedHashSet<>(codigosEstudiantes);
+        codigos.remove(null);
+        log.info("Creando {} citaciones masivas", codigos.size());
+
+        Map<Long, Estudiante> estudiantes = new HashMap<>();
+        if (!codigos.isEmpty()) {
+            for (Estudiante estudiante : estudianteRepository.findConDetalleEnLista(codigos)) {
+                estudiantes.put(estudiante.getCodigoEstudiante(), estudiante);
+            }
+        }
+
+        List<Citacion> nuevas = new ArrayList<>(codigos.size());
+        List<FalloCitacion> fallidas = new ArrayList<>();
+        for (Long codigoEstudiante : codigos) {
+            Estudiante estudiante = estudiantes.get(codigoEstudiante);
+            if (estudiante == null) {
+                fallidas.add(new FalloCitacion(codigoEstudiante, "Estudiante no encontrado"));
+                continue;
+            }
+            if (estudiante.getAcudiente() == null) {
+                fallidas.add(new FalloCitacion(codigoEstudiante, "El estudiante no tiene acudiente asignado"));
+                continue;
             }
+
+            Citacion citacion = new Citacion();
+            citacion.setEstudiante(estudiante);
+            citacion.setAcudiente(estudiante.getAcudiente());
+            citacion.setFechaCitacion(fechaCitacion);
+            nuevas.add(citacion);
         }
 
-        log.info("Proceso completado: {} citaciones creadas, {} correos programados, {} fallos",
-                citacionesCreadas.size(), correosEnviados, correosFallidos);
+        List<Citacion> citacionesCreadas = citacionRepository.saveAll(nuevas);
+
+        // Encolar los correos en la misma transacción: se envían solo si las citaciones se confirman
+        int correosEncolados = emailService.enviarCorreosCitacion(citacionesCreadas);
+
+        log.info("Proceso completado: {} citaciones creadas, {} correos encolados, {} fallos",
+                citacionesCreadas.size(), correosEncolados, fallidas.size());
 
-        return citacionesCreadas;
+        return new ResultadoCitacionesLote(citacionesCreadas, fallidas);
     }
 
     /**
@@ -132,6 +153,9 @@ public class CitacionService {
         Citacion citacion = citacionRepository.findById(idCitacion)
                 .orElseThrow(() -> new RuntimeException("Citación no encontrada"));
 
+        // Si sigue en el resumen pendiente de su acudiente, no debe enviarse
+        emailService.retirarDeResumen(citacion);
+
         citacionRepository.delete(citacion);
         log.info("Citación eliminada exitosamente");
     }
@@ -142,15 +166,22 @@ public class CitacionService {
     public void reenviarCorreoCitacion(Long idCitacion) {
         log.info("Reenviando correo de citación: {}", idCitacion);
 
-        Citacion citacion = citacionRepository.findById(idCitacion)
+        Citacion citacion = citacionRepository.findConDetalle(idCitacion)
                 .orElseThrow(() -> new RuntimeException("Citación no encontrada"));
 
-        try {
-            emailService.enviarCorreoCitacion(citacion);
-            log.info("Correo de citación reenviado exitosamente");
-        } catch (Exception e) {
-            log.error("Error al reenviar correo de citación: {}", e.getMessage());
-            throw new RuntimeException("Error al enviar el correo: " + e.getMessage());
-        }
+        emailService.enviarCorreoCitacion(citacion);
+        log.info("Correo de citación encolado para reenvío");
+    }
+
+    /**
+     * Estudiante al que no se le pudo crear la citación y el motivo
+     */
+    public record FalloCitacion(Long codigoEstudiante, String motivo) {
+    }
+
+    /**
+     * Resultado de una creación masiva de citaciones
+     */
+    public record ResultadoCitacionesLote(List<Citacion> creadas, List<FalloCitacion> fallidas) {
     }
 }
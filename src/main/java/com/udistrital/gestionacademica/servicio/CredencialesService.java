@@ -0,0 +1,268 @@
+package com.udistrital.gestionacademica.servicio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Contraseñas con hash BCrypt.
+ *
+ * - El cálculo del hash (50-200 ms de CPU según credenciales.bcrypt.costo) se
+ *   hace en el ejecutor acotado ejecutorHash: un pico de inicios de sesión
+ *   espera en su cola en lugar de ocupar todos los hilos de peticiones. Si la
+ *   cola está llena se rechaza con CredencialesNoDisponiblesException
+ * - Las filas con la contraseña en texto plano se aceptan y se marcan para
+ *   migrar; también las que tienen un costo distinto al configurado
+ * - Un usuario inexistente o con contraseña en texto plano también paga una
+ *   comparación BCrypt (contra un hash ficticio), para que el tiempo de
+ *   respuesta no revele qué usuarios existen
+ * - Si la espera supera credenciales.espera-maxima-ms se cancela el cálculo:
+ *   si aún no empezó no llega a ocupar un hilo
+ * - Caché de credenciales verificadas hace poco (credenciales.cache-segundos):
+ *   guarda una huella HMAC de usuario + hash guardado + contraseña, con una
+ *   clave aleatoria por arranque. No guarda la contraseña, y al cambiar el hash
+ *   guardado la huella deja de coincidir
+ *
+ * Métricas: login.hash (tiempo de cálculo, percentiles) y
+ * login.credenciales.cache{resultado=acierto|fallo}
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CredencialesService {
+
+    private static final String ALGORITMO_HUELLA = "HmacSHA256";
+
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier("ejecutorHash")
+    private final ThreadPoolTaskExecutor ejecutorHash;
+
+    @Value("${credenciales.bcrypt.costo:10}")
+    private int costo;
+
+    @Value("${credenciales.cache-segundos:300}")
+    private long cacheSegundos;
+
+    @Value("${credenciales.cache-maximo:10000}")
+    private int cacheMaximo;
+
+    @Value("${credenciales.espera-maxima-ms:5000}")
+    private long esperaMaximaMs;
+
+    private BCryptPasswordEncoder codificador;
+    private SecretKeySpec claveHuella;
+    // Hash de una contraseña aleatoria con el costo configurado: igualar tiempos
+    private String hashFicticio;
+
+    // idUsuario -> última credencial verificada
+    private final Map<Long, Verificada> verificadas = new ConcurrentHashMap<>();
+
+    private Timer tiempoHash;
+    private Counter aciertosCache;
+    private Counter fallosCache;
+
+    @PostConstruct
+    void iniciar() {
+        SecureRandom aleatorio = new SecureRandom();
+        codificador = new BCryptPasswordEncoder(costo, aleatorio);
+        byte[] clave = new byte[32];
+        aleatorio.nextBytes(clave);
+        claveHuella = new SecretKeySpec(clave, ALGORITMO_HUELLA);
+        aleatorio.nextBytes(clave);
+        hashFicticio = codificador.encode(HexFormat.of().formatHex(clave));
+
+        tiempoHash = Timer.builder("login.hash")
+                .description("Tiempo de cálculo del hash de contraseñas")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        aciertosCache = contadorCache("acierto");
+        fallosCache = contadorCache("fallo");
+    }
+
+    private Counter contadorCache(String resultado) {
+        return Counter.builder("login.credenciales.cache")
+                .description("Verificaciones de contraseña resueltas con la caché")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Comparar la contraseña con la guardada (hash BCrypt o texto plano heredado)
+     */
+    public Verificacion verificar(Long idUsuario, String guardada, String contrasena) {
+        if (guardada == null || contrasena == null) {
+            return Verificacion.INCORRECTA;
+        }
+
+        byte[] huella = huella(idUsuario, guardada, contrasena);
+        Verificada enCache = verificadas.get(idUsuario);
+        if (enCache != null && enCache.vence > System.nanoTime() && MessageDigest.isEqual(enCache.huella, huella)) {
+            aciertosCache.increment();
+            return Verificacion.CORRECTA;
+        }
+        fallosCache.increment();
+
+        Verificacion resultado;
+        if (esHash(guardada)) {
+            boolean coincide = enEjecutor(() -> codificador.matches(contrasena, guardada));
+            resultado = !coincide ? Verificacion.INCORRECTA
+                    : codificador.upgradeEncoding(guardada) ? Verificacion.CORRECTA_MIGRAR : Verificacion.CORRECTA;
+        } else {
+            // Contraseña heredada en texto plano; se paga el BCrypt igual que con un hash
+            igualarTiempo(contrasena);
+            boolean coincide = MessageDigest.isEqual(
+                    guardada.getBytes(StandardCharsets.UTF_8), contrasena.getBytes(StandardCharsets.UTF_8));
+            resultado = coincide ? Verificacion.CORRECTA_MIGRAR : Verificacion.INCORRECTA;
+        }
+
+        if (resultado == Verificacion.CORRECTA) {
+            recordar(idUsuario, huella);
+        }
+        return resultado;
+    }
+
+    /**
+     * Verificación para un usuario que no existe: siempre INCORRECTA, pero
+     * tarda lo mismo que una contraseña equivocada de un usuario real
+     */
+    public Verificacion verificarInexistente(String contrasena) {
+        igualarTiempo(contrasena);
+        return Verificacion.INCORRECTA;
+    }
+
+    /**
+     * Hash BCrypt de la contraseña, calculado en el ejecutor de hash
+     */
+    public String codificar(String contrasena) {
+        return enEjecutor(() -> codificador.encode(contrasena));
+    }
+
+    /**
+     * Recordar una contraseña recién codificada como verificada (migración en
+     * el inicio de sesión), para que el siguiente inicio no recalcule el hash
+     */
+    public void recordarVerificada(Long idUsuario, String hash, String contrasena) {
+        recordar(idUsuario, huella(idUsuario, hash, contrasena));
+    }
+
+    /**
+     * Olvidar la credencial verificada del usuario (cambio de contraseña o estado)
+     */
+    public void olvidar(Long idUsuario) {
+        verificadas.remove(idUsuario);
+    }
+
+    @Scheduled(fixedDelayString = "${sesion.limpieza-ms:600000}")
+    public void limpiar() {
+        long ahora = System.nanoTime();
+        verificadas.values().removeIf(verificada -> verificada.vence <= ahora);
+    }
+
+    private void recordar(Long idUsuario, byte[] huella) {
+        if (cacheSegundos <= 0) {
+            return;
+        }
+        if (verificadas.size() >= cacheMaximo) {
+            limpiar();
+            if (verificadas.size() >= cacheMaximo) {
+                // Sigue llena con entradas vigentes: se descarta y se vuelve a llenar
+                verificadas.clear();
+            }
+        }
+        verificadas.put(idUsuario, new Verificada(huella, System.nanoTime() + Duration.ofSeconds(cacheSegundos).toNanos()));
+    }
+
+    private void igualarTiempo(String contrasena) {
+        String comparada = contrasena != null ? contrasena : "";
+        enEjecutor(() -> codificador.matches(comparada, hashFicticio));
+    }
+
+    private <T> T enEjecutor(Callable<T> calculo) {
+        Future<T> futuro;
+        try {
+            futuro = ejecutorHash.submit(() -> tiempoHash.recordCallable(calculo));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cálculo de hash rechazado: ejecutor saturado (cola llena)");
+            throw new CredencialesNoDisponiblesException();
+        }
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Nadie espera ya el resultado: si sigue en la cola no se ejecuta
+            futuro.cancel(true);
+            log.warn("Cálculo de hash cancelado: ejecutor saturado (espera de {} ms agotada)", esperaMaximaMs);
+            throw new CredencialesNoDisponiblesException();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CredencialesNoDisponiblesException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al calcular el hash de la contraseña", e.getCause());
+        }
+    }
+
+    private byte[] huella(Long idUsuario, String guardada, String contrasena) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO_HUELLA);
+            mac.init(claveHuella);
+            mac.update((idUsuario + "|" + guardada + "|").getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal(contrasena.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la credencial", e);
+        }
+    }
+
+    private static boolean esHash(String guardada) {
+        return guardada.length() == 60
+                && (guardada.startsWith("$2a$") || guardada.startsWith("$2b$") || guardada.startsWith("$2y$"));
+    }
+
+    public enum Verificacion {
+        CORRECTA,
+        // Correcta, pero la guardada está en texto plano o con otro costo: se vuelve a codificar
+        CORRECTA_MIGRAR,
+        INCORRECTA;
+
+        public boolean correcta() {
+            return this != INCORRECTA;
+        }
+    }
+
+    /**
+     * El ejecutor de hash está saturado: el inicio de sesión se debe reintentar
+     */
+    public static class CredencialesNoDisponiblesException extends RuntimeException {
+        public CredencialesNoDisponiblesException() {
+            super("Demasiados inicios de sesión simultáneos, intenta de nuevo en unos segundos");
+        }
+    }
+
+    private record Verificada(byte[] huella, long vence) {}
+}
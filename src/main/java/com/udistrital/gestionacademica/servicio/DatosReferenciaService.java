@@ -0,0 +1,128 @@
+package com.udistrital.gestionacademica.servicio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché versionada de datos de referencia (grados, grupos, logros, períodos).
+ *
+ * Cada dominio tiene un número de versión que aumenta cuando se confirma una
+ * modificación. Las respuestas ya armadas (DTO) se guardan con la versión con
+ * que se cargaron y solo se sirven mientras esa versión siga vigente.
+ *
+ * La versión también forma la ETag débil de las respuestas: si el navegador
+ * envía If-None-Match con la versión vigente, el controlador responde 304 sin
+ * tocar la caché ni la base de datos.
+ *
+ * Los cambios que no pasan por los servicios que invalidan (por ejemplo el
+ * nombre de un director de grupo) se reflejan a más tardar cuando la versión
+ * cumple datos-referencia.ttl-segundos y se pasa a la siguiente.
+ */
+@Service
+@Slf4j
+public class DatosReferenciaService {
+
+    public enum Dominio { GRADOS, GRUPOS, LOGROS, PERIODOS }
+
+    // Distingue las ETags de cada arranque: las versiones vuelven a empezar en cero
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Dominio, Version> versiones = new EnumMap<>(Dominio.class);
+    private final Map<Dominio, Map<String, Entrada>> entradas = new EnumMap<>(Dominio.class);
+
+    @Value("${datos-referencia.ttl-segundos:600}")
+    private long ttlSegundos;
+
+    public DatosReferenciaService() {
+        for (Dominio dominio : Dominio.values()) {
+            versiones.put(dominio, new Version());
+            entradas.put(dominio, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * ETag débil de la versión vigente del dominio
+     */
+    public String etag(Dominio dominio) {
+        return "W/\"" + arranque + "-" + dominio.name().toLowerCase() + "-" + versionVigente(dominio) + "\"";
+    }
+
+    /**
+     * Valor en caché para la clave, o el que produce cargar si no hay uno de la
+     * versión vigente. Si el dominio cambia durante la carga, el valor se
+     * devuelve pero no se guarda.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(Dominio dominio, String clave, Supplier<T> cargar) {
+        long version = versionVigente(dominio);
+        Map<String, Entrada> cache = entradas.get(dominio);
+        Entrada entrada = cache.get(clave);
+        if (entrada != null && entrada.version == version) {
+            return (T) entrada.valor;
+        }
+
+        T valor = cargar.get();
+        if (versiones.get(dominio).numero.get() == version) {
+            cache.put(clave, new Entrada(version, valor));
+        }
+        return valor;
+    }
+
+    /**
+     * Marcar el dominio como modificado cuando la transacción actual se
+     * confirme (o ya, si no hay transacción)
+     */
+    public void invalidarAlConfirmar(Dominio dominio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(dominio);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar(dominio);
+            }
+        });
+    }
+
+    /**
+     * Versión del dominio; si ya cumplió el TTL se pasa a la siguiente
+     */
+    private long versionVigente(Dominio dominio) {
+        Version version = versiones.get(dominio);
+        long numero = version.numero.get();
+        if (System.nanoTime() - version.desde > ttlSegundos * 1_000_000_000L) {
+            synchronized (version) {
+                if (version.numero.get() == numero) {
+                    invalidar(dominio);
+                }
+            }
+            numero = version.numero.get();
+        }
+        return numero;
+    }
+
+    private void invalidar(Dominio dominio) {
+        Version version = versiones.get(dominio);
+        long numero = version.numero.incrementAndGet();
+        version.desde = System.nanoTime();
+        entradas.get(dominio).clear();
+        log.debug("Datos de referencia {} en la versión {}", dominio, numero);
+    }
+
+    private static final class Version {
+        private final AtomicLong numero = new AtomicLong();
+        private volatile long desde = System.nanoTime();
+    }
+
+    private record Entrada(long version, Object valor) {}
+}
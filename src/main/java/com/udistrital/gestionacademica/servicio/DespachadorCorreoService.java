@@ -0,0 +1,289 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
+import com.udistrital.gestionacademica.repositorio.CorreoSalienteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.internet.AddressException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drena la bandeja de salida de correos (CorreoSaliente).
+ *
+ * Ciclo:
+ * 1. Reclamar un lote con FOR UPDATE SKIP LOCKED y marcarlo ENVIANDO con un
+ *    bloqueo temporal, en una transacción corta
+ * 2. Enviar el lote sin transacción abierta, repartido en unas pocas sesiones
+ *    SMTP en paralelo; cada sesión envía su parte por una sola conexión
+ * 3. Registrar el resultado de cada correo en otra transacción corta, solo si
+ *    sigue ENVIANDO con el bloqueo de este reclamo (si el envío tardó más que
+ *    el bloqueo, otra instancia pudo retomarlo y el resultado ya es suyo): ENVIADO,
+ *    reintento con espera exponencial, o DESCARTADO si se agotaron los intentos
+ *    o el error es permanente (dirección inválida). Los correos que el
+ *    limitador o el circuito SMTP no dejaron intentar vuelven a PENDIENTE sin
+ *    gastar un intento
+ *
+ * Varias instancias de la aplicación pueden ejecutar este ciclo a la vez: cada
+ * una reclama filas distintas. Si una instancia muere con correos reclamados,
+ * otra los retoma cuando vence el bloqueo.
+ *
+ * No usa @Transactional a nivel de clase: el envío SMTP no debe ocurrir con
+ * una transacción (y sus bloqueos) abierta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DespachadorCorreoService {
+
+    private final CorreoSalienteRepository correoSalienteRepository;
+    private final emailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ProteccionSmtpService proteccionSmtp;
+
+    // Sesiones SMTP simultáneas (hilos del ejecutor): cada una envía su parte del lote por una sola conexión
+    @Qualifier("ejecutorCorreo")
+    private final ThreadPoolTaskExecutor ejecutorCorreo;
+
+    @Value("${correo.bandeja.lote:100}")
+    private int tamanoLote;
+
+    @Value("${correo.bandeja.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${correo.bandeja.espera-base-segundos:30}")
+    private long esperaBaseSegundos;
+
+    @Value("${correo.bandeja.espera-maxima-segundos:3600}")
+    private long esperaMaximaSegundos;
+
+    @Value("${correo.bandeja.bloqueo-segundos:300}")
+    private long bloqueoSegundos;
+
+    // Métricas (expuestas por actuator): el ritmo de correo.bandeja.envios es el throughput
+    private Counter correosEnviados;
+    private Counter correosReintento;
+    private Counter correosDescartados;
+    private Counter correosAplazados;
+    private Timer tiempoLote;
+
+    @PostConstruct
+    void iniciarMetricas() {
+        correosEnviados = contadorEnvios("enviado");
+        correosReintento = contadorEnvios("reintento");
+        correosDescartados = contadorEnvios("descartado");
+        correosAplazados = contadorEnvios("aplazado");
+        tiempoLote = Timer.builder("correo.bandeja.lote")
+                .description("Tiempo de envío de un lote de la bandeja de salida")
+                .register(meterRegistry);
+    }
+
+    private Counter contadorEnvios(String resultado) {
+        return Counter.builder("correo.bandeja.envios")
+                .description("Correos procesados por la bandeja de salida")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Despachar los correos pendientes. Mientras los lotes lleguen completos se
+     * sigue drenando; al quedar la bandeja al día se espera al siguiente ciclo.
+     */
+    @Scheduled(fixedDelayString = "${correo.bandeja.intervalo-ms:5000}")
+    public void despacharPendientes() {
+        List<CorreoSaliente> lote;
+        boolean aplazados = false;
+        do {
+            if (!proteccionSmtp.disponible()) {
+                // Circuito abierto: no se reclaman correos que no se van a poder enviar
+                return;
+            }
+            lote = reclamarLote();
+            if (!lote.isEmpty()) {
+                aplazados = registrarResultados(lote, enviarLote(lote));
+            }
+        } while (lote.size() == tamanoLote && !aplazados && !Thread.currentThread().isInterrupted());
+    }
+
+    private List<CorreoSaliente> reclamarLote() {
+        List<CorreoSaliente> reclamados = transactionTemplate.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            // En microsegundos, la precisión de la columna: identifica este reclamo al registrar el resultado
+            LocalDateTime bloqueadoHasta = ahora.plusSeconds(bloqueoSegundos).truncatedTo(ChronoUnit.MICROS);
+            List<CorreoSaliente> correos = correoSalienteRepository.reclamar(ahora, tamanoLote);
+            for (CorreoSaliente correo : correos) {
+                correo.setEstado(CorreoSaliente.ENVIANDO);
+                correo.setBloqueadoHasta(bloqueadoHasta);
+                correo.setIntentos(correo.getIntentos() + 1);
+            }
+            return correos;
+        });
+        return reclamados != null ? reclamados : List.of();
+    }
+
+    /**
+     * Enviar el lote repartido en tantas sesiones SMTP como hilos tiene el
+     * ejecutor de correo; cada sesión envía su parte por una sola conexión.
+     * Retorna idCorreo -> error (null si se envió)
+     */
+    private Map<Long, Exception> enviarLote(List<CorreoSaliente> lote) {
+        int sesiones = Math.min(ejecutorCorreo.getMaxPoolSize(), lote.size());
+        int porSesion = (lote.size() + sesiones - 1) / sesiones;
+        long inicio = System.nanoTime();
+
+        List<List<CorreoSaliente>> partes = new ArrayList<>(sesiones);
+        List<Future<Map<Long, Exception>>> envios = new ArrayList<>(sesiones);
+        for (int desde = 0; desde < lote.size(); desde += porSesion) {
+            List<CorreoSaliente> parte = lote.subList(desde, Math.min(desde + porSesion, lote.size()));
+            partes.add(parte);
+            envios.add(ejecutorCorreo.submit(() -> emailService.enviarLote(parte)));
+        }
+
+        Map<Long, Exception> resultados = new HashMap<>();
+        for (int i = 0; i < envios.size(); i++) {
+            Map<Long, Exception> fallidos;
+            try {
+                fallidos = envios.get(i).get();
+            } catch (ExecutionException e) {
+                Exception causa = e.getCause() instanceof Exception c ? c : e;
+                fallidos = new HashMap<>();
+                for (CorreoSaliente correo : partes.get(i)) {
+                    fallidos.put(correo.getIdCorreo(), causa);
+                }
+            } catch (InterruptedException e) {
+                // Los correos quedan ENVIANDO y se reintentan cuando venza su bloqueo
+                Thread.currentThread().interrupt();
+                break;
+            }
+            for (CorreoSaliente correo : partes.get(i)) {
+                resultados.put(correo.getIdCorreo(), fallidos.get(correo.getIdCorreo()));
+            }
+        }
+
+        long nanos = System.nanoTime() - inicio;
+        tiempoLote.record(nanos, TimeUnit.NANOSECONDS);
+        long milisegundos = Math.max(1L, nanos / 1_000_000);
+        log.info("Lote de {} correos enviado por {} sesiones SMTP en {} ms ({} correos/s)",
+                resultados.size(), sesiones, milisegundos, resultados.size() * 1000L / milisegundos);
+        return resultados;
+    }
+
+    /**
+     * Retorna true si hubo correos aplazados por el limitador o el circuito SMTP
+     */
+    private boolean registrarResultados(List<CorreoSaliente> lote, Map<Long, Exception> resultados) {
+        Map<Long, LocalDateTime> reclamos = new HashMap<>();
+        for (CorreoSaliente correo : lote) {
+            reclamos.put(correo.getIdCorreo(), correo.getBloqueadoHasta());
+        }
+
+        Integer totalAplazados = transactionTemplate.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            int enviados = 0;
+            int reintentos = 0;
+            int descartados = 0;
+            int aplazados = 0;
+
+            // Una consulta para todo el lote; los cambios se escriben como UPDATE por lotes al confirmar
+            List<CorreoSaliente> vigentes = correoSalienteRepository.bloquearEnviando(resultados.keySet());
+            int perdidos = resultados.size();
+            for (CorreoSaliente correo : vigentes) {
+                if (!correo.getBloqueadoHasta().equals(reclamos.get(correo.getIdCorreo()))) {
+                    // Otra instancia lo retomó tras vencer el bloqueo
+                    continue;
+                }
+                perdidos--;
+                Exception error = resultados.get(correo.getIdCorreo());
+                correo.setBloqueadoHasta(null);
+
+                if (error == null) {
+                    correo.setEstado(CorreoSaliente.ENVIADO);
+                    correo.setFechaEnvio(ahora);
+                    correo.setUltimoError(null);
+                    correosEnviados.increment();
+                    enviados++;
+                } else if (error instanceof ProteccionSmtpService.SmtpNoDisponibleException noDisponible) {
+                    // No se intentó: vuelve a la bandeja sin gastar el intento
+                    correo.setEstado(CorreoSaliente.PENDIENTE);
+                    correo.setIntentos(correo.getIntentos() - 1);
+                    correo.setProximoIntento(ahora.plus(noDisponible.getReintentarEn()));
+                    correosAplazados.increment();
+                    aplazados++;
+                } else if (esPermanente(error) || correo.getIntentos() >= maxIntentos) {
+                    correo.setEstado(CorreoSaliente.DESCARTADO);
+                    correo.setUltimoError(resumir(error));
+                    log.error("Correo {} ({}) a {} descartado tras {} intentos: {}",
+                            correo.getIdCorreo(), correo.getTipo(), correo.getDestinatario(),
+                            correo.getIntentos(), error.getMessage());
+                    correosDescartados.increment();
+                    descartados++;
+                } else {
+                    correo.setEstado(CorreoSaliente.PENDIENTE);
+                    correo.setProximoIntento(ahora.plusSeconds(espera(correo.getIntentos())));
+                    correo.setUltimoError(resumir(error));
+                    log.warn("Correo {} a {} falló (intento {}), se reintenta a las {}: {}",
+                            correo.getIdCorreo(), correo.getDestinatario(), correo.getIntentos(),
+                            correo.getProximoIntento(), error.getMessage());
+                    correosReintento.increment();
+                    reintentos++;
+                }
+            }
+
+            if (perdidos > 0) {
+                log.warn("{} correos del lote ya no estaban reclamados por esta instancia (bloqueo vencido); "
+                        + "no se registra su resultado", perdidos);
+            }
+            log.info("Bandeja de salida: {} enviados, {} para reintento, {} descartados, {} aplazados",
+                    enviados, reintentos, descartados, aplazados);
+            return aplazados;
+        });
+        return totalAplazados != null && totalAplazados > 0;
+    }
+
+    /**
+     * Espera exponencial con variación aleatoria (±20%) para que los reintentos
+     * de muchos correos no coincidan
+     */
+    private long espera(int intentos) {
+        long base = esperaBaseSegundos << Math.min(intentos - 1, 20);
+        long acotada = Math.min(base, esperaMaximaSegundos);
+        double variacion = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1L, (long) (acotada * variacion));
+    }
+
+    /**
+     * Errores que no se corrigen reintentando
+     */
+    private static boolean esPermanente(Exception error) {
+        return error instanceof AddressException
+                || error instanceof MailParseException
+                || error instanceof MailPreparationException;
+    }
+
+    private static String resumir(Exception error) {
+        String mensaje = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje;
+    }
+}
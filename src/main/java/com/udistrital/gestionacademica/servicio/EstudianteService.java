@@ -5,20 +5,29 @@ import com.udistrital.gestionacademica.modelo.Grupo;
 import com.udistrital.gestionacademica.modelo.Acudiente;
 
 import com.udistrital.gestionacademica.repositorio.EstudianteRepository;
+import com.udistrital.gestionacademica.repositorio.EstudianteSpecifications;
 import com.udistrital.gestionacademica.repositorio.GrupoRepository;
 
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -28,12 +37,18 @@ public class EstudianteService {
 
     private final EstudianteRepository estudianteRepository;
     private final GrupoRepository grupoRepository;
+    private final CacheBoletinService cacheBoletinService;
+    private final IndiceBusquedaPersonaService indiceBusquedaPersonaService;
+    private final DatosReferenciaService datosReferencia;
     @Autowired
     private final AcudienteService acudienteService;
 
     // Límite de estudiantes por grupo - Regla de negocio
     private static final int LIMITE_ESTUDIANTES_POR_GRUPO = 10;
 
+    // Tamaño máximo de página permitido en la búsqueda paginada
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+
     // Agrega este método corregido a tu EstudianteService.java
     // Agrega este método corregido a tu EstudianteService.java
     public Estudiante crearEstudiante(Estudiante estudiante, Long idAcudiente) {
@@ -64,6 +79,9 @@ public class EstudianteService {
 
             // Guardar el estudiante
             Estudiante nuevoEstudiante = estudianteRepository.save(estudiante);
+            indiceBusquedaPersonaService.indexarAlConfirmar(nuevoEstudiante.getPersona());
+            // La lista de grupos muestra cuántos estudiantes tiene cada uno
+            datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
             log.info("Estudiante creado exitosamente con código: {}", nuevoEstudiante.getCodigoEstudiante());
 
             return nuevoEstudiante;
@@ -123,37 +141,17 @@ public class EstudianteService {
             Boolean ordenAlfabetico) {
 
         try {
-            // Paso 7: Consultar estudiantes del datastore
-            List<Estudiante> estudiantes;
-
-            // Regla de negocio: Si se diligencia la barra de búsqueda, filtrar sobre la búsqueda
-            // Si no, filtrar sobre todos los estudiantes
-            if (textoBusqueda != null && !textoBusqueda.trim().isEmpty()) {
-                log.info("Aplicando búsqueda con texto: {}", textoBusqueda);
-                estudiantes = buscarPorTexto(textoBusqueda);
-            } else {
-                log.info("Obteniendo todos los estudiantes para aplicar filtros");
-                estudiantes = estudianteRepository.findAll();
-            }
+            // Paso 1: Resolver la barra de búsqueda con el índice en memoria si es posible
+            List<Long> idsPorTexto = buscarPersonasEnIndice(textoBusqueda);
 
-            // Paso 4-5: Aplicar filtros opcionales seleccionados por el actor
-            // Filtro por género (opcional)
-            if (genero != null && !genero.trim().isEmpty()) {
-                log.info("Aplicando filtro de género: {}", genero);
-                estudiantes = filtrarPorGenero(estudiantes, genero);
-            }
+            // Paso 7: Consultar estudiantes del datastore aplicando los filtros en la consulta
+            List<Estudiante> estudiantes = estudianteRepository.findAll(
+                    construirFiltro(textoBusqueda, idsPorTexto, genero, edadMinima, edadMaxima),
+                    construirOrden(ordenAlfabetico));
 
-            // Filtro por rango de edad (opcional)
-            if (edadMinima != null || edadMaxima != null) {
-                log.info("Aplicando filtro de rango de edad: {} - {}", edadMinima, edadMaxima);
-                estudiantes = filtrarPorRangoEdad(estudiantes, edadMinima, edadMaxima);
-            }
-
-            // Orden alfabético (opcional, por defecto aplicado)
-            // Regla de negocio: El orden alfabético se aplica sobre el nombre completo
-            if (ordenAlfabetico != null && ordenAlfabetico) {
-                log.info("Aplicando orden alfabético A-Z");
-                estudiantes = ordenarAlfabeticamente(estudiantes);
+            // Sin orden alfabético, los resultados del índice se presentan por relevancia
+            if (idsPorTexto != null && (ordenAlfabetico == null || !ordenAlfabetico)) {
+                estudiantes = ordenarPorRelevancia(estudiantes, idsPorTexto);
             }
 
             log.info("Búsqueda y filtrado completado. Estudiantes encontrados: {}", estudiantes.size());
@@ -167,62 +165,115 @@ public class EstudianteService {
     }
 
     /**
-     * Búsqueda por texto en nombre, apellido o documento Regla de negocio: La
-     * búsqueda es insensible a mayúsculas/minúsculas
+     * Variante paginada de la búsqueda: mismos filtros, pero la base de datos
+     * solo devuelve la página solicitada junto con el total de coincidencias.
+     *
+     * @param pagina Número de página (base 0)
+     * @param tamano Cantidad de estudiantes por página
      */
-    private List<Estudiante> buscarPorTexto(String texto) {
-        String textoLower = texto.toLowerCase().trim();
-        return estudianteRepository.findAll().stream()
-                .filter(est
-                        -> est.getPersona().getNombre().toLowerCase().contains(textoLower)
-                || est.getPersona().getApellido().toLowerCase().contains(textoLower)
-                || (est.getPersona().getDocumento() != null && est.getPersona().getDocumento().toLowerCase().contains(textoLower))
-                )
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<Estudiante> buscarYFiltrarEstudiantes(
+            String textoBusqueda,
+            String genero,
+            Integer edadMinima,
+            Integer edadMaxima,
+            Boolean ordenAlfabetico,
+            int pagina,
+            int tamano) {
+
+        try {
+            Pageable pageable = PageRequest.of(
+                    Math.max(pagina, 0),
+                    Math.min(Math.max(tamano, 1), TAMANO_MAXIMO_PAGINA),
+                    construirOrden(ordenAlfabetico));
+
+            Page<Estudiante> estudiantes = estudianteRepository.findAll(
+                    construirFiltro(textoBusqueda, buscarPersonasEnIndice(textoBusqueda),
+                            genero, edadMinima, edadMaxima),
+                    pageable);
+
+            log.info("Búsqueda paginada completada. Página {} de {}, total: {}",
+                    estudiantes.getNumber(), estudiantes.getTotalPages(), estudiantes.getTotalElements());
+            return estudiantes;
+
+        } catch (Exception e) {
+            log.error("Error al buscar y filtrar estudiantes: {}", e.getMessage());
+            throw new RuntimeException("Error en la base de datos", e);
+        }
     }
 
     /**
-     * Filtrar por género
+     * Componer los filtros opcionales seleccionados por el actor (Paso 4-5).
+     * Regla de negocio: los filtros son opcionales y pueden combinarse.
      */
-    private List<Estudiante> filtrarPorGenero(List<Estudiante> estudiantes, String genero) {
-        return estudiantes.stream()
-                .filter(est -> est.getPersona().getGenero() != null
-                && est.getPersona().getGenero().equalsIgnoreCase(genero.trim()))
-                .collect(Collectors.toList());
+    private Specification<Estudiante> construirFiltro(
+            String textoBusqueda,
+            List<Long> idsPorTexto,
+            String genero,
+            Integer edadMinima,
+            Integer edadMaxima) {
+
+        List<Specification<Estudiante>> filtros = new ArrayList<>();
+
+        if (idsPorTexto != null) {
+            log.info("Aplicando búsqueda con texto (índice): {}", textoBusqueda);
+            filtros.add(EstudianteSpecifications.personaEn(idsPorTexto));
+        } else if (textoBusqueda != null && !textoBusqueda.trim().isEmpty()) {
+            log.info("Aplicando búsqueda con texto: {}", textoBusqueda);
+            filtros.add(EstudianteSpecifications.textoContiene(textoBusqueda));
+        }
+
+        if (genero != null && !genero.trim().isEmpty()) {
+            log.info("Aplicando filtro de género: {}", genero);
+            filtros.add(EstudianteSpecifications.generoIgual(genero));
+        }
+
+        if (edadMinima != null || edadMaxima != null) {
+            log.info("Aplicando filtro de rango de edad: {} - {}", edadMinima, edadMaxima);
+            filtros.add(EstudianteSpecifications.edadEntre(edadMinima, edadMaxima));
+        }
+
+        return Specification.allOf(filtros);
     }
 
     /**
-     * Filtrar por rango de edad Regla de negocio: La edad máxima debe ser mayor
-     * o igual a la edad mínima
+     * Búsqueda por texto en nombre, apellido o documento usando el índice de
+     * trigramas. Retorna null si el texto está vacío o es muy corto para el
+     * índice, en cuyo caso se filtra en la base de datos.
      */
-    private List<Estudiante> filtrarPorRangoEdad(List<Estudiante> estudiantes, Integer edadMinima, Integer edadMaxima) {
-        return estudiantes.stream()
-                .filter(est -> {
-                    Integer edad = est.getPersona().calcularEdad();
-                    if (edad == null) {
-                        return false;
-                    }
-
-                    boolean cumpleMinima = edadMinima == null || edad >= edadMinima;
-                    boolean cumpleMaxima = edadMaxima == null || edad <= edadMaxima;
-
-                    return cumpleMinima && cumpleMaxima;
-                })
-                .collect(Collectors.toList());
+    private List<Long> buscarPersonasEnIndice(String textoBusqueda) {
+        if (textoBusqueda == null || !indiceBusquedaPersonaService.puedeResolver(textoBusqueda)) {
+            return null;
+        }
+        return indiceBusquedaPersonaService.buscar(textoBusqueda);
+    }
+
+    private List<Estudiante> ordenarPorRelevancia(List<Estudiante> estudiantes, List<Long> idsPorRelevancia) {
+        Map<Long, Integer> posicion = new HashMap<>();
+        for (int i = 0; i < idsPorRelevancia.size(); i++) {
+            posicion.put(idsPorRelevancia.get(i), i);
+        }
+        List<Estudiante> ordenados = new ArrayList<>(estudiantes);
+        ordenados.sort(Comparator.comparingInt(
+                (Estudiante e) -> posicion.getOrDefault(e.getPersona().getIdPersona(), Integer.MAX_VALUE)));
+        return ordenados;
     }
 
     /**
-     * Ordenar alfabéticamente A-Z Regla de negocio: El orden se aplica sobre el
-     * nombre completo (nombre + apellido)
+     * Orden alfabético A-Z (opcional, por defecto aplicado)
+     * Regla de negocio: el orden se aplica sobre apellido y nombre, sin
+     * distinguir mayúsculas. El código se agrega como desempate para que la
+     * paginación sea estable.
      */
-    private List<Estudiante> ordenarAlfabeticamente(List<Estudiante> estudiantes) {
-        return estudiantes.stream()
-                .sorted(Comparator
-                        // Cambio clave: Accedemos a getPersona() y luego a getApellido()
-                        .comparing((Estudiante e) -> e.getPersona().getApellido(), String.CASE_INSENSITIVE_ORDER)
-                        // Hacemos lo mismo para el nombre
-                        .thenComparing(e -> e.getPersona().getNombre(), String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+    private Sort construirOrden(Boolean ordenAlfabetico) {
+        if (ordenAlfabetico != null && ordenAlfabetico) {
+            log.info("Aplicando orden alfabético A-Z");
+            return Sort.by(
+                    Sort.Order.asc("persona.apellido").ignoreCase(),
+                    Sort.Order.asc("persona.nombre").ignoreCase(),
+                    Sort.Order.asc("codigoEstudiante"));
+        }
+        return Sort.by("codigoEstudiante");
     }
 
     public Estudiante asignarEstudianteAGrupo(Long codigoEstudiante, Long idGrupo) {
@@ -243,6 +294,7 @@ public class EstudianteService {
 
             estudiante.setGrupo(grupo);
             Estudiante estudianteActualizado = estudianteRepository.save(estudiante);
+            datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
 
             log.info("Estudiante {} asignado exitosamente al grupo {}", codigoEstudiante, idGrupo);
             return estudianteActualizado;
@@ -270,6 +322,7 @@ public class EstudianteService {
 
             estudiante.setGrupo(null);
             Estudiante estudianteActualizado = estudianteRepository.save(estudiante);
+            datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
 
             log.info("Estudiante {} desvinculado exitosamente de su grupo", codigoEstudiante);
             return estudianteActualizado;
@@ -308,6 +361,9 @@ public class EstudianteService {
 
             actualizarDatosEstudiante(estudianteExistente, estudianteModificado);
             Estudiante estudianteActualizado = estudianteRepository.save(estudianteExistente);
+            cacheBoletinService.invalidarEstudianteAlConfirmar(codigoEstudiante);
+            indiceBusquedaPersonaService.indexarAlConfirmar(estudianteActualizado.getPersona());
+            datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
 
             log.info("Estudiante {} modificado exitosamente", codigoEstudiante);
             return estudianteActualizado;
@@ -365,7 +421,7 @@ public class EstudianteService {
     @Transactional(readOnly = true)
     public Estudiante obtenerEstudiantePorCodigo(Long codigoEstudiante) {
         log.info("Obteniendo estudiante con código: {}", codigoEstudiante);
-        return estudianteRepository.findById(codigoEstudiante)
+        return estudianteRepository.findConDetalle(codigoEstudiante)
                 .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
     }
 
@@ -2,13 +2,17 @@ package com.udistrital.gestionacademica.servicio;
 
 import com.udistrital.gestionacademica.modelo.Grupo;
 import com.udistrital.gestionacademica.modelo.Profesor;
+import com.udistrital.gestionacademica.repositorio.EstudianteRepository;
 import com.udistrital.gestionacademica.repositorio.GrupoRepository;
 import com.udistrital.gestionacademica.repositorio.ProfesorRepository;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,6 +23,8 @@ public class GrupoService {
 
     private final GrupoRepository grupoRepository;
     private final ProfesorRepository profesorRepository;
+    private final EstudianteRepository estudianteRepository;
+    private final DatosReferenciaService datosReferencia;
 
     @Transactional(readOnly = true)
     public List<Grupo> obtenerGruposPorGrado(Long idGrado) {
@@ -26,6 +32,23 @@ public class GrupoService {
         return grupoRepository.findByGradoId(idGrado);
     }
 
+    /**
+     * Número de estudiantes de cada grupo (idGrupo -> cantidad) sin cargar
+     * la colección de estudiantes de cada uno
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> contarEstudiantesPorGrupo(List<Grupo> grupos) {
+        Map<Long, Long> conteo = new HashMap<>();
+        if (grupos.isEmpty()) {
+            return conteo;
+        }
+        List<Long> idsGrupo = grupos.stream().map(Grupo::getIdGrupo).toList();
+        for (Object[] fila : estudianteRepository.contarPorGrupos(idsGrupo)) {
+            conteo.put((Long) fila[0], (Long) fila[1]);
+        }
+        return conteo;
+    }
+
     @Transactional(readOnly = true)
     public Grupo obtenerGrupoPorId(Long idGrupo) {
         log.info("Obteniendo grupo con id: {}", idGrupo);
@@ -33,6 +56,16 @@ public class GrupoService {
                 .orElseThrow(() -> new RuntimeException("Grupo no encontrado"));
     }
 
+    /**
+     * Grupo con grado y director cargados, para usarlo fuera de la transacción
+     */
+    @Transactional(readOnly = true)
+    public Grupo obtenerGrupoConDetalle(Long idGrupo) {
+        log.info("Obteniendo grupo con detalle, id: {}", idGrupo);
+        return grupoRepository.findConDetalle(idGrupo)
+                .orElseThrow(() -> new RuntimeException("Grupo no encontrado"));
+    }
+
     public Grupo crearGrupo(Grupo grupo, String documentoDirector) {
         log.info("Creando grupo {} para grado {}", grupo.getNumeroGrupo(), grupo.getGrado().getIdGrado());
         
@@ -58,7 +91,9 @@ public class GrupoService {
             log.info("Grupo creado sin director");
         }
 
-        return grupoRepository.save(grupo);
+        Grupo grupoGuardado = grupoRepository.save(grupo);
+        datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
+        return grupoGuardado;
     }
 
     public Grupo actualizarGrupo(Grupo grupo, String documentoDirector) {
@@ -83,11 +118,14 @@ public class GrupoService {
             log.info("Director removido del grupo");
         }
 
-        return grupoRepository.save(grupoExistente);
+        Grupo grupoActualizado = grupoRepository.save(grupoExistente);
+        datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
+        return grupoActualizado;
     }
 
     public void eliminarGrupo(Long idGrupo) {
         Grupo grupoExistente = obtenerGrupoPorId(idGrupo);
         grupoRepository.delete(grupoExistente);
+        datosReferencia.invalidarAlConfirmar(Dominio.GRUPOS);
     }
 }
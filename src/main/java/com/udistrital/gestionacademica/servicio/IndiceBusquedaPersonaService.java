@@ -0,0 +1,232 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.Persona;
+import com.udistrital.gestionacademica.repositorio.PersonaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre nombre, apellido y documento de las
+ * personas. Permite resolver la búsqueda por texto en memoria, sin recorrer
+ * toda la tabla ni normalizar cada fila en cada petición.
+ *
+ * Reglas:
+ * - La búsqueda es insensible a mayúsculas y a tildes ("Pérez" = "perez")
+ * - Solo se responden consultas de al menos 3 caracteres; para textos más
+ *   cortos el llamador debe usar la consulta a la base de datos
+ * - El índice solo devuelve IDs de persona: los datos de los resultados
+ *   siempre se leen de la base de datos
+ * - Las altas y cambios de personas se aplican al índice cuando se confirma la
+ *   transacción que los escribe (indexarAlConfirmar): un cambio revertido no
+ *   deja en el índice un nombre que nunca se guardó
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceBusquedaPersonaService {
+
+    private static final int TAMANO_NGRAMA = 3;
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private final PersonaRepository personaRepository;
+
+    // Trigrama -> IDs de persona que lo contienen
+    private final Map<String, Set<Long>> indice = new ConcurrentHashMap<>();
+
+    // ID de persona -> textos ya normalizados (se calculan una sola vez al indexar)
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private volatile boolean disponible = false;
+
+    /**
+     * Construir el índice completo al iniciar la aplicación, en el ejecutor de
+     * mantenimiento para no retrasar el arranque (mientras tanto las búsquedas
+     * se resuelven en la base de datos)
+     */
+    @Async("ejecutorMantenimiento")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        indice.clear();
+        entradas.clear();
+
+        for (Persona persona : personaRepository.findAll()) {
+            indexar(persona);
+        }
+
+        disponible = true;
+        log.info("Índice de búsqueda de personas construido: {} personas, {} trigramas en {} ms",
+                entradas.size(), indice.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Agregar o actualizar la persona en el índice cuando la transacción
+     * actual se confirme (o ya, si no hay transacción). Se indexan los datos
+     * que tenga la persona en ese momento.
+     */
+    public void indexarAlConfirmar(Persona persona) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexar(persona);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexar(persona);
+            }
+        });
+    }
+
+    /**
+     * Agregar o actualizar una persona en el índice (incremental)
+     */
+    void indexar(Persona persona) {
+        if (persona == null || persona.getIdPersona() == null) {
+            return;
+        }
+
+        Entrada nueva = new Entrada(
+                normalizar(persona.getNombre()),
+                normalizar(persona.getApellido()),
+                normalizar(persona.getDocumento()));
+
+        Entrada anterior = entradas.put(persona.getIdPersona(), nueva);
+        if (anterior != null) {
+            for (String trigrama : trigramas(anterior.textoCompleto)) {
+                Set<Long> ids = indice.get(trigrama);
+                if (ids != null) {
+                    ids.remove(persona.getIdPersona());
+                }
+            }
+        }
+
+        for (String trigrama : trigramas(nueva.textoCompleto)) {
+            indice.computeIfAbsent(trigrama, k -> ConcurrentHashMap.newKeySet()).add(persona.getIdPersona());
+        }
+    }
+
+    /**
+     * Indica si el índice puede responder la consulta. Si no, el llamador debe
+     * recurrir a la búsqueda en base de datos.
+     */
+    public boolean puedeResolver(String texto) {
+        return disponible && texto != null && normalizar(texto).length() >= TAMANO_NGRAMA;
+    }
+
+    /**
+     * Buscar personas cuyo nombre, apellido o documento contenga el texto.
+     * Los resultados se ordenan por relevancia: coincidencia exacta de un
+     * campo, luego prefijo de un campo, luego coincidencia parcial.
+     *
+     * @return IDs de persona ordenados por relevancia
+     */
+    public List<Long> buscar(String texto) {
+        String consulta = normalizar(texto);
+        List<String> trigramasConsulta = trigramas(consulta);
+        if (trigramasConsulta.isEmpty()) {
+            return List.of();
+        }
+
+        // Partir del trigrama menos frecuente para minimizar la intersección
+        Set<Long> menor = null;
+        for (String trigrama : trigramasConsulta) {
+            Set<Long> ids = indice.get(trigrama);
+            if (ids == null) {
+                return List.of();
+            }
+            if (menor == null || ids.size() < menor.size()) {
+                menor = ids;
+            }
+        }
+
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        for (Long idPersona : menor) {
+            Entrada entrada = entradas.get(idPersona);
+            if (entrada == null) {
+                continue;
+            }
+            // Verificar la subcadena para descartar falsos positivos de trigramas
+            int relevancia = entrada.relevancia(consulta);
+            if (relevancia > 0) {
+                coincidencias.add(new Coincidencia(idPersona, relevancia, entrada.textoCompleto.length()));
+            }
+        }
+
+        coincidencias.sort(Comparator
+                .comparingInt(Coincidencia::relevancia).reversed()
+                .thenComparingInt(Coincidencia::longitud)
+                .thenComparingLong(Coincidencia::idPersona));
+
+        List<Long> resultado = new ArrayList<>(coincidencias.size());
+        for (Coincidencia coincidencia : coincidencias) {
+            resultado.add(coincidencia.idPersona());
+        }
+        return resultado;
+    }
+
+    /**
+     * Minúsculas y sin tildes, con espacios colapsados
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinTildes.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+
+    private static List<String> trigramas(String texto) {
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i + TAMANO_NGRAMA <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + TAMANO_NGRAMA));
+        }
+        return resultado;
+    }
+
+    private record Coincidencia(Long idPersona, int relevancia, int longitud) {
+    }
+
+    private static final class Entrada {
+
+        private final String nombre;
+        private final String apellido;
+        private final String documento;
+        // Texto "nombre apellido documento": permite buscar el nombre completo
+        private final String textoCompleto;
+
+        private Entrada(String nombre, String apellido, String documento) {
+            this.nombre = nombre;
+            this.apellido = apellido;
+            this.documento = documento;
+            this.textoCompleto = (nombre + " " + apellido + " " + documento).trim();
+        }
+
+        private int relevancia(String consulta) {
+            if (consulta.equals(nombre) || consulta.equals(apellido) || consulta.equals(documento)) {
+                return 3;
+            }
+            if (nombre.startsWith(consulta) || apellido.startsWith(consulta)
+                    || documento.startsWith(consulta) || textoCompleto.startsWith(consulta)) {
+                return 2;
+            }
+            return textoCompleto.contains(consulta) ? 1 : 0;
+        }
+    }
+}
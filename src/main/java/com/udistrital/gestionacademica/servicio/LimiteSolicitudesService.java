@@ -0,0 +1,261 @@
+package com.udistrital.gestionacademica.servicio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de solicitudes por IP y por cuenta para las rutas públicas
+ * (inicio de sesión, preinscripción), aplicado por FiltroLimiteSolicitudes
+ * antes de llegar a los controladores y repositorios.
+ *
+ * Cada regla (limite-solicitudes.rutas[i]) indica patrón de ruta, método
+ * opcional, solicitudes por minuto y ráfaga por IP y, opcionalmente, por
+ * cuenta (el campo del cuerpo JSON que la identifica, p. ej. nombreUsuario).
+ *
+ * Cubetas de fichas sin bloqueos: cada cubeta guarda en un AtomicLong el
+ * instante teórico en que vuelve a estar llena y se actualiza con
+ * compareAndSet (GCRA, equivalente a una cubeta de fichas con esa tasa y
+ * ráfaga). Una cubeta que ya volvió a llenarse no guarda información y se
+ * puede descartar: así el mapa expira solo. Para descartarla se retira con el
+ * mismo compareAndSet, de modo que una ficha consumida a la vez por otro hilo
+ * no se pierde: o la cubeta deja de estar llena y no se retira, o el consumo
+ * ve que fue retirada y se repite sobre la cubeta nueva. Si aun así llega a
+ * limite-solicitudes.maximo-claves, se limpia en la misma solicitud como mucho
+ * una vez por intervalo de limpieza, y mientras tanto las claves nuevas
+ * comparten una cubeta de desbordamiento por regla: la memoria queda acotada
+ * aunque un ataque use muchas IPs, sin recorrer el mapa en cada solicitud.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LimiteSolicitudesService {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+
+    // Reemplazable en pruebas
+    private LongSupplier reloj = System::nanoTime;
+
+    private List<ReglaActiva> reglas = List.of();
+    private boolean habilitado;
+    private int maximoClaves;
+    private long intervaloLimpieza;
+
+    // Instante a partir del cual se permite otra limpieza dentro de una solicitud
+    private final AtomicLong proximaLimpiezaEnLinea = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() {
+        Binder binder = Binder.get(environment);
+        habilitado = binder.bind("limite-solicitudes.habilitado", Boolean.class).orElse(true);
+        maximoClaves = binder.bind("limite-solicitudes.maximo-claves", Integer.class).orElse(100_000);
+        intervaloLimpieza = Duration.ofMillis(
+                binder.bind("limite-solicitudes.limpieza-ms", Long.class).orElse(60_000L)).toNanos();
+        proximaLimpiezaEnLinea.set(reloj.getAsLong());
+
+        List<Regla> configuradas = binder.bind("limite-solicitudes.rutas", Bindable.listOf(Regla.class))
+                .orElse(List.of());
+        List<ReglaActiva> activas = new ArrayList<>(configuradas.size());
+        for (int i = 0; i < configuradas.size(); i++) {
+            Regla regla = configuradas.get(i);
+            if (regla.getPatron() == null || regla.getPorIpMinuto() <= 0) {
+                throw new IllegalArgumentException("limite-solicitudes.rutas[" + i + "] requiere patron y por-ip-minuto");
+            }
+            activas.add(new ReglaActiva(i, regla, PathPatternParser.defaultInstance.parse(regla.getPatron()),
+                    crearContador(regla.getPatron(), "ip"), crearContador(regla.getPatron(), "cuenta")));
+        }
+        reglas = List.copyOf(activas);
+
+        Gauge.builder("limite.solicitudes.claves", cubetas, Map::size)
+                .description("Claves (IP o cuenta) con cubeta en memoria")
+                .register(meterRegistry);
+        log.info("Límite de solicitudes {} con {} reglas", habilitado ? "activo" : "desactivado", reglas.size());
+    }
+
+    private Counter crearContador(String ruta, String clave) {
+        return Counter.builder("limite.solicitudes.rechazos")
+                .description("Solicitudes rechazadas con 429 por exceder el límite")
+                .tag("ruta", ruta)
+                .tag("clave", clave)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Primera regla que aplica a la solicitud, o null
+     */
+    public ReglaActiva regla(String metodo, String ruta) {
+        if (!habilitado) {
+            return null;
+        }
+        PathContainer camino = PathContainer.parsePath(ruta);
+        for (ReglaActiva regla : reglas) {
+            String metodoRegla = regla.regla().getMetodo();
+            if ((metodoRegla == null || metodoRegla.equalsIgnoreCase(metodo)) && regla.patron().matches(camino)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Consumir una ficha de la IP; retorna el tiempo a esperar (cero si se permite)
+     */
+    public Duration consumirPorIp(ReglaActiva regla, String ip) {
+        Duration espera = consumir(regla, "ip:" + ip, regla.regla().getPorIpMinuto(), regla.regla().getRafagaIp());
+        if (!espera.isZero()) {
+            regla.rechazosIp().increment();
+        }
+        return espera;
+    }
+
+    /**
+     * Consumir una ficha de la cuenta; retorna el tiempo a esperar (cero si se
+     * permite o si la regla no limita por cuenta)
+     */
+    public Duration consumirPorCuenta(ReglaActiva regla, String cuenta) {
+        if (cuenta == null || regla.regla().getPorCuentaMinuto() <= 0) {
+            return Duration.ZERO;
+        }
+        Duration espera = consumir(regla, "cuenta:" + cuenta.toLowerCase(),
+                regla.regla().getPorCuentaMinuto(), regla.regla().getRafagaCuenta());
+        if (!espera.isZero()) {
+            regla.rechazosCuenta().increment();
+        }
+        return espera;
+    }
+
+    /**
+     * Descartar las cubetas que ya volvieron a llenarse
+     */
+    @Scheduled(fixedDelayString = "${limite-solicitudes.limpieza-ms:60000}")
+    public void limpiar() {
+        long ahora = reloj.getAsLong();
+        for (String clave : cubetas.keySet()) {
+            // Se vuelve a comprobar dentro de computeIfPresent: entre recorrer el
+            // mapa y retirar, otro hilo pudo consumir una ficha
+            cubetas.computeIfPresent(clave, (k, cubeta) -> cubeta.retirarSiLlena(ahora) ? null : cubeta);
+        }
+    }
+
+    // Con el mapa lleno, una sola solicitud por intervalo lo recorre; las demás
+    // van directo a la cubeta de desbordamiento
+    private void limpiarEnLinea() {
+        long ahora = reloj.getAsLong();
+        long proxima = proximaLimpiezaEnLinea.get();
+        if (ahora - proxima >= 0 && proximaLimpiezaEnLinea.compareAndSet(proxima, ahora + intervaloLimpieza)) {
+            limpiar();
+        }
+    }
+
+    private Duration consumir(ReglaActiva regla, String clave, int porMinuto, int rafaga) {
+        String claveRegla = regla.indice() + "|" + clave;
+        long intervalo = 60_000_000_000L / porMinuto;
+        long tolerancia = intervalo * Math.max(0, rafaga - 1);
+        while (true) {
+            Cubeta cubeta = cubetas.get(claveRegla);
+            if (cubeta == null) {
+                if (cubetas.size() >= maximoClaves) {
+                    limpiarEnLinea();
+                }
+                long ahora = reloj.getAsLong();
+                cubeta = cubetas.size() < maximoClaves
+                        ? cubetas.computeIfAbsent(claveRegla, k -> new Cubeta(ahora))
+                        : cubetas.computeIfAbsent(regla.indice() + "|desbordamiento", k -> new Cubeta(ahora));
+            }
+            long espera = cubeta.consumir(reloj.getAsLong(), intervalo, tolerancia);
+            if (espera != Cubeta.RETIRADA) {
+                return Duration.ofNanos(espera);
+            }
+            // limpiar() la retiró después de leerla del mapa: repetir con la nueva
+        }
+    }
+
+    /**
+     * Cubeta de fichas en forma GCRA: "lleno" es el instante teórico en que
+     * se habrán repuesto todas las fichas consumidas
+     */
+    private static final class Cubeta {
+
+        // Valor de "lleno" de una cubeta retirada del mapa; consumir la rechaza
+        static final long RETIRADA = Long.MIN_VALUE;
+
+        private final AtomicLong lleno;
+
+        Cubeta(long ahora) {
+            lleno = new AtomicLong(ahora);
+        }
+
+        /**
+         * Retorna 0 si se concede la ficha, los nanosegundos a esperar, o
+         * RETIRADA si la cubeta ya no está en el mapa
+         */
+        long consumir(long ahora, long intervalo, long tolerancia) {
+            while (true) {
+                long actual = lleno.get();
+                if (actual == RETIRADA) {
+                    return RETIRADA;
+                }
+                long base = Math.max(actual, ahora);
+                long siguiente = base + intervalo;
+                long espera = siguiente - ahora - tolerancia - intervalo;
+                if (espera > 0) {
+                    return espera;
+                }
+                if (lleno.compareAndSet(actual, siguiente)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Marcar la cubeta como retirada si está llena; falla si mientras
+         * tanto se consumió una ficha
+         */
+        boolean retirarSiLlena(long ahora) {
+            long actual = lleno.get();
+            return actual != RETIRADA && actual - ahora <= 0 && lleno.compareAndSet(actual, RETIRADA);
+        }
+    }
+
+    /**
+     * Regla configurada en limite-solicitudes.rutas[i]
+     */
+    @Data
+    public static class Regla {
+        private String patron;
+        // null = cualquier método
+        private String metodo;
+        private int porIpMinuto;
+        private int rafagaIp = 1;
+        // 0 = sin límite por cuenta
+        private int porCuentaMinuto;
+        private int rafagaCuenta = 1;
+        // Campo del cuerpo JSON que identifica la cuenta
+        private String campoCuenta;
+    }
+
+    public record ReglaActiva(int indice, Regla regla, PathPattern patron, Counter rechazosIp, Counter rechazosCuenta) {}
+}
@@ -4,6 +4,7 @@ import com.udistrital.gestionacademica.modelo.Calificacion;
 import com.udistrital.gestionacademica.modelo.Logro;
 import com.udistrital.gestionacademica.repositorio.CalificacionRepository;
 import com.udistrital.gestionacademica.repositorio.LogroRepository;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,8 @@ public class LogroService {
 
     private final LogroRepository logroRepository;
     private final CalificacionRepository calificacionRepository;
+    private final CacheBoletinService cacheBoletinService;
+    private final DatosReferenciaService datosReferencia;
 
     /**
      * Obtener todos los logros de una categoría
@@ -53,6 +56,7 @@ public class LogroService {
         }
         
         Logro nuevoLogro = logroRepository.save(logro);
+        datosReferencia.invalidarAlConfirmar(Dominio.LOGROS);
         log.info("Logro creado exitosamente con ID: {}", nuevoLogro.getIdLogro());
         return nuevoLogro;
     }
@@ -83,6 +87,9 @@ public class LogroService {
         logroExistente.setCategoria(logroActualizado.getCategoria());
         
         Logro logroGuardado = logroRepository.save(logroExistente);
+        // El nombre y la descripción del logro aparecen en los boletines
+        cacheBoletinService.invalidarTodoAlConfirmar();
+        datosReferencia.invalidarAlConfirmar(Dominio.LOGROS);
         log.info("Logro actualizado exitosamente");
         return logroGuardado;
     }
@@ -106,6 +113,8 @@ public class LogroService {
         
         // Eliminar el logro
         logroRepository.delete(logro);
+        cacheBoletinService.invalidarTodoAlConfirmar();
+        datosReferencia.invalidarAlConfirmar(Dominio.LOGROS);
         
         log.info("Logro eliminado exitosamente");
     }
@@ -2,6 +2,7 @@ package com.udistrital.gestionacademica.servicio;
 
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -16,6 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -32,16 +34,28 @@ public class PdfGeneratorService {
      * @return Array de bytes del PDF generado
      */
     public byte[] generarListadoEstudiantes(Grupo grupo, List<Estudiante> estudiantes) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        generarListadoEstudiantes(grupo, estudiantes, baos);
+        log.info("PDF generado exitosamente. Tamaño: {} bytes", baos.size());
+        return baos.toByteArray();
+    }
+
+    /**
+     * Genera el listado de estudiantes de un grupo escribiéndolo directamente
+     * en la salida indicada (por ejemplo la respuesta HTTP), sin armar el PDF
+     * completo en memoria. La salida no se cierra.
+     *
+     * @param grupo Grupo del cual generar el listado
+     * @param estudiantes Lista de estudiantes del grupo
+     * @param salida Destino del PDF
+     */
+    public void generarListadoEstudiantes(Grupo grupo, List<Estudiante> estudiantes, OutputStream salida) {
         log.info("Generando PDF para grupo: {} - Grupo {}",
                 grupo.getGrado().getNombreGrado(), grupo.getNumeroGrupo());
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
         try {
             // Crear documento PDF
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
+            Document document = abrirDocumento(salida);
 
             // Colores personalizados
             DeviceRgb azulPrimario = new DeviceRgb(37, 99, 235);
@@ -181,10 +195,6 @@ public class PdfGeneratorService {
             // Cerrar documento
             document.close();
 
-            log.info("PDF generado exitosamente. Tamaño: {} bytes", baos.size());
-
-            return baos.toByteArray();
-
         } catch (Exception e) {
             log.error("Error al generar PDF", e);
             throw new RuntimeException("Error al generar el PDF: " + e.getMessage());
@@ -199,15 +209,27 @@ public class PdfGeneratorService {
      * @return Array de bytes del PDF generado
      */
     public byte[] generarBoletin(Estudiante estudiante, com.udistrital.gestionacademica.modelo.Periodo periodo, List<com.udistrital.gestionacademica.modelo.Calificacion> calificaciones) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        generarBoletin(estudiante, periodo, calificaciones, baos);
+        log.info("Boletín generado exitosamente. Tamaño: {} bytes", baos.size());
+        return baos.toByteArray();
+    }
+
+    /**
+     * Genera un boletín de calificaciones escribiéndolo directamente en la
+     * salida indicada. La salida no se cierra.
+     *
+     * @param estudiante Estudiante al que pertenece el boletín
+     * @param periodo Periodo académico
+     * @param calificaciones Lista de calificaciones
+     * @param salida Destino del PDF
+     */
+    public void generarBoletin(Estudiante estudiante, com.udistrital.gestionacademica.modelo.Periodo periodo, List<com.udistrital.gestionacademica.modelo.Calificacion> calificaciones, OutputStream salida) {
         log.info("Generando boletín para estudiante: {} - Periodo: {}",
                 estudiante.getPersona().getNombre(), periodo.getNombrePeriodo());
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
         try {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
+            Document document = abrirDocumento(salida);
             
             // Colores
             DeviceRgb azulInstitucional = new DeviceRgb(0, 51, 153); // Azul oscuro
@@ -330,12 +352,21 @@ public class PdfGeneratorService {
             
             document.close();
             
-            log.info("Boletín generado exitosamente. Tamaño: {} bytes", baos.size());
-            return baos.toByteArray();
-            
         } catch (Exception e) {
             log.error("Error al generar boletín", e);
             throw new RuntimeException("Error al generar el boletín: " + e.getMessage());
         }
     }
+
+    /**
+     * Documento que escribe en la salida a medida que se agregan elementos
+     * (immediateFlush) y que al cerrarse no cierra la salida, para poder
+     * escribir en la respuesta HTTP o en una entrada de un ZIP
+     */
+    private Document abrirDocumento(OutputStream salida) {
+        PdfWriter writer = new PdfWriter(salida);
+        writer.setCloseStream(false);
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        return new Document(pdfDoc, PageSize.A4, true);
+    }
 }
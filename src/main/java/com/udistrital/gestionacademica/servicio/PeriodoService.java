@@ -2,11 +2,13 @@ package com.udistrital.gestionacademica.servicio;
 
 import com.udistrital.gestionacademica.modelo.Periodo;
 import com.udistrital.gestionacademica.repositorio.PeriodoRepository;
+import com.udistrital.gestionacademica.servicio.DatosReferenciaService.Dominio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,8 @@ import java.util.Optional;
 public class PeriodoService {
 
     private final PeriodoRepository periodoRepository;
+    private final CalendarioPeriodosService calendarioPeriodos;
+    private final DatosReferenciaService datosReferencia;
 
     /**
      * Crear un nuevo período
@@ -34,7 +38,10 @@ public class PeriodoService {
             throw new RuntimeException("La fecha de inicio debe ser anterior a la fecha de fin");
         }
         
-        return periodoRepository.save(periodo);
+        Periodo periodoGuardado = periodoRepository.save(periodo);
+        calendarioPeriodos.invalidarAlConfirmar();
+        datosReferencia.invalidarAlConfirmar(Dominio.PERIODOS);
+        return periodoGuardado;
     }
 
     /**
@@ -61,7 +68,10 @@ public class PeriodoService {
             periodoExistente.setFechaFin(periodo.getFechaFin());
         }
         
-        return periodoRepository.save(periodoExistente);
+        Periodo periodoActualizado = periodoRepository.save(periodoExistente);
+        calendarioPeriodos.invalidarAlConfirmar();
+        datosReferencia.invalidarAlConfirmar(Dominio.PERIODOS);
+        return periodoActualizado;
     }
 
     /**
@@ -81,19 +91,27 @@ public class PeriodoService {
     }
 
     /**
-     * Obtener todos los períodos activos
+     * Obtener todos los períodos activos (desde el calendario en memoria)
      */
     public List<Periodo> obtenerPeriodosActivos() {
         log.info("Obteniendo periodos activos");
-        return periodoRepository.findAllActivos();
+        return calendarioPeriodos.periodosActivos();
     }
 
     /**
-     * Obtener el período actual
+     * Obtener el período actual (desde el calendario en memoria)
      */
     public Optional<Periodo> obtenerPeriodoActual() {
         log.info("Obteniendo periodo actual");
-        return periodoRepository.findPeriodoActual();
+        return calendarioPeriodos.periodoActual();
+    }
+
+    /**
+     * Obtener el período vigente en una fecha (desde el calendario en memoria)
+     */
+    public Optional<Periodo> obtenerPeriodoEnFecha(LocalDate fecha) {
+        log.info("Obteniendo periodo para la fecha: {}", fecha);
+        return calendarioPeriodos.periodoEnFecha(fecha);
     }
 
     /**
@@ -110,5 +128,7 @@ public class PeriodoService {
     public void eliminarPeriodo(Long idPeriodo) {
         log.info("Eliminando periodo: {}", idPeriodo);
         periodoRepository.deleteById(idPeriodo);
+        calendarioPeriodos.invalidarAlConfirmar();
+        datosReferencia.invalidarAlConfirmar(Dominio.PERIODOS);
     }
 }
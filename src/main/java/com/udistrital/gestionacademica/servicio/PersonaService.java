@@ -15,10 +15,13 @@ import org.springframework.transaction.annotation.Transactional;
 public class PersonaService {
 
     private final PersonaRepository personaRepository;
+    private final IndiceBusquedaPersonaService indiceBusquedaPersonaService;
 
     public Persona crearPersona(Persona persona) {
         log.info("Creando una nueva persona: {}", persona);
-        return personaRepository.save(persona);
+        Persona nuevaPersona = personaRepository.save(persona);
+        indiceBusquedaPersonaService.indexarAlConfirmar(nuevaPersona);
+        return nuevaPersona;
     }
     
 }
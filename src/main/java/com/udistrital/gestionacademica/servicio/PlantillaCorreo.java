@@ -0,0 +1,155 @@
+package com.udistrital.gestionacademica.servicio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantilla HTML compilada una sola vez en segmentos.
+ *
+ * Sintaxis: {{nombre}} marca un valor, que se escapa como HTML;
+ * {{{nombre}}} marca un fragmento HTML ya renderizado, que se agrega tal cual.
+ * Al compilar:
+ * - los valores constantes (datos de la institución) se sustituyen de una vez
+ *   y quedan fusionados con el texto fijo
+ * - cada valor variable se resuelve a su posición en la lista declarada, de
+ *   modo que renderizar es solo recorrer los segmentos y agregarlos a un
+ *   StringBuilder, sin volver a analizar el texto
+ * - un nombre desconocido falla al compilar (al iniciar la aplicación), no al enviar
+ */
+public final class PlantillaCorreo {
+
+    private static final String APERTURA = "{{";
+    private static final String CIERRE = "}}";
+    private static final String APERTURA_HTML = "{{{";
+    private static final String CIERRE_HTML = "}}}";
+
+    // literales[i] va antes de la variable variables[i]; el último literal cierra la plantilla
+    private final String[] literales;
+    private final int[] variables;
+    // true si el valor de la posición es HTML y no se escapa
+    private final boolean[] html;
+    private final int cantidadVariables;
+    private final int longitudFija;
+
+    private PlantillaCorreo(String[] literales, int[] variables, boolean[] html, int cantidadVariables) {
+        this.literales = literales;
+        this.variables = variables;
+        this.html = html;
+        this.cantidadVariables = cantidadVariables;
+        int longitud = 0;
+        for (String literal : literales) {
+            longitud += literal.length();
+        }
+        this.longitudFija = longitud;
+    }
+
+    /**
+     * Compilar una plantilla
+     *
+     * @param texto Contenido de la plantilla
+     * @param constantes Valores que no cambian entre envíos (se escapan al compilar)
+     * @param variables Nombres de los valores de cada envío, en el orden en que se pasan a renderizar
+     */
+    public static PlantillaCorreo compilar(String texto, Map<String, String> constantes, String... variables) {
+        List<String> literales = new ArrayList<>();
+        List<Integer> posiciones = new ArrayList<>();
+        List<Boolean> fragmentos = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int desde = 0;
+        while (true) {
+            int inicio = texto.indexOf(APERTURA, desde);
+            if (inicio < 0) {
+                literal.append(texto, desde, texto.length());
+                break;
+            }
+            boolean esHtml = texto.startsWith(APERTURA_HTML, inicio);
+            String apertura = esHtml ? APERTURA_HTML : APERTURA;
+            String cierre = esHtml ? CIERRE_HTML : CIERRE;
+            int fin = texto.indexOf(cierre, inicio + apertura.length());
+            if (fin < 0) {
+                throw new IllegalArgumentException("Marcador sin cerrar en la posición " + inicio);
+            }
+            literal.append(texto, desde, inicio);
+            String nombre = texto.substring(inicio + apertura.length(), fin).trim();
+            desde = fin + cierre.length();
+
+            if (!esHtml && constantes.containsKey(nombre)) {
+                escapar(constantes.get(nombre), literal);
+                continue;
+            }
+            int posicion = indiceDe(variables, nombre);
+            if (posicion < 0) {
+                throw new IllegalArgumentException("Valor desconocido en la plantilla: " + nombre);
+            }
+            literales.add(literal.toString());
+            posiciones.add(posicion);
+            fragmentos.add(esHtml);
+            literal.setLength(0);
+        }
+        literales.add(literal.toString());
+
+        int[] indices = new int[posiciones.size()];
+        boolean[] sinEscapar = new boolean[posiciones.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = posiciones.get(i);
+            sinEscapar[i] = fragmentos.get(i);
+        }
+        return new PlantillaCorreo(literales.toArray(new String[0]), indices, sinEscapar, variables.length);
+    }
+
+    /**
+     * Agregar la plantilla con los valores indicados (en el orden declarado al compilar)
+     */
+    public void renderizar(StringBuilder destino, String... valores) {
+        if (valores.length != cantidadVariables) {
+            throw new IllegalArgumentException("Se esperaban " + cantidadVariables + " valores y llegaron " + valores.length);
+        }
+        destino.ensureCapacity(destino.length() + longitudFija + 64 * variables.length);
+        for (int i = 0; i < variables.length; i++) {
+            destino.append(literales[i]);
+            if (html[i]) {
+                if (valores[variables[i]] != null) {
+                    destino.append(valores[variables[i]]);
+                }
+            } else {
+                escapar(valores[variables[i]], destino);
+            }
+        }
+        destino.append(literales[variables.length]);
+    }
+
+    /**
+     * Tamaño del texto fijo, para dimensionar el StringBuilder
+     */
+    public int getLongitudFija() {
+        return longitudFija;
+    }
+
+    private static int indiceDe(String[] nombres, String nombre) {
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i].equals(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void escapar(String valor, StringBuilder destino) {
+        if (valor == null) {
+            return;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '<' -> destino.append("&lt;");
+                case '>' -> destino.append("&gt;");
+                case '&' -> destino.append("&amp;");
+                case '"' -> destino.append("&quot;");
+                case '\'' -> destino.append("&#39;");
+                default -> destino.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.udistrital.gestionacademica.servicio;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Plantillas HTML de los correos (src/main/resources/correos).
+ *
+ * Se compilan una vez al iniciar, con los datos de la institución ya
+ * sustituidos. Cada envío solo agrega segmentos a un StringBuilder reutilizado
+ * por hilo; los formateadores de fecha y hora se crean una vez con el locale
+ * configurado (institucion.locale).
+ */
+@Service
+@Slf4j
+public class PlantillasCorreoService {
+
+    // Un StringBuilder que creció más que esto no se conserva para el siguiente envío
+    private static final int CAPACIDAD_MAXIMA_REUTILIZABLE = 64 * 1024;
+
+    @Value("${institucion.nombre:Institución Educativa}")
+    private String nombreInstitucion;
+
+    @Value("${institucion.direccion:}")
+    private String direccionInstitucion;
+
+    @Value("${institucion.telefono:}")
+    private String telefonoInstitucion;
+
+    @Value("${institucion.correo:}")
+    private String correoInstitucion;
+
+    @Value("${institucion.locale:es-CO}")
+    private String etiquetaLocale;
+
+    private PlantillaCorreo citacion;
+    private PlantillaCorreo entrevista;
+    private PlantillaCorreo resumenCitaciones;
+    private PlantillaCorreo filaCitacion;
+    private DateTimeFormatter formatoFecha;
+    private DateTimeFormatter formatoHora;
+
+    private final ThreadLocal<StringBuilder> constructores = new ThreadLocal<>();
+
+    @PostConstruct
+    void compilar() throws IOException {
+        Locale locale = Locale.forLanguageTag(etiquetaLocale);
+        formatoFecha = DateTimeFormatter.ofPattern("EEEE, dd 'de' MMMM 'de' yyyy", locale);
+        formatoHora = DateTimeFormatter.ofPattern("hh:mm a", locale);
+
+        Map<String, String> institucion = Map.of(
+                "institucion", nombreInstitucion,
+                "direccion", direccionInstitucion,
+                "telefono", telefonoInstitucion,
+                "correo", correoInstitucion);
+
+        citacion = PlantillaCorreo.compilar(leer("correos/citacion.html"), institucion,
+                "acudiente", "estudiante", "grupo", "fecha", "hora");
+        entrevista = PlantillaCorreo.compilar(leer("correos/entrevista.html"), institucion,
+                "acudiente", "estudiante", "fecha", "hora", "lugar");
+        resumenCitaciones = PlantillaCorreo.compilar(leer("correos/citacion_resumen.html"), institucion,
+                "acudiente", "citaciones");
+        filaCitacion = PlantillaCorreo.compilar(leer("correos/citacion_resumen_fila.html"), institucion,
+                "estudiante", "grupo", "fecha", "hora");
+
+        log.info("Plantillas de correo compiladas (locale {})", locale);
+    }
+
+    /**
+     * HTML del correo de citación
+     */
+    public String renderizarCitacion(String nombreAcudiente, String nombreEstudiante,
+                                     String nombreGrupo, LocalDateTime fechaCitacion) {
+        return renderizar(citacion,
+                nombreAcudiente,
+                nombreEstudiante,
+                nombreGrupo,
+                formatoFecha.format(fechaCitacion),
+                formatoHora.format(fechaCitacion));
+    }
+
+    /**
+     * HTML del resumen con varias citaciones para un mismo acudiente
+     */
+    public String renderizarResumenCitaciones(String nombreAcudiente, List<FilaCitacion> filas) {
+        StringBuilder citaciones = new StringBuilder(filas.size() * (filaCitacion.getLongitudFija() + 128));
+        for (FilaCitacion fila : filas) {
+            filaCitacion.renderizar(citaciones,
+                    fila.estudiante(),
+                    fila.grupo(),
+                    formatoFecha.format(fila.fecha()),
+                    formatoHora.format(fila.fecha()));
+        }
+        return renderizar(resumenCitaciones, nombreAcudiente, citaciones.toString());
+    }
+
+    /**
+     * HTML del correo de entrevista de preinscripción
+     */
+    public String renderizarEntrevista(String nombreAcudiente, String nombreEstudiante,
+                                       LocalDateTime fechaEntrevista, String lugarEntrevista) {
+        return renderizar(entrevista,
+                nombreAcudiente,
+                nombreEstudiante,
+                formatoFecha.format(fechaEntrevista),
+                formatoHora.format(fechaEntrevista),
+                lugarEntrevista);
+    }
+
+    private String renderizar(PlantillaCorreo plantilla, String... valores) {
+        StringBuilder constructor = constructores.get();
+        if (constructor == null || constructor.capacity() > CAPACIDAD_MAXIMA_REUTILIZABLE) {
+            constructor = new StringBuilder(plantilla.getLongitudFija() + 512);
+            constructores.set(constructor);
+        }
+        constructor.setLength(0);
+        plantilla.renderizar(constructor, valores);
+        return constructor.toString();
+    }
+
+    /**
+     * Una citación dentro del resumen
+     */
+    public record FilaCitacion(String estudiante, String grupo, LocalDateTime fecha) {}
+
+    private static String leer(String ruta) throws IOException {
+        try (InputStream entrada = new ClassPathResource(ruta).getInputStream()) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
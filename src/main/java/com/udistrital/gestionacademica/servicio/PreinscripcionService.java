@@ -1,6 +1,7 @@
 package com.udistrital.gestionacademica.servicio;
 
 import com.udistrital.gestionacademica.modelo.Acudiente;
+import com.udistrital.gestionacademica.modelo.Persona;
 import com.udistrital.gestionacademica.modelo.Preinscripcion;
 import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
 import com.udistrital.gestionacademica.repositorio.PreinscripcionRepository;
@@ -10,8 +11,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -22,6 +26,7 @@ public class PreinscripcionService {
     private final PreinscripcionRepository preinscripcionRepository;
     private final AcudienteRepository acudienteRepository;
     private final emailService emailService;
+    private final IndiceBusquedaPersonaService indiceBusquedaPersonaService;
 
     /**
      * Crear una nueva preinscripción
@@ -64,10 +69,7 @@ public class PreinscripcionService {
     public List<Preinscripcion> obtenerTodasLasPreinscripciones() {
         log.info("Obteniendo preinscripciones con estado Pendiente");
         
-        return preinscripcionRepository.findAll().stream()
-                .filter(p -> p.getAspirante() != null 
-                        && "Pendiente".equalsIgnoreCase(p.getAspirante().getEstado()))
-                .collect(Collectors.toList());
+        return preinscripcionRepository.findByEstadoAspirante("Pendiente");
     }
 
     /**
@@ -83,36 +85,43 @@ public class PreinscripcionService {
     }
 
     /**
-     * Buscar preinscripciones por texto (nombre de aspirante o acudiente)
+     * Buscar preinscripciones por texto (nombre de aspirante o acudiente).
+     * Si el texto es suficientemente largo se resuelve con el índice de
+     * trigramas y los resultados se ordenan por relevancia; si no, se filtra
+     * en la base de datos.
      */
     @Transactional(readOnly = true)
     public List<Preinscripcion> buscarPreinscripciones(String textoBusqueda) {
         log.info("Buscando preinscripciones con texto: {}", textoBusqueda);
 
-        List<Preinscripcion> todasLasPreinscripciones = preinscripcionRepository.findAll();
-
-        String textoLower = textoBusqueda.toLowerCase().trim();
-
-        return todasLasPreinscripciones.stream()
-                .filter(p -> {
-                    // Buscar en nombre del aspirante
-                    String nombreAspirante = "";
-                    if (p.getAspirante() != null && p.getAspirante().getPersona() != null) {
-                        nombreAspirante = (p.getAspirante().getPersona().getNombre() + " "
-                                + p.getAspirante().getPersona().getApellido()).toLowerCase();
-                    }
-
-                    // Buscar en nombre del acudiente
-                    String nombreAcudiente = "";
-                    if (p.getAcudiente() != null && p.getAcudiente().getPersona() != null) {
-                        nombreAcudiente = (p.getAcudiente().getPersona().getNombre() + " "
-                                + p.getAcudiente().getPersona().getApellido()).toLowerCase();
-                    }
-
-                    return nombreAspirante.contains(textoLower)
-                            || nombreAcudiente.contains(textoLower);
-                })
-                .collect(Collectors.toList());
+        String texto = textoBusqueda.trim();
+
+        if (!indiceBusquedaPersonaService.puedeResolver(texto)) {
+            return preinscripcionRepository.buscarPorNombre(texto);
+        }
+
+        List<Long> idsPersona = indiceBusquedaPersonaService.buscar(texto);
+        if (idsPersona.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> posicion = new HashMap<>();
+        for (int i = 0; i < idsPersona.size(); i++) {
+            posicion.put(idsPersona.get(i), i);
+        }
+
+        List<Preinscripcion> preinscripciones = new ArrayList<>(preinscripcionRepository.findByPersonas(idsPersona));
+        preinscripciones.sort(Comparator.comparingInt(p -> Math.min(
+                posicionDe(posicion, p.getAspirante() != null ? p.getAspirante().getPersona() : null),
+                posicionDe(posicion, p.getAcudiente() != null ? p.getAcudiente().getPersona() : null))));
+        return preinscripciones;
+    }
+
+    private int posicionDe(Map<Long, Integer> posicion, Persona persona) {
+        if (persona == null) {
+            return Integer.MAX_VALUE;
+        }
+        return posicion.getOrDefault(persona.getIdPersona(), Integer.MAX_VALUE);
     }
 
     /**
@@ -154,7 +163,7 @@ public class PreinscripcionService {
                     lugarEntrevista
                 );
                 
-                log.info("Correo de entrevista enviado a: {}", 
+                log.info("Correo de entrevista encolado para: {}", 
                         preinscripcion.getAcudiente().getCorreoElectronico());
             } else {
                 log.warn("No se pudo enviar correo: acudiente o correo no disponible");
@@ -213,11 +222,6 @@ public class PreinscripcionService {
     public List<Preinscripcion> obtenerPreinscripcionesPorEstado(String estado) {
         log.info("Obteniendo preinscripciones con estado: {}", estado);
 
-        List<Preinscripcion> todasLasPreinscripciones = preinscripcionRepository.findAll();
-
-        return todasLasPreinscripciones.stream()
-                .filter(p -> p.getAspirante() != null
-                && estado.equalsIgnoreCase(p.getAspirante().getEstado()))
-                .collect(Collectors.toList());
+        return preinscripcionRepository.findByEstadoAspirante(estado);
     }
 }
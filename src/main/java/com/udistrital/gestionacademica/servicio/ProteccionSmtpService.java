@@ -0,0 +1,266 @@
+package com.udistrital.gestionacademica.servicio;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Protección del servidor SMTP (cuota de envío de la cuenta de Gmail).
+ *
+ * - Limitador (token bucket): correo.smtp.limite.por-minuto correos por
+ *   minuto con ráfagas de hasta correo.smtp.limite.rafaga. Lo que no alcanza
+ *   token no se intenta enviar y vuelve a la bandeja.
+ * - Circuito: tras correo.smtp.circuito.fallos-para-abrir fallos seguidos de
+ *   sesión (conexión, autenticación, tiempo agotado) o respuestas de límite del
+ *   proveedor (421, 45x, 5.4.5), se abre y durante correo.smtp.circuito.espera-segundos
+ *   no se contacta al servidor: los envíos fallan de inmediato con
+ *   SmtpNoDisponibleException en lugar de esperar el tiempo de espera SMTP.
+ *   Al vencer la espera se deja pasar una sola sesión de prueba (semiabierto);
+ *   si funciona se cierra y si no, se vuelve a abrir.
+ *
+ * Métricas (actuator): correo.smtp.circuito.estado (0 cerrado, 1 semiabierto,
+ * 2 abierto), correo.smtp.tokens, correo.smtp.rechazos (motivo=limite|circuito)
+ * y correo.smtp.circuito.aperturas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProteccionSmtpService {
+
+    public enum EstadoCircuito { CERRADO, SEMIABIERTO, ABIERTO }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${correo.smtp.limite.por-minuto:60}")
+    private double correosPorMinuto;
+
+    @Value("${correo.smtp.limite.rafaga:20}")
+    private int rafaga;
+
+    @Value("${correo.smtp.circuito.fallos-para-abrir:3}")
+    private int fallosParaAbrir;
+
+    @Value("${correo.smtp.circuito.espera-segundos:120}")
+    private long esperaSegundos;
+
+    // Token bucket
+    private double tokens;
+    private long ultimaRecarga;
+
+    // Circuito
+    private EstadoCircuito estado = EstadoCircuito.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHasta;
+    private boolean pruebaEnCurso;
+
+    private Counter rechazosLimite;
+    private Counter rechazosCircuito;
+    private Counter aperturas;
+
+    @PostConstruct
+    void iniciar() {
+        tokens = rafaga;
+        ultimaRecarga = System.nanoTime();
+
+        rechazosLimite = contadorRechazos("limite");
+        rechazosCircuito = contadorRechazos("circuito");
+        aperturas = Counter.builder("correo.smtp.circuito.aperturas")
+                .description("Veces que se abrió el circuito del servidor SMTP")
+                .register(meterRegistry);
+        Gauge.builder("correo.smtp.circuito.estado", this, p -> p.getEstado().ordinal())
+                .description("Estado del circuito SMTP: 0 cerrado, 1 semiabierto, 2 abierto")
+                .register(meterRegistry);
+        Gauge.builder("correo.smtp.tokens", this, ProteccionSmtpService::tokensDisponibles)
+                .description("Envíos disponibles en el limitador SMTP")
+                .register(meterRegistry);
+    }
+
+    private Counter contadorRechazos(String motivo) {
+        return Counter.builder("correo.smtp.rechazos")
+                .description("Correos no intentados por el limitador o el circuito SMTP")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Autorizar una sesión SMTP de hasta "solicitados" correos. Retorna cuántos
+     * pueden enviarse; lanza SmtpNoDisponibleException si el circuito está
+     * abierto o no queda ningún token.
+     */
+    public synchronized int autorizar(int solicitados) {
+        long ahora = System.nanoTime();
+        if (estado == EstadoCircuito.ABIERTO) {
+            if (ahora - abiertoHasta < 0) {
+                rechazosCircuito.increment(solicitados);
+                throw new SmtpNoDisponibleException("Circuito SMTP abierto", restante(ahora));
+            }
+            estado = EstadoCircuito.SEMIABIERTO;
+            log.info("Circuito SMTP semiabierto: se prueba una sesión");
+        }
+        if (estado == EstadoCircuito.SEMIABIERTO) {
+            if (pruebaEnCurso) {
+                rechazosCircuito.increment(solicitados);
+                throw new SmtpNoDisponibleException("Circuito SMTP en prueba", Duration.ofSeconds(esperaSegundos));
+            }
+            // La sesión de prueba envía un solo correo
+            solicitados = 1;
+            pruebaEnCurso = true;
+        }
+
+        recargar(ahora);
+        int concedidos = (int) Math.min(solicitados, Math.floor(tokens));
+        if (concedidos == 0) {
+            pruebaEnCurso = false;
+            throw limiteAlcanzado(solicitados);
+        }
+        tokens -= concedidos;
+        return concedidos;
+    }
+
+    /**
+     * Error para los correos que no alcanzaron token; se reintentan cuando
+     * el limitador haya recargado al menos un envío
+     */
+    public SmtpNoDisponibleException limiteAlcanzado(int correos) {
+        rechazosLimite.increment(correos);
+        long nanosPorToken = (long) (60_000_000_000L / correosPorMinuto);
+        return new SmtpNoDisponibleException("Límite de envío SMTP alcanzado", Duration.ofNanos(nanosPorToken));
+    }
+
+    /**
+     * true si vale la pena intentar una sesión: el circuito no está abierto o
+     * ya venció su espera
+     */
+    public synchronized boolean disponible() {
+        return estado != EstadoCircuito.ABIERTO || System.nanoTime() - abiertoHasta >= 0;
+    }
+
+    /**
+     * La sesión autorizada no llegó a contactar al servidor
+     */
+    public synchronized void liberar() {
+        pruebaEnCurso = false;
+    }
+
+    /**
+     * La sesión llegó al servidor y este aceptó los correos
+     */
+    public synchronized void registrarExito() {
+        if (estado != EstadoCircuito.CERRADO) {
+            log.info("Circuito SMTP cerrado: el servidor volvió a aceptar correos");
+        }
+        estado = EstadoCircuito.CERRADO;
+        fallosSeguidos = 0;
+        pruebaEnCurso = false;
+    }
+
+    /**
+     * Registrar un error del envío. Solo cuentan para el circuito los errores
+     * del servidor o la conexión; una dirección inválida no.
+     */
+    public synchronized void registrarFallo(Exception error) {
+        if (!esFalloDelServidor(error)) {
+            if (estado == EstadoCircuito.SEMIABIERTO) {
+                // La prueba llegó al servidor: el fallo es del correo, no del proveedor
+                registrarExito();
+            }
+            return;
+        }
+        fallosSeguidos++;
+        pruebaEnCurso = false;
+        if (estado == EstadoCircuito.SEMIABIERTO || fallosSeguidos >= fallosParaAbrir) {
+            estado = EstadoCircuito.ABIERTO;
+            abiertoHasta = System.nanoTime() + Duration.ofSeconds(esperaSegundos).toNanos();
+            aperturas.increment();
+            log.warn("Circuito SMTP abierto por {} s tras {} fallos seguidos: {}",
+                    esperaSegundos, fallosSeguidos, error.getMessage());
+        }
+    }
+
+    public synchronized EstadoCircuito getEstado() {
+        return estado;
+    }
+
+    private synchronized double tokensDisponibles() {
+        recargar(System.nanoTime());
+        return tokens;
+    }
+
+    private void recargar(long ahora) {
+        double minutos = (ahora - ultimaRecarga) / 60_000_000_000.0;
+        tokens = Math.min(rafaga, tokens + minutos * correosPorMinuto);
+        ultimaRecarga = ahora;
+    }
+
+    private Duration restante(long ahora) {
+        return Duration.ofNanos(Math.max(0L, abiertoHasta - ahora));
+    }
+
+    /**
+     * Error de conexión, autenticación o tiempo agotado, o respuesta del
+     * proveedor que indica límite o indisponibilidad temporal
+     */
+    static boolean esFalloDelServidor(Exception error) {
+        if (error instanceof MailAuthenticationException) {
+            return true;
+        }
+        if (error instanceof MailSendException envio && envio.getFailedMessages().isEmpty()) {
+            // Falló la sesión (conexión), no un mensaje en particular
+            return true;
+        }
+        for (Throwable causa = error; causa != null; causa = siguiente(causa)) {
+            if (causa instanceof SMTPSendFailedException fallo && esLimite(fallo.getReturnCode(), fallo.getMessage())) {
+                return true;
+            }
+            if (causa instanceof SMTPAddressFailedException fallo && esLimite(fallo.getReturnCode(), fallo.getMessage())) {
+                return true;
+            }
+            if (causa instanceof java.io.IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esLimite(int codigo, String mensaje) {
+        return codigo == 421 || codigo == 450 || codigo == 451 || codigo == 452 || codigo == 454
+                || (mensaje != null && mensaje.contains("5.4.5"));
+    }
+
+    private static Throwable siguiente(Throwable causa) {
+        if (causa instanceof MessagingException mensaje && mensaje.getNextException() != null) {
+            return mensaje.getNextException();
+        }
+        return causa.getCause() != causa ? causa.getCause() : null;
+    }
+
+    /**
+     * El envío no se intentó: el servidor está limitado o el circuito abierto.
+     * Los correos vuelven a la bandeja sin gastar un intento.
+     */
+    public static class SmtpNoDisponibleException extends RuntimeException {
+
+        private final Duration reintentarEn;
+
+        public SmtpNoDisponibleException(String mensaje, Duration reintentarEn) {
+            super(mensaje);
+            this.reintentarEn = reintentarEn;
+        }
+
+        public Duration getReintentarEn() {
+            return reintentarEn;
+        }
+    }
+}
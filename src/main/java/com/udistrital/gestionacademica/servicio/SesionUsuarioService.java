@@ -0,0 +1,360 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.TokenUsuario;
+import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
+import com.udistrital.gestionacademica.repositorio.ProfesorRepository;
+import com.udistrital.gestionacademica.repositorio.TokenUsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usuario autenticado (principal) resuelto una sola vez.
+ *
+ * Al iniciar sesión se resuelve usuario -> persona -> profesor / acudiente y
+ * se emite un token firmado (HMAC-SHA256) que lleva esos datos. Verificar el
+ * token no consulta la base de datos ni depende de estado guardado al iniciar
+ * sesión: cualquier instancia con el mismo sesion.secreto lo acepta.
+ * FiltroTokenSesion lo verifica en cada petición y deja el principal en el
+ * contexto de seguridad.
+ *
+ * - Los tokens vencen a los sesion.ttl-minutos
+ * - Revocación con una lista en memoria: cerrarSesion revoca un token, y
+ *   editar, cambiarEstado y cambiarPassword (TokenUsuarioService) revocan al
+ *   confirmar los tokens del usuario emitidos antes del cambio. Cada entrada se
+ *   olvida cuando ya no puede quedar un token vigente al que afecte
+ * - Las peticiones que solo envían el nombre de usuario usan una caché por
+ *   nombre con el mismo TTL
+ *
+ * Formato del token: base64url(datos) "." base64url(firma), con
+ * datos = version|idSesion|idUsuario|idPersona|idProfesor|idAcudiente|emitido|expira|rol|nombreUsuario
+ * (emitido en milisegundos, expira en segundos). La revocación por usuario
+ * compara emitido con el momento de la invalidación, ambos en milisegundos.
+ *
+ * Sin sesion.secreto se usa una clave aleatoria por arranque y se advierte en
+ * el log: con varias instancias o tras un reinicio, una clave aleatoria
+ * invalida todos los tokens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SesionUsuarioService {
+
+    private static final String VERSION_TOKEN = "2";
+    private static final int CAMPOS_TOKEN = 10;
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODIFICADOR = Base64.getUrlDecoder();
+
+    private final TokenUsuarioRepository tokenUsuarioRepository;
+    private final ProfesorRepository profesorRepository;
+    private final AcudienteRepository acudienteRepository;
+
+    @Value("${sesion.secreto:}")
+    private String secretoConfigurado;
+
+    @Value("${sesion.ttl-minutos:480}")
+    private long ttlMinutos;
+
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    private SecretKeySpec clave;
+
+    // nombreUsuario -> principal, para las peticiones que solo envían el nombre de usuario
+    private final Map<String, SesionUsuario> porNombre = new ConcurrentHashMap<>();
+
+    // idUsuario -> momento de la última invalidación; los tokens emitidos antes se rechazan
+    private final Map<Long, Instant> invalidados = new ConcurrentHashMap<>();
+
+    // idSesion -> vencimiento de los tokens revocados al cerrar sesión
+    private final Map<String, Instant> revocados = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciarClave() {
+        byte[] secreto;
+        if (secretoConfigurado == null || secretoConfigurado.isBlank()) {
+            secreto = new byte[32];
+            aleatorio.nextBytes(secreto);
+            log.warn("*** sesion.secreto (variable SESION_SECRETO) no está configurado: se usa una clave aleatoria. "
+                    + "Las sesiones se pierden en cada reinicio y no sirven entre varias instancias. "
+                    + "Configure SESION_SECRETO en producción ***");
+        } else {
+            secreto = secretoConfigurado.getBytes(StandardCharsets.UTF_8);
+        }
+        clave = new SecretKeySpec(secreto, ALGORITMO);
+    }
+
+    /**
+     * Resolver el principal del usuario que acaba de autenticarse y emitir su token
+     */
+    @Transactional(readOnly = true)
+    public SesionIniciada iniciar(TokenUsuario usuario) {
+        byte[] bytesSesion = new byte[16];
+        aleatorio.nextBytes(bytesSesion);
+        String idSesion = BASE64.encodeToString(bytesSesion);
+
+        SesionUsuario sesion = resolver(usuario, idSesion);
+        porNombre.put(sesion.nombreUsuario(), sesion);
+
+        log.info("Sesión iniciada para {} (rol {}, profesor {}, acudiente {})",
+                sesion.nombreUsuario(), sesion.rol(), sesion.idProfesor(), sesion.idAcudiente());
+        return new SesionIniciada(sesion, firmar(sesion));
+    }
+
+    /**
+     * Principal del token, o vacío si la firma no coincide, venció o fue
+     * revocado. No consulta la base de datos.
+     */
+    public Optional<SesionUsuario> verificar(String token) {
+        SesionUsuario sesion = leer(token);
+        if (sesion == null || !vigente(sesion) || revocados.containsKey(sesion.idSesion())) {
+            return Optional.empty();
+        }
+        return Optional.of(sesion);
+    }
+
+    /**
+     * Revocar el token hasta su vencimiento (cierre de sesión)
+     */
+    public void cerrarSesion(String token) {
+        SesionUsuario sesion = leer(token);
+        if (sesion != null && sesion.expira().isAfter(Instant.now())) {
+            revocados.put(sesion.idSesion(), sesion.expira());
+            log.info("Sesión de {} cerrada", sesion.nombreUsuario());
+        }
+    }
+
+    /**
+     * Principal por nombre de usuario (peticiones que no envían token)
+     */
+    @Transactional(readOnly = true)
+    public SesionUsuario principal(String nombreUsuario) {
+        // Petición con token: el principal ya viene verificado en el contexto de seguridad
+        SesionUsuario autenticado = autenticado();
+        if (autenticado != null && autenticado.nombreUsuario().equals(nombreUsuario)) {
+            return autenticado;
+        }
+
+        SesionUsuario sesion = porNombre.get(nombreUsuario);
+        if (sesion != null && vigente(sesion)) {
+            return sesion;
+        }
+
+        TokenUsuario usuario = tokenUsuarioRepository.findByNombreUsuario(nombreUsuario)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + nombreUsuario));
+        sesion = resolver(usuario, null);
+        porNombre.put(nombreUsuario, sesion);
+        return sesion;
+    }
+
+    /**
+     * Nombre del usuario que hace la petición: el del token si se envió
+     * (lo verifica FiltroTokenSesion), si no el que declara la petición
+     */
+    public String usuarioSolicitante(String nombreDeclarado) {
+        SesionUsuario sesion = autenticado();
+        if (sesion == null) {
+            return nombreDeclarado;
+        }
+        if (nombreDeclarado != null && !nombreDeclarado.equals(sesion.nombreUsuario())) {
+            throw new IllegalArgumentException("La sesión no corresponde al usuario " + nombreDeclarado);
+        }
+        return sesion.nombreUsuario();
+    }
+
+    /**
+     * Principal de la petición actual si se autenticó con token
+     */
+    public SesionUsuario autenticado() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion != null && autenticacion.getPrincipal() instanceof SesionUsuario sesion ? sesion : null;
+    }
+
+    /**
+     * Revocar los tokens del usuario cuando se confirme la transacción actual
+     */
+    public void invalidarUsuarioAlConfirmar(Long idTokenUsuario) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarUsuario(idTokenUsuario);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidarUsuario(idTokenUsuario);
+            }
+        });
+    }
+
+    /**
+     * Quitar de memoria las entradas vencidas y las revocaciones que ya no
+     * pueden afectar a ningún token vigente
+     */
+    @Scheduled(fixedDelayString = "${sesion.limpieza-ms:600000}")
+    public void limpiar() {
+        Instant ahora = Instant.now();
+        porNombre.values().removeIf(sesion -> !sesion.expira().isAfter(ahora));
+        revocados.values().removeIf(expira -> !expira.isAfter(ahora));
+        Instant limite = ahora.minus(ttl());
+        invalidados.values().removeIf(momento -> momento.isBefore(limite));
+    }
+
+    private void invalidarUsuario(Long idTokenUsuario) {
+        invalidados.put(idTokenUsuario, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        porNombre.values().removeIf(sesion -> sesion.idTokenUsuario().equals(idTokenUsuario));
+        log.info("Sesiones del usuario {} invalidadas", idTokenUsuario);
+    }
+
+    private SesionUsuario resolver(TokenUsuario usuario, String idSesion) {
+        Long idPersona = usuario.getPersona() != null ? usuario.getPersona().getIdPersona() : null;
+        Long idProfesor = null;
+        Long idAcudiente = null;
+        if (idPersona != null) {
+            idProfesor = profesorRepository.findByPersona(usuario.getPersona())
+                    .map(profesor -> profesor.getIdProfesor())
+                    .orElse(null);
+            idAcudiente = acudienteRepository.findByPersona(idPersona)
+                    .map(acudiente -> acudiente.getIdAcudiente())
+                    .orElse(null);
+        }
+        // Con la misma precisión que viaja en el token
+        Instant emitido = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant expira = emitido.plus(ttl()).truncatedTo(ChronoUnit.SECONDS);
+        return new SesionUsuario(idSesion, usuario.getIdTokenUsuario(), usuario.getNombreUsuario(),
+                usuario.getRol(), idPersona, idProfesor, idAcudiente, emitido, expira);
+    }
+
+    private boolean vigente(SesionUsuario sesion) {
+        Instant ahora = Instant.now();
+        if (!sesion.expira().isAfter(ahora)) {
+            return false;
+        }
+        Instant invalidado = invalidados.get(sesion.idTokenUsuario());
+        return invalidado == null || sesion.emitido().isAfter(invalidado);
+    }
+
+    private String firmar(SesionUsuario sesion) {
+        String datos = String.join("|",
+                VERSION_TOKEN,
+                sesion.idSesion(),
+                String.valueOf(sesion.idTokenUsuario()),
+                texto(sesion.idPersona()),
+                texto(sesion.idProfesor()),
+                texto(sesion.idAcudiente()),
+                String.valueOf(sesion.emitido().toEpochMilli()),
+                String.valueOf(sesion.expira().getEpochSecond()),
+                sesion.rol() != null ? sesion.rol() : "",
+                sesion.nombreUsuario());
+        byte[] bytesDatos = datos.getBytes(StandardCharsets.UTF_8);
+        return BASE64.encodeToString(bytesDatos) + "." + BASE64.encodeToString(hmac(bytesDatos));
+    }
+
+    /**
+     * Datos del token si la firma es válida; null si no
+     */
+    private SesionUsuario leer(String token) {
+        if (token == null) {
+            return null;
+        }
+        int punto = token.indexOf('.');
+        if (punto <= 0 || punto == token.length() - 1) {
+            return null;
+        }
+        try {
+            byte[] bytesDatos = BASE64_DECODIFICADOR.decode(token.substring(0, punto));
+            byte[] firma = BASE64_DECODIFICADOR.decode(token.substring(punto + 1));
+            if (!MessageDigest.isEqual(firma, hmac(bytesDatos))) {
+                return null;
+            }
+            String[] campos = new String(bytesDatos, StandardCharsets.UTF_8).split("\\|", CAMPOS_TOKEN);
+            if (campos.length != CAMPOS_TOKEN || !VERSION_TOKEN.equals(campos[0])) {
+                return null;
+            }
+            return new SesionUsuario(
+                    campos[1],
+                    Long.valueOf(campos[2]),
+                    campos[9],
+                    campos[8].isEmpty() ? null : campos[8],
+                    numero(campos[3]),
+                    numero(campos[4]),
+                    numero(campos[5]),
+                    Instant.ofEpochMilli(Long.parseLong(campos[6])),
+                    Instant.ofEpochSecond(Long.parseLong(campos[7])));
+        } catch (IllegalArgumentException e) {
+            // Base64 o números mal formados
+            return null;
+        }
+    }
+
+    private byte[] hmac(byte[] datos) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac.doFinal(datos);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar el token de sesión", e);
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofMinutes(ttlMinutos);
+    }
+
+    /**
+     * Token de la cabecera Authorization (con o sin el prefijo Bearer)
+     */
+    public static String quitarPrefijo(String autorizacion) {
+        String valor = autorizacion.trim();
+        return valor.regionMatches(true, 0, "Bearer ", 0, 7) ? valor.substring(7).trim() : valor;
+    }
+
+    private static String texto(Long valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    private static Long numero(String valor) {
+        return valor.isEmpty() ? null : Long.valueOf(valor);
+    }
+
+    /**
+     * Usuario autenticado con sus perfiles ya resueltos. idSesion es null
+     * cuando se resolvió por nombre de usuario y no por un inicio de sesión.
+     */
+    public record SesionUsuario(
+            String idSesion,
+            Long idTokenUsuario,
+            String nombreUsuario,
+            String rol,
+            Long idPersona,
+            Long idProfesor,
+            Long idAcudiente,
+            Instant emitido,
+            Instant expira) {}
+
+    /**
+     * Resultado del inicio de sesión: el principal y su token firmado
+     */
+    public record SesionIniciada(SesionUsuario sesion, String token) {}
+}
@@ -1,16 +1,28 @@
 package com.udistrital.gestionacademica.servicio;
 
+import com.udistrital.gestionacademica.dto.LecturaMapper;
+import com.udistrital.gestionacademica.dto.SesionDto;
+import com.udistrital.gestionacademica.dto.UsuarioResumenDto;
 import com.udistrital.gestionacademica.modelo.Persona;
 import com.udistrital.gestionacademica.modelo.Profesor; // Importar Profesor
 import com.udistrital.gestionacademica.modelo.TokenUsuario;
 import com.udistrital.gestionacademica.repositorio.PersonaRepository;
 import com.udistrital.gestionacademica.repositorio.ProfesorRepository; // Importar ProfesorRepository
 import com.udistrital.gestionacademica.repositorio.TokenUsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Transactional
@@ -18,15 +30,54 @@ import java.util.List;
 @Slf4j
 public class TokenUsuarioService {
 
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+
+    // Campos de orden permitidos -> ruta en la consulta de buscarResumen
+    private static final Map<String, String> ORDEN_USUARIOS = Map.of(
+            "nombreUsuario", "t.nombreUsuario",
+            "rol", "t.rol",
+            "estado", "t.estado",
+            "nombre", "p.nombre",
+            "apellido", "p.apellido");
+
     private final TokenUsuarioRepository tokenUsuarioRepository;
     private final PersonaRepository personaRepository;
     private final ProfesorRepository profesorRepository;
-
+    private final IndiceBusquedaPersonaService indiceBusquedaPersonaService;
+    private final SesionUsuarioService sesionUsuarioService;
+    private final CredencialesService credencialesService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Validar credenciales sin transacción: la lectura del usuario y la
+     * migración del hash son transacciones cortas del repositorio, y el cálculo
+     * BCrypt (que puede esperar en la cola de ejecutorHash) ocurre entre ambas
+     * sin retener una conexión
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TokenUsuario validarTokenUsuario(String nombreUsuario, String contrasena) {
+        long inicio = System.nanoTime();
+        String resultado = "rechazado";
+        try {
+            TokenUsuario usuarioEncontrado = verificarCredenciales(nombreUsuario, contrasena);
+            resultado = "correcto";
+            return usuarioEncontrado;
+        } catch (IllegalArgumentException e) {
+            resultado = e.getMessage().contains("inhabilitado") ? "inhabilitado" : "incorrecto";
+            throw e;
+        } finally {
+            tiempoLogin(resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
 
-        var usuario = tokenUsuarioRepository.findByNombreUsuarioAndContrasena(nombreUsuario, contrasena);
+    private TokenUsuario verificarCredenciales(String nombreUsuario, String contrasena) {
+        var usuario = tokenUsuarioRepository.findConPersona(nombreUsuario);
+        // Un usuario inexistente también paga un BCrypt: el tiempo de respuesta no revela qué usuarios existen
+        CredencialesService.Verificacion verificacion = usuario.isPresent()
+                ? credencialesService.verificar(usuario.get().getIdTokenUsuario(), usuario.get().getContrasena(), contrasena)
+                : credencialesService.verificarInexistente(contrasena);
 
-        if (usuario.isEmpty()) {
+        if (!verificacion.correcta()) {
             log.warn("Usuario '{}' no encontrado o contraseña incorrecta", nombreUsuario);
             throw new IllegalArgumentException("Token inválido o no encontrado");
         }
@@ -38,16 +89,95 @@ public class TokenUsuarioService {
             throw new IllegalArgumentException("Usuario inhabilitado");
         }
 
+        if (verificacion == CredencialesService.Verificacion.CORRECTA_MIGRAR) {
+            // Texto plano o costo anterior: se guarda el hash nuevo en una escritura corta
+            String hash = credencialesService.codificar(contrasena);
+            if (tokenUsuarioRepository.migrarContrasena(
+                    usuarioEncontrado.getIdTokenUsuario(), usuarioEncontrado.getContrasena(), hash) == 1) {
+                usuarioEncontrado.setContrasena(hash);
+                credencialesService.recordarVerificada(usuarioEncontrado.getIdTokenUsuario(), hash, contrasena);
+                log.info("Contraseña del usuario {} migrada a BCrypt", nombreUsuario);
+            } else {
+                log.info("La contraseña del usuario {} cambió durante el inicio de sesión: no se migra", nombreUsuario);
+            }
+        }
+
         log.info("Usuario validado correctamente: {}", nombreUsuario);
         return usuarioEncontrado;
     }
 
+    /**
+     * Duración del inicio de sesión por resultado (percentiles en actuator)
+     */
+    private Timer tiempoLogin(String resultado) {
+        return Timer.builder("login.duracion")
+                .description("Duración de la validación de credenciales en el inicio de sesión")
+                .tag("resultado", resultado)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validar credenciales y abrir sesión: roles, profesor y acudiente se
+     * resuelven aquí una sola vez y viajan en el token firmado
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SesionDto iniciarSesion(String nombreUsuario, String contrasena) {
+        TokenUsuario usuario = validarTokenUsuario(nombreUsuario, contrasena);
+        SesionUsuarioService.SesionIniciada iniciada = sesionUsuarioService.iniciar(usuario);
+        SesionUsuarioService.SesionUsuario sesion = iniciada.sesion();
+        return new SesionDto(
+                sesion.idTokenUsuario(),
+                sesion.nombreUsuario(),
+                sesion.rol(),
+                LecturaMapper.persona(usuario.getPersona()),
+                sesion.idProfesor(),
+                sesion.idAcudiente(),
+                iniciada.token(),
+                sesion.expira());
+    }
+
     // Obtener todos los usuarios
     public List<TokenUsuario> obtenerTodos() {
         log.info("Obteniendo todos los usuarios");
         return tokenUsuarioRepository.findAll();
     }
 
+    /**
+     * Listado paginado para administración, resuelto en SQL como proyección
+     * (sin contraseña ni persona completa).
+     *
+     * @param rol      Rol exacto (opcional)
+     * @param busqueda Prefijo de nombre de usuario, nombre o apellido, sin
+     *                 distinguir mayúsculas (opcional)
+     * @param orden    nombreUsuario, rol, estado, nombre o apellido
+     */
+    @Transactional(readOnly = true)
+    public Page<UsuarioResumenDto> buscarUsuarios(String rol, String busqueda, String orden, boolean descendente,
+                                                  int pagina, int tamano) {
+        String campo = ORDEN_USUARIOS.getOrDefault(orden != null ? orden : "", "t.nombreUsuario");
+        Sort.Direction direccion = descendente ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(
+                Math.max(pagina, 0),
+                Math.min(Math.max(tamano, 1), TAMANO_MAXIMO_PAGINA),
+                Sort.by(new Sort.Order(direccion, campo), Sort.Order.asc("t.idTokenUsuario")));
+
+        String filtroRol = rol != null && !rol.isBlank() ? rol.trim() : null;
+        String prefijo = busqueda != null && !busqueda.isBlank()
+                ? escaparLike(busqueda.trim().toLowerCase()) + "%"
+                : null;
+
+        Page<UsuarioResumenDto> usuarios = tokenUsuarioRepository.buscarResumen(filtroRol, prefijo, pageable);
+        log.info("Listado de usuarios: página {} de {}, total {}",
+                usuarios.getNumber(), usuarios.getTotalPages(), usuarios.getTotalElements());
+        return usuarios;
+    }
+
+    private static String escaparLike(String texto) {
+        // '!' es el carácter de escape de buscarResumen
+        return texto.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     // Obtener usuario por ID
     public TokenUsuario obtenerPorId(Long id) {
         log.info("Obteniendo usuario con ID: {}", id);
@@ -77,6 +207,7 @@ public class TokenUsuarioService {
                 
                 log.info("La persona con documento {} no existe. Creando nueva persona...", documentoBusqueda);
                 personaReal = personaRepository.save(usuario.getPersona());
+                indiceBusquedaPersonaService.indexarAlConfirmar(personaReal);
                 
             } else {
                 throw new IllegalArgumentException("No existe una persona con el documento: " + documentoBusqueda + 
@@ -92,6 +223,7 @@ public class TokenUsuarioService {
 
         // 6. Guardamos el usuario
         log.info("Creando usuario '{}' para la persona con documento {}", usuario.getNombreUsuario(), documentoBusqueda);
+        usuario.setContrasena(credencialesService.codificar(usuario.getContrasena()));
         TokenUsuario nuevoUsuario = tokenUsuarioRepository.save(usuario);
         
         // 7. Si el rol es Profesor, crear la entidad Profesor asociada
@@ -126,7 +258,8 @@ public class TokenUsuarioService {
         }
 
         if (tokenUsuarioActualizado.getContrasena() != null && !tokenUsuarioActualizado.getContrasena().isEmpty()) {
-            usuario.setContrasena(tokenUsuarioActualizado.getContrasena());
+            usuario.setContrasena(credencialesService.codificar(tokenUsuarioActualizado.getContrasena()));
+            credencialesService.olvidar(id);
         }
 
         if (tokenUsuarioActualizado.getEstado() != null) {
@@ -138,6 +271,7 @@ public class TokenUsuarioService {
         }
 
         TokenUsuario usuarioActualizado = tokenUsuarioRepository.save(usuario);
+        sesionUsuarioService.invalidarUsuarioAlConfirmar(id);
         log.info("Usuario editado exitosamente con ID: {}", id);
         return usuarioActualizado;
     }
@@ -151,6 +285,7 @@ public class TokenUsuarioService {
 
         usuario.setEstado(!usuario.getEstado());
         TokenUsuario usuarioActualizado = tokenUsuarioRepository.save(usuario);
+        sesionUsuarioService.invalidarUsuarioAlConfirmar(id);
         log.info("Estado del usuario {} cambiado a: {}", id, usuarioActualizado.getEstado());
         return usuarioActualizado;
     }
@@ -162,8 +297,10 @@ public class TokenUsuarioService {
         TokenUsuario usuario = tokenUsuarioRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con ID: " + id));
 
-        usuario.setContrasena(nuevaContrasena);
+        usuario.setContrasena(credencialesService.codificar(nuevaContrasena));
+        credencialesService.olvidar(id);
         TokenUsuario usuarioActualizado = tokenUsuarioRepository.save(usuario);
+        sesionUsuarioService.invalidarUsuarioAlConfirmar(id);
         log.info("Contraseña del usuario {} cambiada exitosamente", id);
         return usuarioActualizado;
     }
@@ -2,76 +2,316 @@ package com.udistrital.gestionacademica.servicio;
 
 import com.udistrital.gestionacademica.modelo.Acudiente;
 import com.udistrital.gestionacademica.modelo.Citacion;
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
 import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
+import com.udistrital.gestionacademica.repositorio.CitacionRepository;
+import com.udistrital.gestionacademica.repositorio.CorreoSalienteRepository;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class emailService {
 
+    public static final String TIPO_CITACION = "CITACION";
+    public static final String TIPO_ENTREVISTA = "ENTREVISTA";
+    private static final String CLAVE_RESUMEN_CITACIONES = "CITACIONES:";
+
     private final JavaMailSender mailSender;
+    private final CorreoSalienteRepository correoSalienteRepository;
+    private final PlantillasCorreoService plantillasCorreoService;
+    private final CitacionRepository citacionRepository;
+    private final AcudienteRepository acudienteRepository;
+    private final ProteccionSmtpService proteccionSmtp;
+
+    // Ventana para agrupar las citaciones de un acudiente en un solo correo; 0 = un correo por citación
+    @Value("${correo.citaciones.resumen-segundos:60}")
+    private long ventanaResumenSegundos;
 
     @Value("${institucion.nombre:Institución Educativa}")
     private String nombreInstitucion;
 
-    @Value("${institucion.direccion:}")
-    private String direccionInstitucion;
-
-    @Value("${institucion.telefono:}")
-    private String telefonoInstitucion;
-
-    @Value("${institucion.correo:}")
-    private String correoInstitucion;
-
     @Value("${spring.mail.username}")
     private String correoRemitente;
 
     /**
-     * Enviar correo de citación de forma asíncrona
+     * Encolar el correo de citación en la bandeja de salida.
+     * Debe llamarse dentro de la transacción que guarda la citación: el correo
+     * se confirma o se descarta junto con ella, y lo envía DespachadorCorreoService.
      */
-    @Async
+    @Transactional(propagation = Propagation.MANDATORY)
     public void enviarCorreoCitacion(Citacion citacion) {
-        System.out.println("Enviando correo de citación de forma asíncrona...");
-        try {
-            Estudiante estudiante = citacion.getEstudiante();
-            Acudiente acudiente = citacion.getAcudiente();
+        Estudiante estudiante = citacion.getEstudiante();
+        Acudiente acudiente = citacion.getAcudiente();
+
+        if (acudiente == null || acudiente.getCorreoElectronico() == null) {
+            log.warn("No se puede enviar correo: acudiente o correo no disponible para estudiante {}",
+                    estudiante.getCodigoEstudiante());
+            return;
+        }
+
+        String correoDestino = acudiente.getCorreoElectronico();
+        String asunto = "Citación - " + nombreInstitucion;
+        String contenidoHtml = construirCorreoCitacion(citacion);
 
+        encolar(TIPO_CITACION, correoDestino, asunto, contenidoHtml);
+        log.info("Correo de citación encolado para: {}", correoDestino);
+    }
+
+    /**
+     * Encolar los correos de varias citaciones con una inserción por lotes.
+     * Igual que enviarCorreoCitacion, debe llamarse dentro de la transacción
+     * que guarda las citaciones.
+     *
+     * Con correo.citaciones.resumen-segundos > 0 las citaciones se agrupan por
+     * acudiente: un acudiente con varios hijos citados recibe un solo correo.
+     * Si ya tiene un resumen pendiente dentro de su ventana, las nuevas
+     * citaciones se agregan a ese resumen; si no, se crea uno que sale al
+     * cerrar la ventana (que no se extiende al agregar). Retorna cuántos
+     * correos se encolaron o actualizaron.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int enviarCorreosCitacion(List<Citacion> citaciones) {
+        String asunto = "Citación - " + nombreInstitucion;
+
+        Map<Long, List<Citacion>> porAcudiente = new LinkedHashMap<>();
+        for (Citacion citacion : citaciones) {
+            Acudiente acudiente = citacion.getAcudiente();
             if (acudiente == null || acudiente.getCorreoElectronico() == null) {
                 log.warn("No se puede enviar correo: acudiente o correo no disponible para estudiante {}",
-                        estudiante.getCodigoEstudiante());
-                return;
+                        citacion.getEstudiante().getCodigoEstudiante());
+                continue;
+            }
+            porAcudiente.computeIfAbsent(acudiente.getIdAcudiente(), id -> new ArrayList<>()).add(citacion);
+        }
+
+        if (ventanaResumenSegundos <= 0) {
+            List<CorreoSaliente> correos = new ArrayList<>(citaciones.size());
+            porAcudiente.values().forEach(grupo -> grupo.forEach(citacion ->
+                    correos.add(nuevoCorreo(TIPO_CITACION, citacion.getAcudiente().getCorreoElectronico(),
+                            asunto, construirCorreoCitacion(citacion)))));
+            correoSalienteRepository.saveAll(correos);
+            return correos.size();
+        }
+
+        if (porAcudiente.isEmpty()) {
+            return 0;
+        }
+
+        // Bloquear primero a los acudientes: bloquear solo los resúmenes abiertos no
+        // basta, porque si aún no existe ninguno dos transacciones crearían uno cada una.
+        // La segunda espera aquí y, tras el commit de la primera, encuentra su resumen
+        acudienteRepository.bloquear(porAcudiente.keySet());
+
+        // Resúmenes abiertos de estos acudientes
+        LocalDateTime ahora = LocalDateTime.now();
+        List<String> claves = porAcudiente.keySet().stream().map(emailService::claveResumen).toList();
+        Map<String, CorreoSaliente> abiertos = new HashMap<>();
+        Set<Long> idsPrevios = new HashSet<>();
+        for (CorreoSaliente correo : correoSalienteRepository.findResumenesAbiertos(claves, ahora)) {
+            abiertos.putIfAbsent(correo.getClaveAgrupacion(), correo);
+            idsPrevios.addAll(leerReferencias(correo.getReferencias()));
+        }
+        Map<Long, Citacion> previas = new HashMap<>();
+        if (!idsPrevios.isEmpty()) {
+            citacionRepository.findConDetalleEnLista(idsPrevios)
+                    .forEach(citacion -> previas.put(citacion.getIdCitacion(), citacion));
+        }
+
+        List<CorreoSaliente> correos = new ArrayList<>(porAcudiente.size());
+        porAcudiente.forEach((idAcudiente, nuevas) -> {
+            String clave = claveResumen(idAcudiente);
+            CorreoSaliente correo = abiertos.get(clave);
+            List<Citacion> incluidas = new ArrayList<>();
+            if (correo == null) {
+                correo = nuevoCorreo(TIPO_CITACION, null, null, null);
+                correo.setClaveAgrupacion(clave);
+                correo.setProximoIntento(ahora.plusSeconds(ventanaResumenSegundos));
+            } else {
+                for (Long idCitacion : leerReferencias(correo.getReferencias())) {
+                    Citacion previa = previas.get(idCitacion);
+                    if (previa != null) {
+                        incluidas.add(previa);
+                    }
+                }
             }
+            incluidas.addAll(nuevas);
+
+            armarResumen(correo, nuevas.get(0).getAcudiente(), incluidas);
+            correos.add(correo);
+        });
+
+        correoSalienteRepository.saveAll(correos);
+        return correos.size();
+    }
 
-            String correoDestino = acudiente.getCorreoElectronico();
-            String asunto = "Citación - " + nombreInstitucion;
-            String contenidoHtml = construirCorreoCitacion(citacion);
+    /**
+     * Quitar una citación que se va a eliminar del resumen pendiente de su
+     * acudiente: el resumen se vuelve a armar con las demás, o se borra si no
+     * queda ninguna. Debe llamarse dentro de la transacción que la elimina.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retirarDeResumen(Citacion citacion) {
+        Acudiente acudiente = citacion.getAcudiente();
+        if (acudiente == null) {
+            return;
+        }
 
-            System.out.println("Contenido del correo: " + correoDestino);
-            enviarCorreoHtml(correoDestino, asunto, contenidoHtml);
+        // Mismo orden de bloqueo que enviarCorreosCitacion: primero el acudiente
+        acudienteRepository.bloquear(List.of(acudiente.getIdAcudiente()));
 
-            log.info("Correo de citación enviado exitosamente a: {}", correoDestino);
+        for (CorreoSaliente correo : correoSalienteRepository.findResumenesAbiertos(
+                List.of(claveResumen(acudiente.getIdAcudiente())), LocalDateTime.now())) {
+            List<Long> referencias = leerReferencias(correo.getReferencias());
+            if (!referencias.contains(citacion.getIdCitacion())) {
+                continue;
+            }
 
-        } catch (Exception e) {
-            log.error("Error al enviar correo de citación: {}", e.getMessage(), e);
+            List<Long> restantes = referencias.stream()
+                    .filter(id -> !id.equals(citacion.getIdCitacion()))
+                    .toList();
+            Map<Long, Citacion> porId = new HashMap<>();
+            if (!restantes.isEmpty()) {
+                citacionRepository.findConDetalleEnLista(restantes)
+                        .forEach(restante -> porId.put(restante.getIdCitacion(), restante));
+            }
+            List<Citacion> incluidas = restantes.stream().map(porId::get).filter(Objects::nonNull).toList();
+
+            if (incluidas.isEmpty()) {
+                correoSalienteRepository.delete(correo);
+                log.info("Resumen de citaciones {} descartado: no le quedan citaciones", correo.getIdCorreo());
+            } else {
+                armarResumen(correo, incluidas.get(0).getAcudiente(), incluidas);
+                correoSalienteRepository.save(correo);
+                log.info("Citación {} retirada del resumen {}", citacion.getIdCitacion(), correo.getIdCorreo());
+            }
         }
     }
 
+    // Destinatario, asunto, contenido y referencias de un resumen con estas citaciones
+    private void armarResumen(CorreoSaliente correo, Acudiente acudiente, List<Citacion> incluidas) {
+        correo.setDestinatario(acudiente.getCorreoElectronico());
+        if (incluidas.size() == 1) {
+            correo.setAsunto("Citación - " + nombreInstitucion);
+            correo.setContenidoHtml(construirCorreoCitacion(incluidas.get(0)));
+        } else {
+            correo.setAsunto("Citaciones (" + incluidas.size() + ") - " + nombreInstitucion);
+            correo.setContenidoHtml(construirResumenCitaciones(acudiente, incluidas));
+        }
+        correo.setReferencias(incluidas.stream()
+                .map(citacion -> String.valueOf(citacion.getIdCitacion()))
+                .collect(Collectors.joining(",")));
+    }
+
     /**
-     * Enviar correo HTML
+     * Enviar varios correos de la bandeja de salida por una sola sesión SMTP:
+     * un connect, STARTTLS y autenticación para todo el lote en lugar de uno
+     * por correo. Retorna idCorreo -> error de los que fallaron; los demás se
+     * entregaron al servidor.
+     *
+     * Pasa por ProteccionSmtpService: solo se envían los correos que tengan
+     * token, y si el circuito está abierto no se contacta al servidor. Los
+     * correos no intentados fallan con SmtpNoDisponibleException.
      */
-    private void enviarCorreoHtml(String destinatario, String asunto, String contenidoHtml)
+    public Map<Long, Exception> enviarLote(List<CorreoSaliente> correos) {
+        Map<Long, Exception> fallidos = new HashMap<>();
+        Map<MimeMessage, Long> idsPorMensaje = new IdentityHashMap<>();
+        List<MimeMessage> mensajes = new ArrayList<>(correos.size());
+
+        int autorizados;
+        try {
+            autorizados = proteccionSmtp.autorizar(correos.size());
+        } catch (ProteccionSmtpService.SmtpNoDisponibleException e) {
+            correos.forEach(correo -> fallidos.put(correo.getIdCorreo(), e));
+            return fallidos;
+        }
+        if (autorizados < correos.size()) {
+            ProteccionSmtpService.SmtpNoDisponibleException limite =
+                    proteccionSmtp.limiteAlcanzado(correos.size() - autorizados);
+            correos.subList(autorizados, correos.size())
+                    .forEach(correo -> fallidos.put(correo.getIdCorreo(), limite));
+        }
+
+        for (CorreoSaliente correo : correos.subList(0, autorizados)) {
+            try {
+                MimeMessage mensaje = crearMensaje(correo.getDestinatario(), correo.getAsunto(), correo.getContenidoHtml());
+                idsPorMensaje.put(mensaje, correo.getIdCorreo());
+                mensajes.add(mensaje);
+            } catch (MessagingException e) {
+                // Dirección inválida u otro error al armar el mensaje: solo falla este correo
+                fallidos.put(correo.getIdCorreo(), e);
+            }
+        }
+
+        if (mensajes.isEmpty()) {
+            proteccionSmtp.liberar();
+            return fallidos;
+        }
+
+        Exception falloSesion = null;
+        try {
+            mailSender.send(mensajes.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            falloSesion = e;
+            // Fallos por mensaje; si falló la conexión, el mapa contiene todo el lote
+            Map<Object, Exception> porMensaje = e.getFailedMessages();
+            if (porMensaje.isEmpty()) {
+                idsPorMensaje.values().forEach(id -> fallidos.put(id, e));
+            }
+            porMensaje.forEach((mensaje, error) -> {
+                Long idCorreo = idsPorMensaje.get(mensaje);
+                if (idCorreo != null) {
+                    fallidos.put(idCorreo, error);
+                }
+            });
+        } catch (MailException e) {
+            // Autenticación u otro error de la sesión: falla todo el lote
+            falloSesion = e;
+            idsPorMensaje.values().forEach(id -> fallidos.put(id, e));
+        }
+
+        // Para el circuito cuenta la sesión, no cada correo: basta un error del servidor
+        Exception falloServidor = null;
+        if (falloSesion != null) {
+            falloServidor = fallidos.values().stream()
+                    .filter(ProteccionSmtpService::esFalloDelServidor)
+                    .findFirst()
+                    .orElse(ProteccionSmtpService.esFalloDelServidor(falloSesion) ? falloSesion : null);
+        }
+        if (falloServidor != null) {
+            proteccionSmtp.registrarFallo(falloServidor);
+        } else {
+            proteccionSmtp.registrarExito();
+        }
+        return fallidos;
+    }
+
+    private MimeMessage crearMensaje(String destinatario, String asunto, String contenidoHtml)
             throws MessagingException {
 
         MimeMessage mensaje = mailSender.createMimeMessage();
@@ -82,7 +322,7 @@ public class emailService {
         helper.setSubject(asunto);
         helper.setText(contenidoHtml, true);
 
-        mailSender.send(mensaje);
+        return mensaje;
     }
 
     /**
@@ -90,235 +330,54 @@ public class emailService {
      */
     private String construirCorreoCitacion(Citacion citacion) {
         Estudiante estudiante = citacion.getEstudiante();
-        Acudiente acudiente = citacion.getAcudiente();
-        LocalDateTime fechaCitacion = citacion.getFechaCitacion();
+        return plantillasCorreoService.renderizarCitacion(nombreAcudiente(citacion.getAcudiente()),
+                nombreEstudiante(estudiante), nombreGrupo(estudiante), citacion.getFechaCitacion());
+    }
 
-        String nombreEstudiante = estudiante.getPersona().getNombre() + " " + estudiante.getPersona().getApellido();
-        String nombreAcudiente = acudiente.getPersona().getNombre() + " "
-                + acudiente.getPersona().getApellido();
-        String nombreGrupo = estudiante.getGrupo() != null
+    /**
+     * Construir el contenido HTML del resumen de citaciones de un acudiente
+     */
+    private String construirResumenCitaciones(Acudiente acudiente, List<Citacion> citaciones) {
+        List<PlantillasCorreoService.FilaCitacion> filas = new ArrayList<>(citaciones.size());
+        for (Citacion citacion : citaciones) {
+            Estudiante estudiante = citacion.getEstudiante();
+            filas.add(new PlantillasCorreoService.FilaCitacion(
+                    nombreEstudiante(estudiante), nombreGrupo(estudiante), citacion.getFechaCitacion()));
+        }
+        return plantillasCorreoService.renderizarResumenCitaciones(nombreAcudiente(acudiente), filas);
+    }
+
+    private static String nombreEstudiante(Estudiante estudiante) {
+        return estudiante.getPersona().getNombre() + " " + estudiante.getPersona().getApellido();
+    }
+
+    private static String nombreAcudiente(Acudiente acudiente) {
+        return acudiente.getPersona().getNombre() + " " + acudiente.getPersona().getApellido();
+    }
+
+    private static String nombreGrupo(Estudiante estudiante) {
+        return estudiante.getGrupo() != null
                 ? estudiante.getGrupo().getGrado().getNombreGrado() + " - Grupo "
                 + estudiante.getGrupo().getNumeroGrupo() : "Sin grupo";
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE, dd 'de' MMMM 'de' yyyy");
-        DateTimeFormatter horaFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-        String fechaFormateada = fechaCitacion.format(formatter);
-        String horaFormateada = fechaCitacion.format(horaFormatter);
-
-        return String.format("""
-            <!DOCTYPE html>
-            <html lang="es">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <style>
-                    body {
-                        font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
-                        line-height: 1.6;
-                        color: #333;
-                        margin: 0;
-                        padding: 0;
-                        background-color: #f4f4f4;
-                    }
-                    .container {
-                        max-width: 600px;
-                        margin: 20px auto;
-                        background: white;
-                        border-radius: 10px;
-                        overflow: hidden;
-                        box-shadow: 0 0 20px rgba(0,0,0,0.1);
-                    }
-                    .header {
-                        background: linear-gradient(135deg, #2563eb 0%%, #1d4ed8 100%%);
-                        color: white;
-                        padding: 30px;
-                        text-align: center;
-                    }
-                    .header h1 {
-                        margin: 0;
-                        font-size: 24px;
-                    }
-                    .header p {
-                        margin: 5px 0 0 0;
-                        opacity: 0.9;
-                        font-size: 14px;
-                    }
-                    .content {
-                        padding: 30px;
-                    }
-                    .greeting {
-                        font-size: 18px;
-                        color: #2563eb;
-                        margin-bottom: 20px;
-                    }
-                    .message {
-                        margin-bottom: 25px;
-                        font-size: 15px;
-                        line-height: 1.8;
-                    }
-                    .info-box {
-                        background: #f8fafc;
-                        border-left: 4px solid #2563eb;
-                        padding: 20px;
-                        margin: 25px 0;
-                        border-radius: 5px;
-                    }
-                    .info-item {
-                        display: flex;
-                        margin: 10px 0;
-                        padding: 8px 0;
-                        border-bottom: 1px solid #e2e8f0;
-                    }
-                    .info-item:last-child {
-                        border-bottom: none;
-                    }
-                    .info-label {
-                        font-weight: 600;
-                        color: #64748b;
-                        width: 140px;
-                        flex-shrink: 0;
-                    }
-                    .info-value {
-                        color: #1e293b;
-                        flex: 1;
-                    }
-                    .date-highlight {
-                        background: #dbeafe;
-                        padding: 20px;
-                        border-radius: 8px;
-                        text-align: center;
-                        margin: 25px 0;
-                    }
-                    .date-highlight .date {
-                        font-size: 20px;
-                        font-weight: bold;
-                        color: #1d4ed8;
-                        margin-bottom: 5px;
-                    }
-                    .date-highlight .time {
-                        font-size: 24px;
-                        font-weight: bold;
-                        color: #2563eb;
-                    }
-                    .important-note {
-                        background: #fef3c7;
-                        border-left: 4px solid #f59e0b;
-                        padding: 15px;
-                        margin: 20px 0;
-                        border-radius: 5px;
-                    }
-                    .important-note strong {
-                        color: #92400e;
-                    }
-                    .footer {
-                        background: #f8fafc;
-                        padding: 25px;
-                        text-align: center;
-                        font-size: 13px;
-                        color: #64748b;
-                        border-top: 1px solid #e2e8f0;
-                    }
-                    .footer p {
-                        margin: 5px 0;
-                    }
-                    .footer strong {
-                        color: #1e293b;
-                    }
-                    @media only screen and (max-width: 600px) {
-                        .container {
-                            margin: 0;
-                            border-radius: 0;
-                        }
-                        .content {
-                            padding: 20px;
-                        }
-                        .info-item {
-                            flex-direction: column;
-                        }
-                        .info-label {
-                            width: 100%%;
-                            margin-bottom: 5px;
-                        }
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>📧 Citación Escolar</h1>
-                        <p>%s</p>
-                    </div>
-                    
-                    <div class="content">
-                        <div class="greeting">
-                            Estimado(a) %s,
-                        </div>
-                        
-                        <div class="message">
-                            Por medio de la presente, nos permitimos comunicarle que se ha programado 
-                            una citación para tratar asuntos relacionados con el estudiante a su cargo.
-                        </div>
-                        
-                        <div class="info-box">
-                            <div class="info-item">
-                                <span class="info-label">👨‍🎓 Estudiante:</span>
-                                <span class="info-value">%s</span>
-                            </div>
-                            <div class="info-item">
-                                <span class="info-label">📚 Grupo:</span>
-                                <span class="info-value">%s</span>
-                            </div>
-                        </div>
-                        
-                        <div class="date-highlight">
-                            <div class="date">📅 %s</div>
-                            <div class="time">⏰ %s</div>
-                        </div>
-                        
-                        <div class="important-note">
-                            <strong>⚠️ Importante:</strong> Solicitamos su puntual asistencia. 
-                            En caso de no poder asistir, por favor comuníquese con anticipación 
-                            a los números de contacto de la institución.
-                        </div>
-                        
-                        <div class="message">
-                            Agradecemos de antemano su atención y colaboración. Quedamos atentos 
-                            a su confirmación de asistencia.
-                        </div>
-                    </div>
-                    
-                    <div class="footer">
-                        <p><strong>%s</strong></p>
-                        <p>%s</p>
-                        <p>📞 %s</p>
-                        <p>✉️ %s</p>
-                        <hr style="border: none; border-top: 1px solid #e2e8f0; margin: 15px 0;">
-                        <p style="font-size: 11px; color: #94a3b8;">
-                            Este es un correo automático, por favor no responda a este mensaje.
-                        </p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """,
-                nombreInstitucion,
-                nombreAcudiente,
-                nombreEstudiante,
-                nombreGrupo,
-                fechaFormateada,
-                horaFormateada,
-                nombreInstitucion,
-                direccionInstitucion,
-                telefonoInstitucion,
-                correoInstitucion
-        );
+    private static String claveResumen(Long idAcudiente) {
+        return CLAVE_RESUMEN_CITACIONES + idAcudiente;
+    }
+
+    private static List<Long> leerReferencias(String referencias) {
+        if (referencias == null || referencias.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(referencias.split(",")).map(Long::valueOf).toList();
     }
 
 
     /**
-     * Enviar correo de notificación de entrevista para preinscripción
+     * Encolar el correo de notificación de entrevista para preinscripción,
+     * dentro de la transacción que programa la entrevista
      */
-    @Async
+    @Transactional(propagation = Propagation.MANDATORY)
     public void enviarCorreoEntrevistaPreinscripcion(
             String correoDestino,
             String nombreAcudiente,
@@ -326,19 +385,28 @@ public class emailService {
             LocalDateTime fechaEntrevista,
             String lugarEntrevista) {
         
-        log.info("Enviando correo de notificación de entrevista a: {}", correoDestino);
-        
-        try {
-            String asunto = "Entrevista Programada - " + nombreInstitucion;
-            String contenidoHtml = construirCorreoEntrevista(
-                nombreAcudiente, nombreEstudiante, fechaEntrevista, lugarEntrevista);
-            
-            enviarCorreoHtml(correoDestino, asunto, contenidoHtml);
-            log.info("Correo de entrevista enviado exitosamente a: {}", correoDestino);
-            
-        } catch (Exception e) {
-            log.error("Error al enviar correo de entrevista: {}", e.getMessage(), e);
-        }
+        String asunto = "Entrevista Programada - " + nombreInstitucion;
+        String contenidoHtml = construirCorreoEntrevista(
+            nombreAcudiente, nombreEstudiante, fechaEntrevista, lugarEntrevista);
+
+        encolar(TIPO_ENTREVISTA, correoDestino, asunto, contenidoHtml);
+        log.info("Correo de entrevista encolado para: {}", correoDestino);
+    }
+
+    /**
+     * Guardar el correo ya construido en la bandeja de salida
+     */
+    private void encolar(String tipo, String destinatario, String asunto, String contenidoHtml) {
+        correoSalienteRepository.save(nuevoCorreo(tipo, destinatario, asunto, contenidoHtml));
+    }
+
+    private static CorreoSaliente nuevoCorreo(String tipo, String destinatario, String asunto, String contenidoHtml) {
+        CorreoSaliente correo = new CorreoSaliente();
+        correo.setTipo(tipo);
+        correo.setDestinatario(destinatario);
+        correo.setAsunto(asunto);
+        correo.setContenidoHtml(contenidoHtml);
+        return correo;
     }
 
     /**
@@ -350,205 +418,6 @@ public class emailService {
             LocalDateTime fechaEntrevista,
             String lugarEntrevista) {
         
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE, dd 'de' MMMM 'de' yyyy");
-        DateTimeFormatter horaFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-        String fechaFormateada = fechaEntrevista.format(formatter);
-        String horaFormateada = fechaEntrevista.format(horaFormatter);
-
-        return String.format("""
-            <!DOCTYPE html>
-            <html lang="es">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <style>
-                    body {
-                        font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
-                        line-height: 1.6;
-                        color: #333;
-                        margin: 0;
-                        padding: 0;
-                        background-color: #f4f4f4;
-                    }
-                    .container {
-                        max-width: 600px;
-                        margin: 20px auto;
-                        background: white;
-                        border-radius: 10px;
-                        overflow: hidden;
-                        box-shadow: 0 0 20px rgba(0,0,0,0.1);
-                    }
-                    .header {
-                        background: linear-gradient(135deg, #10b981 0%%, #059669 100%%);
-                        color: white;
-                        padding: 30px;
-                        text-align: center;
-                    }
-                    .header h1 {
-                        margin: 0;
-                        font-size: 24px;
-                    }
-                    .header p {
-                        margin: 5px 0 0 0;
-                        opacity: 0.9;
-                        font-size: 14px;
-                    }
-                    .content {
-                        padding: 30px;
-                    }
-                    .greeting {
-                        font-size: 18px;
-                        color: #10b981;
-                        margin-bottom: 20px;
-                    }
-                    .message {
-                        margin-bottom: 25px;
-                        font-size: 15px;
-                        line-height: 1.8;
-                    }
-                    .info-box {
-                        background: #f0fdf4;
-                        border-left: 4px solid #10b981;
-                        padding: 20px;
-                        margin: 25px 0;
-                        border-radius: 5px;
-                    }
-                    .info-item {
-                        display: flex;
-                        margin: 10px 0;
-                        padding: 8px 0;
-                        border-bottom: 1px solid #d1fae5;
-                    }
-                    .info-item:last-child {
-                        border-bottom: none;
-                    }
-                    .info-label {
-                        font-weight: 600;
-                        color: #064e3b;
-                        width: 140px;
-                        flex-shrink: 0;
-                    }
-                    .info-value {
-                        color: #1e293b;
-                        flex: 1;
-                    }
-                    .date-highlight {
-                        background: #d1fae5;
-                        padding: 20px;
-                        border-radius: 8px;
-                        text-align: center;
-                        margin: 25px 0;
-                    }
-                    .date-highlight .date {
-                        font-size: 20px;
-                        font-weight: bold;
-                        color: #059669;
-                        margin-bottom: 5px;
-                    }
-                    .date-highlight .time {
-                        font-size: 24px;
-                        font-weight: bold;
-                        color: #10b981;
-                    }
-                    .location-box {
-                        background: #fef3c7;
-                        border-left: 4px solid #f59e0b;
-                        padding: 15px;
-                        margin: 20px 0;
-                        border-radius: 5px;
-                    }
-                    .location-box strong {
-                        color: #92400e;
-                    }
-                    .footer {
-                        background: #f8fafc;
-                        padding: 25px;
-                        text-align: center;
-                        font-size: 13px;
-                        color: #64748b;
-                        border-top: 1px solid #e2e8f0;
-                    }
-                    .footer p {
-                        margin: 5px 0;
-                    }
-                    .footer strong {
-                        color: #1e293b;
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>📅 Entrevista de Preinscripción</h1>
-                        <p>%s</p>
-                    </div>
-                    
-                    <div class="content">
-                        <div class="greeting">
-                            Estimado(a) %s,
-                        </div>
-                        
-                        <div class="message">
-                            Nos complace informarle que hemos programado la entrevista de preinscripción 
-                            para el aspirante <strong>%s</strong>.
-                        </div>
-                        
-                        <div class="date-highlight">
-                            <div class="date">📅 %s</div>
-                            <div class="time">⏰ %s</div>
-                        </div>
-                        
-                        <div class="location-box">
-                            <strong>📍 Lugar:</strong> %s
-                        </div>
-                        
-                        <div class="message">
-                            <strong>Puntos a tratar durante la entrevista:</strong>
-                            <ul>
-                                <li>Presentación del aspirante y acudiente</li>
-                                <li>Información sobre la institución y proyecto educativo</li>
-                                <li>Requisitos y documentación necesaria</li>
-                                <li>Proceso de matrícula</li>
-                                <li>Resolución de dudas e inquietudes</li>
-                            </ul>
-                        </div>
-                        
-                        <div class="message" style="background: #f0f9ff; padding: 15px; border-radius: 5px;">
-                            <strong>⚠️ Importante:</strong> Por favor llegue 10 minutos antes de la hora programada. 
-                            Traiga consigo los documentos del aspirante (registro civil, certificado de vacunas, 
-                            y últimos certificados académicos si aplica).
-                        </div>
-                        
-                        <div class="message">
-                            En caso de no poder asistir, por favor comuníquese con anticipación 
-                            a los números de contacto de la institución.
-                        </div>
-                    </div>
-                    
-                    <div class="footer">
-                        <p><strong>%s</strong></p>
-                        <p>%s</p>
-                        <p>📞 %s</p>
-                        <p>✉️ %s</p>
-                        <hr style="border: none; border-top: 1px solid #e2e8f0; margin: 15px 0;">
-                        <p style="font-size: 11px; color: #94a3b8;">
-                            Este es un correo automático, por favor no responda a este mensaje.
-                        </p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """,
-                nombreInstitucion,
-                nombreAcudiente,
-                nombreEstudiante,
-                fechaFormateada,
-                horaFormateada,
-                lugarEntrevista,
-                nombreInstitucion,
-                direccionInstitucion,
-                telefonoInstitucion,
-                correoInstitucion
-        );
+        return plantillasCorreoService.renderizarEntrevista(nombreAcudiente, nombreEstudiante, fechaEntrevista, lugarEntrevista);
     }
 }
@@ -0,0 +1,25 @@
+-- Índices para el listado paginado de administración de usuarios (GET /api/token_usuario?...)
+-- Ejecutar manualmente en la base de datos; ddl-auto=update no los crea.
+--
+-- La búsqueda (prefijo sin distinguir mayúsculas sobre usuario, nombre y
+-- apellido) combina con OR columnas de token_usuario y de persona a través del
+-- LEFT JOIN: PostgreSQL no puede resolver ese OR con índices de cada tabla y
+-- recorre token_usuario completa. Con el número de usuarios de una institución
+-- es barato, y la página limita las filas que se envían. Por eso no se crean
+-- índices de expresión para la búsqueda; si la tabla creciera, habría que
+-- dividir la consulta en una rama por tabla antes de indexar.
+--
+-- El índice por rol sirve al listado filtrado solo por rol.
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_token_usuario_rol
+    ON token_usuario (rol);
+
+-- Índices de expresión creados por una versión anterior de este script, que la
+-- consulta no usa
+DROP INDEX IF EXISTS idx_token_usuario_nombre_usuario_lower;
+DROP INDEX IF EXISTS idx_persona_nombre_lower;
+DROP INDEX IF EXISTS idx_persona_apellido_lower;
+
+COMMIT;
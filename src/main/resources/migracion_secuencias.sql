@@ -0,0 +1,94 @@
+-- Migración: las llaves primarias pasan de columnas IDENTITY a secuencias pooled
+-- Se debe ejecutar a mano en la base de datos ANTES de desplegar el código
+-- (si no, ddl-auto=update crearía las secuencias empezando en 1)
+--
+-- Hibernate reserva bloques de 50 IDs por cada llamada a la secuencia
+-- (allocationSize = 50). Con el optimizador pooled el valor que devuelve la
+-- secuencia es el extremo superior del bloque, por eso cada secuencia se ubica
+-- en MAX(id) + 50: el primer bloque entregado empieza justo después del último
+-- ID existente.
+
+BEGIN;
+
+-- persona
+CREATE SEQUENCE IF NOT EXISTS persona_seq INCREMENT BY 50;
+SELECT setval('persona_seq', COALESCE((SELECT MAX(id_persona) FROM persona), 0) + 50, false);
+ALTER TABLE persona ALTER COLUMN id_persona DROP IDENTITY IF EXISTS;
+ALTER TABLE persona ALTER COLUMN id_persona DROP DEFAULT;
+
+-- acudiente
+CREATE SEQUENCE IF NOT EXISTS acudiente_seq INCREMENT BY 50;
+SELECT setval('acudiente_seq', COALESCE((SELECT MAX(id_acudiente) FROM acudiente), 0) + 50, false);
+ALTER TABLE acudiente ALTER COLUMN id_acudiente DROP IDENTITY IF EXISTS;
+ALTER TABLE acudiente ALTER COLUMN id_acudiente DROP DEFAULT;
+
+-- profesor
+CREATE SEQUENCE IF NOT EXISTS profesor_seq INCREMENT BY 50;
+SELECT setval('profesor_seq', COALESCE((SELECT MAX(id_profesor) FROM profesor), 0) + 50, false);
+ALTER TABLE profesor ALTER COLUMN id_profesor DROP IDENTITY IF EXISTS;
+ALTER TABLE profesor ALTER COLUMN id_profesor DROP DEFAULT;
+
+-- grado
+CREATE SEQUENCE IF NOT EXISTS grado_seq INCREMENT BY 50;
+SELECT setval('grado_seq', COALESCE((SELECT MAX(id_grado) FROM grado), 0) + 50, false);
+ALTER TABLE grado ALTER COLUMN id_grado DROP IDENTITY IF EXISTS;
+ALTER TABLE grado ALTER COLUMN id_grado DROP DEFAULT;
+
+-- grupo
+CREATE SEQUENCE IF NOT EXISTS grupo_seq INCREMENT BY 50;
+SELECT setval('grupo_seq', COALESCE((SELECT MAX(id_grupo) FROM grupo), 0) + 50, false);
+ALTER TABLE grupo ALTER COLUMN id_grupo DROP IDENTITY IF EXISTS;
+ALTER TABLE grupo ALTER COLUMN id_grupo DROP DEFAULT;
+
+-- estudiante
+CREATE SEQUENCE IF NOT EXISTS estudiante_seq INCREMENT BY 50;
+SELECT setval('estudiante_seq', COALESCE((SELECT MAX(codigo_estudiante) FROM estudiante), 0) + 50, false);
+ALTER TABLE estudiante ALTER COLUMN codigo_estudiante DROP IDENTITY IF EXISTS;
+ALTER TABLE estudiante ALTER COLUMN codigo_estudiante DROP DEFAULT;
+
+-- logro
+CREATE SEQUENCE IF NOT EXISTS logro_seq INCREMENT BY 50;
+SELECT setval('logro_seq', COALESCE((SELECT MAX(id_logro) FROM logro), 0) + 50, false);
+ALTER TABLE logro ALTER COLUMN id_logro DROP IDENTITY IF EXISTS;
+ALTER TABLE logro ALTER COLUMN id_logro DROP DEFAULT;
+
+-- periodo
+CREATE SEQUENCE IF NOT EXISTS periodo_seq INCREMENT BY 50;
+SELECT setval('periodo_seq', COALESCE((SELECT MAX(id_periodo) FROM periodo), 0) + 50, false);
+ALTER TABLE periodo ALTER COLUMN id_periodo DROP IDENTITY IF EXISTS;
+ALTER TABLE periodo ALTER COLUMN id_periodo DROP DEFAULT;
+
+-- calificacion
+CREATE SEQUENCE IF NOT EXISTS calificacion_seq INCREMENT BY 50;
+SELECT setval('calificacion_seq', COALESCE((SELECT MAX(id_calificacion) FROM calificacion), 0) + 50, false);
+ALTER TABLE calificacion ALTER COLUMN id_calificacion DROP IDENTITY IF EXISTS;
+ALTER TABLE calificacion ALTER COLUMN id_calificacion DROP DEFAULT;
+
+-- citacion
+CREATE SEQUENCE IF NOT EXISTS citacion_seq INCREMENT BY 50;
+SELECT setval('citacion_seq', COALESCE((SELECT MAX(id_citacion) FROM citacion), 0) + 50, false);
+ALTER TABLE citacion ALTER COLUMN id_citacion DROP IDENTITY IF EXISTS;
+ALTER TABLE citacion ALTER COLUMN id_citacion DROP DEFAULT;
+
+-- boletin
+CREATE SEQUENCE IF NOT EXISTS boletin_seq INCREMENT BY 50;
+SELECT setval('boletin_seq', COALESCE((SELECT MAX(id_boletin) FROM boletin), 0) + 50, false);
+ALTER TABLE boletin ALTER COLUMN id_boletin DROP IDENTITY IF EXISTS;
+ALTER TABLE boletin ALTER COLUMN id_boletin DROP DEFAULT;
+
+-- preinscripcion
+CREATE SEQUENCE IF NOT EXISTS preinscripcion_seq INCREMENT BY 50;
+SELECT setval('preinscripcion_seq', COALESCE((SELECT MAX(id_preinscripcion) FROM preinscripcion), 0) + 50, false);
+ALTER TABLE preinscripcion ALTER COLUMN id_preinscripcion DROP IDENTITY IF EXISTS;
+ALTER TABLE preinscripcion ALTER COLUMN id_preinscripcion DROP DEFAULT;
+
+-- token_usuario
+CREATE SEQUENCE IF NOT EXISTS token_usuario_seq INCREMENT BY 50;
+SELECT setval('token_usuario_seq', COALESCE((SELECT MAX(id_token_usuario) FROM token_usuario), 0) + 50, false);
+ALTER TABLE token_usuario ALTER COLUMN id_token_usuario DROP IDENTITY IF EXISTS;
+ALTER TABLE token_usuario ALTER COLUMN id_token_usuario DROP DEFAULT;
+
+COMMIT;
+
+-- Consulta de verificación (opcional)
+-- SELECT sequencename, last_value, increment_by FROM pg_sequences WHERE sequencename LIKE '%\_seq' ORDER BY 1;
@@ -9,8 +9,12 @@ function toggleSidebar() {
 // Configuración de la API
 const API_URL = 'http://localhost:8080/api/token_usuario';
 
+// Usuarios por página del listado (el servidor acepta hasta 100)
+const TAMANO_PAGINA = 20;
+
 // Estado global
-let usuariosData = [];
+let paginaActual = 0;
+let busquedaActual = '';
 let timeoutBusqueda = null;
 let usuarioSeleccionado = null;
 
@@ -31,10 +35,15 @@ function inicializarEventos() {
     document.getElementById('txt-buscar-usuario').addEventListener('input', function (e) {
         clearTimeout(timeoutBusqueda);
         timeoutBusqueda = setTimeout(() => {
-            filtrarUsuarios(e.target.value);
+            busquedaActual = e.target.value.trim();
+            paginaActual = 0;
+            cargarUsuarios();
         }, 300);
     });
 
+    document.getElementById('btn-pagina-anterior').addEventListener('click', () => cambiarPagina(-1));
+    document.getElementById('btn-pagina-siguiente').addEventListener('click', () => cambiarPagina(1));
+
     document.getElementById('btn-crear-usuario').addEventListener('click', abrirModalCrear);
     document.getElementById('btn-confirmar-crear').addEventListener('click', confirmarCrearUsuario);
     document.getElementById('btn-confirmar-editar').addEventListener('click', confirmarEditarUsuario);
@@ -69,24 +78,36 @@ function inicializarEventos() {
     });
 }
 
-// Cargar todos los usuarios
+// Cargar una página de usuarios; la búsqueda (prefijo de usuario, nombre o
+// apellido) y la paginación se resuelven en el servidor
 async function cargarUsuarios() {
     mostrarLoading();
 
+    const parametros = new URLSearchParams({ pagina: paginaActual, tamano: TAMANO_PAGINA });
+    if (busquedaActual) {
+        parametros.set('busqueda', busquedaActual);
+    }
+
     try {
-        const response = await fetch(API_URL);
+        const response = await fetch(`${API_URL}?${parametros}`);
 
         if (!response.ok) {
             throw new Error('Error al cargar usuarios');
         }
 
-        const usuarios = await response.json();
-        usuariosData = usuarios;
+        const pagina = await response.json();
+
+        // La página quedó fuera de rango (p. ej. cambió el total): volver a la última
+        if (pagina.contenido.length === 0 && pagina.totalPaginas > 0 && paginaActual >= pagina.totalPaginas) {
+            paginaActual = pagina.totalPaginas - 1;
+            return cargarUsuarios();
+        }
 
-        if (usuarios.length === 0) {
+        if (pagina.totalElementos === 0) {
             mostrarEstadoVacio();
         } else {
-            mostrarTabla(usuarios);
+            mostrarTabla(pagina.contenido);
+            actualizarPaginacion(pagina);
         }
     } catch (error) {
         console.error('Error:', error);
@@ -94,25 +115,19 @@ async function cargarUsuarios() {
     }
 }
 
-// Filtrar usuarios localmente
-function filtrarUsuarios(texto) {
-    if (!texto || texto.trim() === '') {
-        mostrarTabla(usuariosData);
-        return;
-    }
-
-    const textoLower = texto.toLowerCase().trim();
-    const usuariosFiltrados = usuariosData.filter(usuario => {
-        const nombreCompleto = `${usuario.persona?.nombre || ''} ${usuario.persona?.apellido || ''}`.toLowerCase();
-        const nombreUsuario = (usuario.nombreUsuario || '').toLowerCase();
-        const rol = (usuario.rol || '').toLowerCase();
+function cambiarPagina(desplazamiento) {
+    paginaActual = Math.max(0, paginaActual + desplazamiento);
+    cargarUsuarios();
+}
 
-        return nombreCompleto.includes(textoLower) ||
-            nombreUsuario.includes(textoLower) ||
-            rol.includes(textoLower);
-    });
+function actualizarPaginacion(pagina) {
+    const desde = pagina.pagina * pagina.tamano + 1;
+    const hasta = pagina.pagina * pagina.tamano + pagina.contenido.length;
 
-    mostrarTabla(usuariosFiltrados);
+    document.getElementById('info-paginacion').textContent =
+        `${desde}-${hasta} de ${pagina.totalElementos} (página ${pagina.pagina + 1} de ${pagina.totalPaginas})`;
+    document.getElementById('btn-pagina-anterior').disabled = pagina.pagina === 0;
+    document.getElementById('btn-pagina-siguiente').disabled = pagina.pagina >= pagina.totalPaginas - 1;
 }
 
 // Mostrar tabla de usuarios
@@ -132,8 +147,8 @@ function mostrarTabla(usuarios) {
 
         const estadoClass = usuario.estado ? 'estado-activo' : 'estado-inactivo';
         const estadoTexto = usuario.estado ? 'Activo' : 'Inactivo';
-        const nombreCompleto = usuario.persona ?
-            `${usuario.persona.nombre} ${usuario.persona.apellido}` :
+        const nombreCompleto = usuario.nombre || usuario.apellido ?
+            `${usuario.nombre || ''} ${usuario.apellido || ''}`.trim() :
             'Sin nombre';
 
         tr.innerHTML = `
@@ -47,6 +47,7 @@ async function handleLogin(event) {
             console.log('Login exitoso para usuario:', usuario);
             localStorage.setItem('nombreUsuario', usuario);
             localStorage.setItem('rolUsuario', resultadoLogin.rol);
+            localStorage.setItem('tokenSesion', resultadoLogin.token);
             window.location.href = 'panelGestion.html';
 
         } else {
@@ -4,6 +4,53 @@
  * Debe ser incluido en TODOS los archivos HTML que tengan sidebar
  */
 
+/**
+ * Enviar el token de sesión (Authorization: Bearer) en todas las peticiones a
+ * la API. Se envuelve fetch para no repetir la cabecera en cada módulo.
+ * Si el servidor rechaza el token (401: vencido o revocado), volver al login.
+ */
+const fetchSinSesion = window.fetch.bind(window);
+
+window.fetch = async function (recurso, opciones = {}) {
+    const url = typeof recurso === 'string' ? recurso : recurso.url;
+    const tokenSesion = localStorage.getItem('tokenSesion');
+
+    if (!tokenSesion || !url.includes('/api/')) {
+        return fetchSinSesion(recurso, opciones);
+    }
+
+    const headers = new Headers(opciones.headers || (recurso instanceof Request ? recurso.headers : undefined));
+    if (!headers.has('Authorization')) {
+        headers.set('Authorization', `Bearer ${tokenSesion}`);
+    }
+
+    const response = await fetchSinSesion(recurso, { ...opciones, headers });
+    if (response.status === 401) {
+        console.warn('La sesión venció o fue cerrada, redirigiendo a login...');
+        localStorage.removeItem('tokenSesion');
+        window.location.href = 'inicioSesion.html';
+    }
+    return response;
+};
+
+/**
+ * Cerrar la sesión en el servidor (el token deja de aceptarse) y olvidarla
+ */
+function cerrarSesion() {
+    const tokenSesion = localStorage.getItem('tokenSesion');
+    if (tokenSesion) {
+        // keepalive: la petición sigue aunque la página navegue al login
+        fetchSinSesion('http://localhost:8080/api/token_usuario/cerrarSesion', {
+            method: 'POST',
+            headers: { 'Authorization': `Bearer ${tokenSesion}` },
+            keepalive: true
+        }).catch(error => console.error('Error al cerrar sesión:', error));
+    }
+    localStorage.removeItem('tokenSesion');
+    localStorage.removeItem('nombreUsuario');
+    localStorage.removeItem('rolUsuario');
+}
+
 // Definición de módulos por rol
 const MODULOS_POR_ROL = {
     'Administrador': [
@@ -146,6 +193,15 @@ function configurarEventosMenu() {
     });
 }
 
+/**
+ * "Cerrar Sesión": revocar el token antes de ir al login
+ */
+function configurarCierreSesion() {
+    document.querySelectorAll('.logout-btn').forEach(boton => {
+        boton.addEventListener('click', cerrarSesion);
+    });
+}
+
 /**
  * Ajustar sidebar al redimensionar ventana
  */
@@ -170,6 +226,7 @@ function inicializarSidebar() {
     filtrarModulosPorRol();
     actualizarMenuActivo();
     configurarEventosMenu();
+    configurarCierreSesion();
     configurarResponsive();
 
     console.log('Sidebar inicializado correctamente');
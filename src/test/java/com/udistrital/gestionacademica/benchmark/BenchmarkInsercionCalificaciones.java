@@ -0,0 +1,123 @@
+package com.udistrital.gestionacademica.benchmark;
+
+import com.udistrital.gestionacademica.GestionacademicaApplication;
+import com.udistrital.gestionacademica.modelo.Calificacion;
+import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Logro;
+import com.udistrital.gestionacademica.modelo.Periodo;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Mide el efecto de los lotes JDBC en la inserción de calificaciones.
+ *
+ * Se ejecuta a mano (no forma parte del jar) contra una base de datos que ya
+ * tenga al menos un estudiante, un logro y un período:
+ *
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.udistrital.gestionacademica.benchmark.BenchmarkInsercionCalificaciones \
+ *       -Dbenchmark.calificaciones.filas=10000
+ *
+ * Escenarios (ambos con IDs de la secuencia pooled):
+ * - sin lotes: flush después de cada persist, un INSERT por ida y vuelta
+ * - por lotes: flush cada hibernate.jdbc.batch_size filas
+ *
+ * No mide GenerationType.IDENTITY: con IDENTITY además cada persist necesita
+ * su propio INSERT para obtener el ID, así que el escenario sin lotes es una
+ * cota optimista de ese caso.
+ *
+ * Cada escenario corre en su propia transacción que se revierte al final, por
+ * lo que la base de datos no queda modificada (solo avanzan las secuencias).
+ */
+public class BenchmarkInsercionCalificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkInsercionCalificaciones.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private BenchmarkInsercionCalificaciones(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(GestionacademicaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            int filas = contexto.getEnvironment().getProperty("benchmark.calificaciones.filas", Integer.class, 10000);
+            int tamanoLote = contexto.getEnvironment()
+                    .getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", Integer.class, 50);
+
+            BenchmarkInsercionCalificaciones benchmark = new BenchmarkInsercionCalificaciones(
+                    contexto.getBean(EntityManager.class), contexto.getBean(TransactionTemplate.class));
+            benchmark.ejecutar(filas, tamanoLote);
+        }
+    }
+
+    private void ejecutar(int filas, int tamanoLote) {
+        // Calentamiento para que la primera medición no incluya la carga de clases y conexiones
+        medir("calentamiento", Math.min(filas, 500), 1);
+
+        long sinLotes = medir("sin lotes", filas, 1);
+        long porLotes = medir("por lotes", filas, tamanoLote);
+
+        log.info("Benchmark de inserción de {} calificaciones: sin lotes {} ms ({} filas/s), por lotes {} ms ({} filas/s), mejora x{}",
+                filas,
+                sinLotes, filasPorSegundo(filas, sinLotes),
+                porLotes, filasPorSegundo(filas, porLotes),
+                String.format("%.1f", porLotes == 0 ? 0.0 : (double) sinLotes / porLotes));
+    }
+
+    private long medir(String escenario, int cantidad, int filasPorFlush) {
+        Long tiempo = transactionTemplate.execute(estado -> {
+            Estudiante estudiante = primero("SELECT e FROM Estudiante e", Estudiante.class);
+            Logro logro = primero("SELECT l FROM Logro l", Logro.class);
+            Periodo periodo = primero("SELECT p FROM Periodo p", Periodo.class);
+
+            long inicio = System.nanoTime();
+            for (int i = 1; i <= cantidad; i++) {
+                Calificacion calificacion = new Calificacion();
+                calificacion.setEstudiante(estudiante);
+                calificacion.setLogro(logro);
+                calificacion.setPeriodo(periodo);
+                entityManager.persist(calificacion);
+
+                if (i % filasPorFlush == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    estudiante = entityManager.getReference(Estudiante.class, estudiante.getCodigoEstudiante());
+                    logro = entityManager.getReference(Logro.class, logro.getIdLogro());
+                    periodo = entityManager.getReference(Periodo.class, periodo.getIdPeriodo());
+                }
+            }
+            entityManager.flush();
+            long transcurrido = (System.nanoTime() - inicio) / 1_000_000;
+
+            estado.setRollbackOnly();
+            return transcurrido;
+        });
+
+        log.info("Escenario '{}': {} filas en {} ms", escenario, cantidad, tiempo);
+        return tiempo != null ? tiempo : 0L;
+    }
+
+    private <T> T primero(String jpql, Class<T> tipo) {
+        List<T> resultado = entityManager.createQuery(jpql, tipo).setMaxResults(1).getResultList();
+        if (resultado.isEmpty()) {
+            throw new IllegalStateException("El benchmark necesita al menos un registro de " + tipo.getSimpleName());
+        }
+        return resultado.get(0);
+    }
+
+    private static long filasPorSegundo(int filas, long milisegundos) {
+        return milisegundos == 0 ? filas : filas * 1000L / milisegundos;
+    }
+}
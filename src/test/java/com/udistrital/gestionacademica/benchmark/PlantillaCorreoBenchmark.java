@@ -0,0 +1,104 @@
+package com.udistrital.gestionacademica.benchmark;
+
+import com.udistrital.gestionacademica.servicio.PlantillasCorreoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el render del correo de citación con plantillas precompiladas
+ * contra la implementación anterior (String.format sobre el bloque de texto
+ * completo y DateTimeFormatter nuevos en cada envío).
+ *
+ * Ejecutar (reporta tiempo por render y bytes asignados por render, gc.alloc.rate.norm):
+ *
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.udistrital.gestionacademica.benchmark.PlantillaCorreoBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlantillaCorreoBenchmark {
+
+    private static final String ACUDIENTE = "María Fernanda Rodríguez";
+    private static final String ESTUDIANTE = "Juan Sebastián Rodríguez";
+    private static final String GRUPO = "Quinto - Grupo 2";
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 3, 14, 7, 30);
+
+    private PlantillasCorreoService plantillas;
+
+    // Implementación anterior: la plantilla como formato de String.format
+    private String formatoAnterior;
+
+    @Setup
+    public void preparar() throws IOException {
+        plantillas = new PlantillasCorreoService();
+        ReflectionTestUtils.setField(plantillas, "nombreInstitucion", "Colegio San Marino");
+        ReflectionTestUtils.setField(plantillas, "direccionInstitucion", "Cra 7 No. 40-53");
+        ReflectionTestUtils.setField(plantillas, "telefonoInstitucion", "+57 (1) 123-4567");
+        ReflectionTestUtils.setField(plantillas, "correoInstitucion", "colegio@example.com");
+        ReflectionTestUtils.setField(plantillas, "etiquetaLocale", "es-CO");
+        ReflectionTestUtils.invokeMethod(plantillas, "compilar");
+
+        try (InputStream entrada = new ClassPathResource("correos/citacion.html").getInputStream()) {
+            formatoAnterior = new String(entrada.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("%", "%%")
+                    .replaceAll("\\{\\{\\s*\\w+\\s*}}", "%s");
+        }
+    }
+
+    @Benchmark
+    public String plantillaPrecompilada() {
+        return plantillas.renderizarCitacion(ACUDIENTE, ESTUDIANTE, GRUPO, FECHA);
+    }
+
+    @Benchmark
+    public String stringFormatAnterior() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE, dd 'de' MMMM 'de' yyyy");
+        DateTimeFormatter horaFormatter = DateTimeFormatter.ofPattern("hh:mm a");
+        String fechaFormateada = FECHA.format(formatter);
+        String horaFormateada = FECHA.format(horaFormatter);
+
+        return String.format(formatoAnterior,
+                "Colegio San Marino",
+                ACUDIENTE,
+                ESTUDIANTE,
+                GRUPO,
+                fechaFormateada,
+                horaFormateada,
+                "Colegio San Marino",
+                "Cra 7 No. 40-53",
+                "+57 (1) 123-4567",
+                "colegio@example.com");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PlantillaCorreoBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
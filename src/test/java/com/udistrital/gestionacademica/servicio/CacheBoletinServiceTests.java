@@ -0,0 +1,96 @@
+package com.udistrital.gestionacademica.servicio;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claves vigentes e invalidaciones de la caché de boletines, sin transacción
+ * (las invalidaciones se aplican de inmediato)
+ */
+class CacheBoletinServiceTests {
+
+    private static final String CLAVE = "a".repeat(64);
+
+    @TempDir
+    Path directorio;
+
+    private CacheBoletinService cache;
+
+    @BeforeEach
+    void preparar() throws IOException {
+        cache = new CacheBoletinService();
+        ReflectionTestUtils.setField(cache, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(cache, "tamanoMaximoMb", 1L);
+        cache.iniciar();
+        guardar(CLAVE);
+    }
+
+    @Test
+    void recuerdaLaClaveSiNoHuboInvalidacion() {
+        CacheBoletinService.Generacion generacion = cache.generacion(1L, 10L);
+
+        cache.recordarVigente(1L, 10L, CLAVE, generacion);
+
+        assertThat(cache.buscarVigente(1L, 10L)).isEqualTo(CLAVE);
+    }
+
+    @Test
+    void unaInvalidacionDuranteLaDescargaImpideRecordarLaClaveVieja() {
+        // La descarga lee la generación y los datos; luego se confirma un cambio
+        CacheBoletinService.Generacion generacion = cache.generacion(1L, 10L);
+        cache.invalidarAlConfirmar(1L, 10L);
+
+        cache.recordarVigente(1L, 10L, CLAVE, generacion);
+
+        assertThat(cache.buscarVigente(1L, 10L)).isNull();
+    }
+
+    @Test
+    void lasInvalidacionesPorEstudianteYGlobalesTambienCuentan() {
+        CacheBoletinService.Generacion generacion = cache.generacion(1L, 10L);
+        cache.invalidarEstudianteAlConfirmar(1L);
+        cache.recordarVigente(1L, 10L, CLAVE, generacion);
+        assertThat(cache.buscarVigente(1L, 10L)).isNull();
+
+        generacion = cache.generacion(1L, 10L);
+        cache.invalidarTodoAlConfirmar();
+        cache.recordarVigente(1L, 10L, CLAVE, generacion);
+        assertThat(cache.buscarVigente(1L, 10L)).isNull();
+
+        // Otro estudiante no se ve afectado por la invalidación del primero
+        CacheBoletinService.Generacion otro = cache.generacion(2L, 10L);
+        cache.invalidarEstudianteAlConfirmar(1L);
+        cache.recordarVigente(2L, 10L, CLAVE, otro);
+        assertThat(cache.buscarVigente(2L, 10L)).isEqualTo(CLAVE);
+    }
+
+    @Test
+    void abrirUnArchivoBorradoDelDiscoRetornaNullYLoOlvida() throws IOException {
+        CacheBoletinService.Archivo abierto = cache.abrir(CLAVE);
+        assertThat(abierto).isNotNull();
+        abierto.contenido().close();
+        Files.delete(directorio.resolve(CLAVE + ".pdf"));
+
+        assertThat(cache.abrir(CLAVE)).isNull();
+        assertThat(cache.obtener(CLAVE)).isNull();
+    }
+
+    private void guardar(String clave) throws IOException {
+        try (CacheBoletinService.Escritura escritura = cache.abrirEscritura(clave)) {
+            OutputStream salida = escritura.duplicar(new ByteArrayOutputStream());
+            salida.write("%PDF-1.7".getBytes(StandardCharsets.US_ASCII));
+            assertThat(escritura.confirmar()).isTrue();
+        }
+    }
+}
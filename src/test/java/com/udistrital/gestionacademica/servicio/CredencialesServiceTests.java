@@ -0,0 +1,98 @@
+package com.udistrital.gestionacademica.servicio;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verificación de contraseñas con un ejecutorHash de un solo hilo
+ */
+class CredencialesServiceTests {
+
+    private ThreadPoolTaskExecutor ejecutor;
+    private SimpleMeterRegistry metricas;
+    private CredencialesService credenciales;
+
+    @BeforeEach
+    void preparar() {
+        ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(1);
+        ejecutor.setMaxPoolSize(1);
+        ejecutor.setQueueCapacity(10);
+        ejecutor.initialize();
+
+        metricas = new SimpleMeterRegistry();
+        credenciales = new CredencialesService(metricas, ejecutor);
+        // Costo mínimo de BCrypt para que las pruebas sean rápidas
+        ReflectionTestUtils.setField(credenciales, "costo", 4);
+        ReflectionTestUtils.setField(credenciales, "cacheSegundos", 300L);
+        ReflectionTestUtils.setField(credenciales, "cacheMaximo", 100);
+        ReflectionTestUtils.setField(credenciales, "esperaMaximaMs", 200L);
+        credenciales.iniciar();
+    }
+
+    @AfterEach
+    void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    @Test
+    void laContrasenaEnTextoPlanoSeAceptaYSeMarcaParaMigrar() {
+        assertThat(credenciales.verificar(1L, "secreta", "secreta"))
+                .isEqualTo(CredencialesService.Verificacion.CORRECTA_MIGRAR);
+        assertThat(credenciales.verificar(1L, "secreta", "otra"))
+                .isEqualTo(CredencialesService.Verificacion.INCORRECTA);
+    }
+
+    @Test
+    void elHashCorrectoQuedaEnCache() {
+        String hash = credenciales.codificar("secreta");
+
+        assertThat(credenciales.verificar(1L, hash, "secreta")).isEqualTo(CredencialesService.Verificacion.CORRECTA);
+        assertThat(credenciales.verificar(1L, hash, "secreta")).isEqualTo(CredencialesService.Verificacion.CORRECTA);
+        assertThat(credenciales.verificar(1L, hash, "otra")).isEqualTo(CredencialesService.Verificacion.INCORRECTA);
+        assertThat(metricas.get("login.credenciales.cache").tag("resultado", "acierto").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void unUsuarioInexistenteTambienCalculaUnHash() {
+        long calculosAntes = metricas.get("login.hash").timer().count();
+
+        assertThat(credenciales.verificarInexistente("cualquiera"))
+                .isEqualTo(CredencialesService.Verificacion.INCORRECTA);
+        assertThat(metricas.get("login.hash").timer().count()).isEqualTo(calculosAntes + 1);
+    }
+
+    @Test
+    void agotarLaEsperaCancelaElCalculoEnCola() throws InterruptedException {
+        // Ocupar el único hilo del ejecutor
+        CountDownLatch liberar = new CountDownLatch(1);
+        ejecutor.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long calculosAntes = metricas.get("login.hash").timer().count();
+
+        assertThatThrownBy(() -> credenciales.codificar("secreta"))
+                .isInstanceOf(CredencialesService.CredencialesNoDisponiblesException.class);
+
+        liberar.countDown();
+        ejecutor.getThreadPoolExecutor().shutdown();
+        assertThat(ejecutor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        // El cálculo cancelado no llegó a ejecutarse
+        assertThat(metricas.get("login.hash").timer().count()).isEqualTo(calculosAntes);
+    }
+}
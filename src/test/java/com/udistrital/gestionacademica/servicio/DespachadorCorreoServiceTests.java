@@ -0,0 +1,218 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
+import com.udistrital.gestionacademica.repositorio.CorreoSalienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ciclo de la bandeja de salida sin base de datos: el repositorio y el envío
+ * SMTP son simulados y la transacción se ejecuta en línea.
+ */
+class DespachadorCorreoServiceTests {
+
+    private static final int MAX_INTENTOS = 3;
+    private static final long ESPERA_BASE_SEGUNDOS = 30;
+
+    private final CorreoSalienteRepository repositorio = mock(CorreoSalienteRepository.class);
+    private final emailService correo = mock(emailService.class);
+    private final ProteccionSmtpService proteccion = mock(ProteccionSmtpService.class);
+    private final TransactionTemplate transacciones = mock(TransactionTemplate.class);
+
+    private ThreadPoolTaskExecutor ejecutor;
+    private DespachadorCorreoService despachador;
+
+    // Estado de cada correo en el momento de enviarlo
+    private final List<String> estadosAlEnviar = new ArrayList<>();
+    private final List<Integer> intentosAlEnviar = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(2);
+        ejecutor.setMaxPoolSize(2);
+        ejecutor.initialize();
+
+        when(transacciones.execute(any())).thenAnswer(invocacion ->
+                invocacion.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(proteccion.disponible()).thenReturn(true);
+
+        despachador = new DespachadorCorreoService(repositorio, correo, transacciones,
+                new SimpleMeterRegistry(), proteccion, ejecutor);
+        ReflectionTestUtils.setField(despachador, "tamanoLote", 100);
+        ReflectionTestUtils.setField(despachador, "maxIntentos", MAX_INTENTOS);
+        ReflectionTestUtils.setField(despachador, "esperaBaseSegundos", ESPERA_BASE_SEGUNDOS);
+        ReflectionTestUtils.setField(despachador, "esperaMaximaSegundos", 3600L);
+        ReflectionTestUtils.setField(despachador, "bloqueoSegundos", 300L);
+        despachador.iniciarMetricas();
+    }
+
+    @AfterEach
+    void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    @Test
+    void reclamaElLoteYLoMarcaEnviado() {
+        CorreoSaliente primero = pendiente(1L, 0);
+        CorreoSaliente segundo = pendiente(2L, 0);
+        reclamar(primero, segundo);
+        enviarCon(Map.of());
+
+        despachador.despacharPendientes();
+
+        assertThat(estadosAlEnviar).containsOnly(CorreoSaliente.ENVIANDO);
+        assertThat(intentosAlEnviar).containsOnly(1);
+        for (CorreoSaliente enviado : List.of(primero, segundo)) {
+            assertThat(enviado.getEstado()).isEqualTo(CorreoSaliente.ENVIADO);
+            assertThat(enviado.getFechaEnvio()).isNotNull();
+            assertThat(enviado.getBloqueadoHasta()).isNull();
+        }
+    }
+
+    @Test
+    void unErrorTransitorioSeReintentaConEsperaExponencial() {
+        CorreoSaliente fallido = pendiente(1L, 1);
+        reclamar(fallido);
+        enviarCon(Map.of(1L, new MailSendException("Conexión rechazada")));
+
+        LocalDateTime antes = LocalDateTime.now();
+        despachador.despacharPendientes();
+
+        // Segundo intento: espera base * 2, con variación de ±20%
+        long esperada = ESPERA_BASE_SEGUNDOS * 2;
+        assertThat(fallido.getEstado()).isEqualTo(CorreoSaliente.PENDIENTE);
+        assertThat(fallido.getIntentos()).isEqualTo(2);
+        assertThat(fallido.getUltimoError()).contains("Conexión rechazada");
+        assertThat(fallido.getProximoIntento())
+                .isAfterOrEqualTo(antes.plusSeconds((long) (esperada * 0.8) - 1))
+                .isBefore(LocalDateTime.now().plusSeconds((long) (esperada * 1.2) + 1));
+    }
+
+    @Test
+    void agotarLosIntentosLoDescarta() {
+        CorreoSaliente agotado = pendiente(1L, MAX_INTENTOS - 1);
+        reclamar(agotado);
+        enviarCon(Map.of(1L, new MailSendException("Conexión rechazada")));
+
+        despachador.despacharPendientes();
+
+        assertThat(agotado.getEstado()).isEqualTo(CorreoSaliente.DESCARTADO);
+        assertThat(agotado.getIntentos()).isEqualTo(MAX_INTENTOS);
+    }
+
+    @Test
+    void unErrorPermanenteLoDescartaEnElPrimerIntento() {
+        CorreoSaliente invalido = pendiente(1L, 0);
+        reclamar(invalido);
+        enviarCon(Map.of(1L, new MailParseException("Dirección inválida")));
+
+        despachador.despacharPendientes();
+
+        assertThat(invalido.getEstado()).isEqualTo(CorreoSaliente.DESCARTADO);
+        assertThat(invalido.getIntentos()).isEqualTo(1);
+    }
+
+    @Test
+    void unCorreoAplazadoVuelveAPendienteSinGastarIntento() {
+        CorreoSaliente aplazado = pendiente(1L, 2);
+        reclamar(aplazado);
+        enviarCon(Map.of(1L, new ProteccionSmtpService.SmtpNoDisponibleException(
+                "Circuito abierto", Duration.ofSeconds(60))));
+
+        despachador.despacharPendientes();
+
+        assertThat(aplazado.getEstado()).isEqualTo(CorreoSaliente.PENDIENTE);
+        assertThat(aplazado.getIntentos()).isEqualTo(2);
+        assertThat(aplazado.getUltimoError()).isNull();
+    }
+
+    @Test
+    void noRegistraElResultadoSiOtraInstanciaRetomoElCorreo() {
+        CorreoSaliente reclamado = pendiente(1L, 0);
+        when(repositorio.reclamar(any(), anyInt())).thenReturn(List.of(reclamado));
+        // En la base de datos el correo ya tiene el bloqueo de otro reclamo
+        CorreoSaliente retomado = pendiente(1L, 2);
+        retomado.setEstado(CorreoSaliente.ENVIANDO);
+        LocalDateTime bloqueoAjeno = LocalDateTime.now().plusMinutes(7);
+        retomado.setBloqueadoHasta(bloqueoAjeno);
+        when(repositorio.bloquearEnviando(any())).thenReturn(List.of(retomado));
+        enviarCon(Map.of());
+
+        despachador.despacharPendientes();
+
+        assertThat(retomado.getEstado()).isEqualTo(CorreoSaliente.ENVIANDO);
+        assertThat(retomado.getBloqueadoHasta()).isEqualTo(bloqueoAjeno);
+        assertThat(retomado.getIntentos()).isEqualTo(2);
+    }
+
+    @Test
+    void conElCircuitoAbiertoNoReclama() {
+        when(proteccion.disponible()).thenReturn(false);
+
+        despachador.despacharPendientes();
+
+        verifyNoInteractions(repositorio, correo);
+    }
+
+    private void reclamar(CorreoSaliente... correos) {
+        List<CorreoSaliente> lote = List.of(correos);
+        when(repositorio.reclamar(any(), anyInt())).thenReturn(lote);
+        // El bloqueo sigue siendo el de este reclamo
+        when(repositorio.bloquearEnviando(any())).thenReturn(lote);
+    }
+
+    private void enviarCon(Map<Long, Exception> errores) {
+        when(correo.enviarLote(any())).thenAnswer(invocacion -> {
+            List<CorreoSaliente> parte = invocacion.getArgument(0);
+            synchronized (estadosAlEnviar) {
+                for (CorreoSaliente enviado : parte) {
+                    estadosAlEnviar.add(enviado.getEstado());
+                    intentosAlEnviar.add(enviado.getIntentos());
+                }
+            }
+            Map<Long, Exception> fallidos = new HashMap<>();
+            for (CorreoSaliente enviado : parte) {
+                if (errores.containsKey(enviado.getIdCorreo())) {
+                    fallidos.put(enviado.getIdCorreo(), errores.get(enviado.getIdCorreo()));
+                }
+            }
+            return fallidos;
+        });
+    }
+
+    private static CorreoSaliente pendiente(Long id, int intentos) {
+        CorreoSaliente pendiente = new CorreoSaliente();
+        pendiente.setIdCorreo(id);
+        pendiente.setTipo("CITACION");
+        pendiente.setDestinatario("acudiente" + id + "@ejemplo.com");
+        pendiente.setAsunto("Citación");
+        pendiente.setContenidoHtml("<p>Citación</p>");
+        pendiente.setEstado(CorreoSaliente.PENDIENTE);
+        pendiente.setIntentos(intentos);
+        pendiente.setProximoIntento(LocalDateTime.now());
+        return pendiente;
+    }
+}
@@ -0,0 +1,128 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.Acudiente;
+import com.udistrital.gestionacademica.modelo.Citacion;
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
+import com.udistrital.gestionacademica.modelo.Estudiante;
+import com.udistrital.gestionacademica.modelo.Persona;
+import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
+import com.udistrital.gestionacademica.repositorio.CitacionRepository;
+import com.udistrital.gestionacademica.repositorio.CorreoSalienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resumen de citaciones pendiente al eliminar una citación, con repositorios simulados
+ */
+class EmailServiceTests {
+
+    private final CorreoSalienteRepository correos = mock(CorreoSalienteRepository.class);
+    private final CitacionRepository citaciones = mock(CitacionRepository.class);
+    private final AcudienteRepository acudientes = mock(AcudienteRepository.class);
+    private final PlantillasCorreoService plantillas = mock(PlantillasCorreoService.class);
+
+    private final Acudiente acudiente = acudiente();
+    private emailService correo;
+
+    @BeforeEach
+    void preparar() {
+        correo = new emailService(mock(JavaMailSender.class), correos, plantillas, citaciones, acudientes,
+                mock(ProteccionSmtpService.class));
+        ReflectionTestUtils.setField(correo, "nombreInstitucion", "Colegio");
+        when(plantillas.renderizarCitacion(any(), any(), any(), any())).thenReturn("<p>una</p>");
+    }
+
+    @Test
+    void eliminarUnaCitacionDelResumenLoVuelveAArmarConLasDemas() {
+        Citacion eliminada = citacion(1L);
+        Citacion restante = citacion(2L);
+        CorreoSaliente resumen = resumen("1,2");
+        when(correos.findResumenesAbiertos(eq(List.of("CITACIONES:7")), any())).thenReturn(List.of(resumen));
+        when(citaciones.findConDetalleEnLista(List.of(2L))).thenReturn(List.of(restante));
+
+        correo.retirarDeResumen(eliminada);
+
+        verify(acudientes).bloquear(List.of(7L));
+        assertThat(resumen.getReferencias()).isEqualTo("2");
+        assertThat(resumen.getAsunto()).isEqualTo("Citación - Colegio");
+        assertThat(resumen.getContenidoHtml()).isEqualTo("<p>una</p>");
+        verify(correos).save(resumen);
+    }
+
+    @Test
+    void siNoQuedanCitacionesElResumenSeBorra() {
+        CorreoSaliente resumen = resumen("1");
+        when(correos.findResumenesAbiertos(anyList(), any())).thenReturn(List.of(resumen));
+
+        correo.retirarDeResumen(citacion(1L));
+
+        verify(correos).delete(resumen);
+        verify(correos, never()).save(any());
+    }
+
+    @Test
+    void unResumenSinLaCitacionNoSeModifica() {
+        CorreoSaliente resumen = resumen("2,3");
+        when(correos.findResumenesAbiertos(anyList(), any())).thenReturn(List.of(resumen));
+
+        correo.retirarDeResumen(citacion(1L));
+
+        assertThat(resumen.getReferencias()).isEqualTo("2,3");
+        verify(correos, never()).save(any());
+        verify(correos, never()).delete(any());
+    }
+
+    private Citacion citacion(Long id) {
+        Persona persona = new Persona();
+        persona.setNombre("Ana");
+        persona.setApellido("Pérez");
+        Estudiante estudiante = new Estudiante();
+        estudiante.setCodigoEstudiante(100L + id);
+        estudiante.setPersona(persona);
+
+        Citacion citacion = new Citacion();
+        citacion.setIdCitacion(id);
+        citacion.setAcudiente(acudiente);
+        citacion.setEstudiante(estudiante);
+        citacion.setFechaCitacion(LocalDateTime.now().plusDays(1));
+        return citacion;
+    }
+
+    private static Acudiente acudiente() {
+        Persona persona = new Persona();
+        persona.setNombre("Luis");
+        persona.setApellido("Pérez");
+        Acudiente acudiente = new Acudiente();
+        acudiente.setIdAcudiente(7L);
+        acudiente.setPersona(persona);
+        acudiente.setCorreoElectronico("acudiente@ejemplo.com");
+        return acudiente;
+    }
+
+    private static CorreoSaliente resumen(String referencias) {
+        CorreoSaliente resumen = new CorreoSaliente();
+        resumen.setIdCorreo(50L);
+        resumen.setTipo(emailService.TIPO_CITACION);
+        resumen.setClaveAgrupacion("CITACIONES:7");
+        resumen.setEstado(CorreoSaliente.PENDIENTE);
+        resumen.setReferencias(referencias);
+        resumen.setAsunto("Citaciones (" + referencias.split(",").length + ") - Colegio");
+        resumen.setContenidoHtml("<p>resumen</p>");
+        resumen.setProximoIntento(LocalDateTime.now().plusSeconds(60));
+        return resumen;
+    }
+}
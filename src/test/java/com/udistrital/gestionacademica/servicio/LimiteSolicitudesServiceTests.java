@@ -0,0 +1,252 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udistrital.gestionacademica.config.FiltroLimiteSolicitudes;
+import com.udistrital.gestionacademica.servicio.LimiteSolicitudesService.ReglaActiva;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cubetas por IP y por cuenta con un reloj controlado por la prueba
+ */
+class LimiteSolicitudesServiceTests {
+
+    private static final String RUTA_LOGIN = "/api/token_usuario/validarLogin";
+
+    // 5 por minuto por IP (una ficha cada 12 s) con ráfaga de 5; 3 por minuto por cuenta sin ráfaga
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("limite-solicitudes.rutas[0].patron", RUTA_LOGIN)
+            .withProperty("limite-solicitudes.rutas[0].metodo", "POST")
+            .withProperty("limite-solicitudes.rutas[0].por-ip-minuto", "5")
+            .withProperty("limite-solicitudes.rutas[0].rafaga-ip", "5")
+            .withProperty("limite-solicitudes.rutas[0].por-cuenta-minuto", "3")
+            .withProperty("limite-solicitudes.rutas[0].campo-cuenta", "nombreUsuario");
+
+    private final AtomicLong ahora = new AtomicLong(1_000_000_000_000L);
+    private LimiteSolicitudesService limite;
+
+    @BeforeEach
+    void preparar() {
+        limite = crear(environment);
+    }
+
+    @Test
+    void soloAplicaALaRutaYMetodoConfigurados() {
+        assertThat(limite.regla("POST", RUTA_LOGIN)).isNotNull();
+        assertThat(limite.regla("GET", RUTA_LOGIN)).isNull();
+        assertThat(limite.regla("POST", "/api/estudiante")).isNull();
+    }
+
+    @Test
+    void permiteLaRafagaYDespuesIndicaLaEspera() {
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isZero();
+        }
+        assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isEqualTo(Duration.ofSeconds(12));
+        // Otra IP tiene su propia cubeta
+        assertThat(limite.consumirPorIp(regla, "10.0.0.2")).isZero();
+    }
+
+    @Test
+    void recargaUnaFichaPorIntervalo() {
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+        for (int i = 0; i < 5; i++) {
+            limite.consumirPorIp(regla, "10.0.0.1");
+        }
+
+        avanzar(Duration.ofSeconds(7));
+        assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isEqualTo(Duration.ofSeconds(5));
+
+        avanzar(Duration.ofSeconds(5));
+        assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isZero();
+        assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isEqualTo(Duration.ofSeconds(12));
+
+        // Tras un minuto completo la ráfaga vuelve entera
+        avanzar(Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isZero();
+        }
+    }
+
+    @Test
+    void laCuentaNoDistingueMayusculas() {
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+
+        assertThat(limite.consumirPorCuenta(regla, "Docente")).isZero();
+        assertThat(limite.consumirPorCuenta(regla, "docente")).isEqualTo(Duration.ofSeconds(20));
+        assertThat(limite.consumirPorCuenta(regla, null)).isZero();
+    }
+
+    @Test
+    void limpiarSoloDescartaLasCubetasLlenas() {
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+        limite.consumirPorIp(regla, "10.0.0.1");
+        avanzar(Duration.ofSeconds(12));
+        limite.consumirPorIp(regla, "10.0.0.2");
+
+        limite.limpiar();
+
+        assertThat(cubetas()).containsOnlyKeys("0|ip:10.0.0.2");
+        // La cubeta descartada se recrea llena
+        for (int i = 0; i < 5; i++) {
+            assertThat(limite.consumirPorIp(regla, "10.0.0.1")).isZero();
+        }
+    }
+
+    @Test
+    void conElMapaLlenoLasClavesNuevasCompartenLaCubetaDeDesbordamiento() {
+        limite = crear(environment.withProperty("limite-solicitudes.maximo-claves", "2"));
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+        limite.consumirPorIp(regla, "10.0.0.1");
+        limite.consumirPorIp(regla, "10.0.0.2");
+
+        // Ninguna cubeta está llena: las IPs nuevas van a la de desbordamiento
+        for (int i = 0; i < 5; i++) {
+            assertThat(limite.consumirPorIp(regla, "10.0.1." + i)).isZero();
+        }
+        assertThat(limite.consumirPorIp(regla, "10.0.2.1")).isEqualTo(Duration.ofSeconds(12));
+        assertThat(cubetas()).hasSize(3).containsKey("0|desbordamiento");
+    }
+
+    @Test
+    void conElMapaLlenoSoloLimpiaEnLineaUnaVezPorIntervalo() {
+        limite = crear(environment.withProperty("limite-solicitudes.maximo-claves", "2"));
+        ReglaActiva regla = limite.regla("POST", RUTA_LOGIN);
+        limite.consumirPorIp(regla, "10.0.0.1");
+        limite.consumirPorIp(regla, "10.0.0.2");
+        // Ninguna está llena: la limpieza en línea se gasta sin retirar nada
+        limite.consumirPorIp(regla, "10.0.1.1");
+
+        // Ya se llenaron, pero hasta el siguiente intervalo no se vuelve a limpiar en línea
+        avanzar(Duration.ofSeconds(30));
+        limite.consumirPorIp(regla, "10.0.1.2");
+        assertThat(cubetas()).containsOnlyKeys("0|ip:10.0.0.1", "0|ip:10.0.0.2", "0|desbordamiento");
+
+        avanzar(Duration.ofSeconds(30));
+        limite.consumirPorIp(regla, "10.0.1.3");
+        assertThat(cubetas()).containsOnlyKeys("0|ip:10.0.1.3");
+    }
+
+    @Test
+    void elFiltroRespondeConRetryAfterEnSegundosRedondeadosHaciaArriba() throws Exception {
+        FiltroLimiteSolicitudes filtro = new FiltroLimiteSolicitudes(limite, new ObjectMapper());
+        for (int i = 0; i < 5; i++) {
+            assertThat(filtrar(filtro, "10.0.0.1", "usuario" + i).getStatus()).isEqualTo(200);
+        }
+
+        avanzar(Duration.ofMillis(500));
+        MockHttpServletResponse rechazada = filtrar(filtro, "10.0.0.1", "otro");
+
+        assertThat(rechazada.getStatus()).isEqualTo(429);
+        // Faltan 11,5 s
+        assertThat(rechazada.getHeader("Retry-After")).isEqualTo("12");
+        assertThat(rechazada.getContentAsString()).contains("12 segundos");
+    }
+
+    @Test
+    void elFiltroLimitaPorCuentaYEntregaElCuerpoIntacto() throws Exception {
+        FiltroLimiteSolicitudes filtro = new FiltroLimiteSolicitudes(limite, new ObjectMapper());
+        String cuerpo = "{\"nombreUsuario\":\"docente\",\"contrasena\":\"x\"}";
+
+        MockFilterChain cadena = new MockFilterChain();
+        MockHttpServletResponse aceptada = new MockHttpServletResponse();
+        filtro.doFilter(solicitud("10.0.0.1", cuerpo), aceptada, cadena);
+        assertThat(aceptada.getStatus()).isEqualTo(200);
+        assertThat(new String(cadena.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo(cuerpo);
+
+        // Misma cuenta desde otra IP
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(solicitud("10.0.0.2", cuerpo), rechazada, new MockFilterChain());
+        assertThat(rechazada.getStatus()).isEqualTo(429);
+        assertThat(rechazada.getHeader("Retry-After")).isEqualTo("20");
+    }
+
+    @Test
+    void elCuerpoEnMemoriaAdmiteLecturaNoBloqueante() throws Exception {
+        FiltroLimiteSolicitudes filtro = new FiltroLimiteSolicitudes(limite, new ObjectMapper());
+        String cuerpo = "{\"nombreUsuario\":\"docente\"}";
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(solicitud("10.0.0.1", cuerpo), new MockHttpServletResponse(), cadena);
+
+        ServletInputStream entrada = cadena.getRequest().getInputStream();
+        ByteArrayOutputStream leido = new ByteArrayOutputStream();
+        AtomicBoolean terminado = new AtomicBoolean();
+        entrada.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (entrada.isReady() && !entrada.isFinished()) {
+                    int byteLeido = entrada.read();
+                    if (byteLeido != -1) {
+                        leido.write(byteLeido);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                terminado.set(true);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+
+        assertThat(terminado).isTrue();
+        assertThat(leido.toString(StandardCharsets.UTF_8)).isEqualTo(cuerpo);
+    }
+
+    private LimiteSolicitudesService crear(MockEnvironment configuracion) {
+        LimiteSolicitudesService servicio = new LimiteSolicitudesService(configuracion, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(servicio, "reloj", (LongSupplier) ahora::get);
+        servicio.iniciar();
+        return servicio;
+    }
+
+    private void avanzar(Duration duracion) {
+        ahora.addAndGet(duracion.toNanos());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> cubetas() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(limite, "cubetas");
+    }
+
+    private static MockHttpServletResponse filtrar(FiltroLimiteSolicitudes filtro, String ip, String cuenta)
+            throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(solicitud(ip, "{\"nombreUsuario\":\"" + cuenta + "\"}"), respuesta, new MockFilterChain());
+        return respuesta;
+    }
+
+    private static MockHttpServletRequest solicitud(String ip, String cuerpo) {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("POST", RUTA_LOGIN);
+        solicitud.setRemoteAddr(ip);
+        solicitud.setContentType("application/json");
+        solicitud.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        return solicitud;
+    }
+}
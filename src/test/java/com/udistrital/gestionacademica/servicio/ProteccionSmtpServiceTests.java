@@ -0,0 +1,229 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.CorreoSaliente;
+import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
+import com.udistrital.gestionacademica.repositorio.CitacionRepository;
+import com.udistrital.gestionacademica.repositorio.CorreoSalienteRepository;
+import com.udistrital.gestionacademica.soporte.ServidorSmtpFalso;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Limitador y circuito SMTP contra ServidorSmtpFalso, con el envío real de
+ * emailService.enviarLote.
+ */
+class ProteccionSmtpServiceTests {
+
+    private ServidorSmtpFalso smtp;
+    private JavaMailSenderImpl mailSender;
+    private ProteccionSmtpService proteccion;
+    private emailService correo;
+
+    @BeforeEach
+    void preparar() throws IOException {
+        smtp = ServidorSmtpFalso.iniciar();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPuerto());
+        Properties propiedades = new Properties();
+        propiedades.put("mail.smtp.connectiontimeout", "5000");
+        propiedades.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(propiedades);
+
+        // Dos fallos seguidos abren el circuito
+        proteger(60, 20, 2, 120);
+    }
+
+    @AfterEach
+    void cerrar() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void respuestas421SeguidasAbrenElCircuito() {
+        smtp.setRespuestaRemitente("421 4.7.0 Try again later");
+
+        correo.enviarLote(correos(1));
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.CERRADO);
+        correo.enviarLote(correos(1));
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.ABIERTO);
+
+        // Abierto: los correos fallan sin contactar al servidor
+        int sesiones = smtp.getSesiones();
+        Map<Long, Exception> fallidos = correo.enviarLote(correos(3));
+        assertThat(fallidos).hasSize(3);
+        assertThat(fallidos.values()).allMatch(ProteccionSmtpService.SmtpNoDisponibleException.class::isInstance);
+        assertThat(smtp.getSesiones()).isEqualTo(sesiones);
+        assertThat(proteccion.disponible()).isFalse();
+    }
+
+    @Test
+    void laCuotaDiariaAgotadaAbreElCircuito() {
+        smtp.setRespuestaRemitente("550 5.4.5 Daily user sending quota exceeded");
+
+        correo.enviarLote(correos(1));
+        correo.enviarLote(correos(1));
+
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.ABIERTO);
+    }
+
+    @Test
+    void unaDireccionRechazadaNoCuentaComoFalloDelServidor() {
+        Map<Long, Exception> fallidos = correo.enviarLote(List.of(
+                correo(1L, "sin arroba"), correo(2L, "otro invalido")));
+
+        assertThat(fallidos).hasSize(2);
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.CERRADO);
+    }
+
+    @Test
+    void semiabiertoDejaPasarUnaSolaPrueba() {
+        // Sin espera: al abrirse pasa de inmediato a semiabierto
+        proteger(60, 20, 1, 0);
+        proteccion.registrarFallo(new MailSendException("Conexión rechazada"));
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.ABIERTO);
+
+        assertThat(proteccion.autorizar(5)).isEqualTo(1);
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.SEMIABIERTO);
+        assertThatThrownBy(() -> proteccion.autorizar(5))
+                .isInstanceOf(ProteccionSmtpService.SmtpNoDisponibleException.class);
+
+        proteccion.registrarExito();
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.CERRADO);
+        assertThat(proteccion.autorizar(5)).isEqualTo(5);
+    }
+
+    @Test
+    void laPruebaSemiabiertaEnviaUnCorreoYCierraElCircuito() {
+        proteger(60, 20, 1, 0);
+        smtp.setRespuestaRemitente("421 4.7.0 Try again later");
+        correo.enviarLote(correos(1));
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.ABIERTO);
+
+        smtp.restablecer();
+        Map<Long, Exception> fallidos = correo.enviarLote(correos(3));
+
+        assertThat(smtp.getRecibidos()).isEqualTo(1);
+        assertThat(fallidos).hasSize(2);
+        assertThat(fallidos.values()).allMatch(ProteccionSmtpService.SmtpNoDisponibleException.class::isInstance);
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.CERRADO);
+    }
+
+    @Test
+    void laPruebaSemiabiertaFallidaVuelveAAbrir() {
+        proteger(60, 20, 1, 0);
+        smtp.setRespuestaRemitente("421 4.7.0 Try again later");
+        correo.enviarLote(correos(1));
+
+        ReflectionTestUtils.setField(proteccion, "esperaSegundos", 120L);
+        correo.enviarLote(correos(1));
+
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.ABIERTO);
+        assertThat(proteccion.disponible()).isFalse();
+    }
+
+    @Test
+    void elLimitadorDevuelveLosCorreosAPendienteSinGastarIntento() {
+        // Ráfaga de 2: de un lote de 5, 3 no alcanzan token
+        proteger(1, 2, 3, 120);
+
+        CorreoSalienteRepository repositorio = mock(CorreoSalienteRepository.class);
+        List<CorreoSaliente> lote = correos(5);
+        lote.forEach(pendiente -> pendiente.setIntentos(1));
+        when(repositorio.reclamar(any(), anyInt())).thenReturn(lote);
+        when(repositorio.bloquearEnviando(any())).thenReturn(lote);
+        TransactionTemplate transacciones = mock(TransactionTemplate.class);
+        when(transacciones.execute(any())).thenAnswer(invocacion ->
+                invocacion.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(1);
+        ejecutor.setMaxPoolSize(1);
+        ejecutor.initialize();
+        try {
+            DespachadorCorreoService despachador = new DespachadorCorreoService(repositorio, correo,
+                    transacciones, new SimpleMeterRegistry(), proteccion, ejecutor);
+            ReflectionTestUtils.setField(despachador, "tamanoLote", 100);
+            ReflectionTestUtils.setField(despachador, "maxIntentos", 8);
+            ReflectionTestUtils.setField(despachador, "esperaBaseSegundos", 30L);
+            ReflectionTestUtils.setField(despachador, "esperaMaximaSegundos", 3600L);
+            ReflectionTestUtils.setField(despachador, "bloqueoSegundos", 300L);
+            despachador.iniciarMetricas();
+
+            despachador.despacharPendientes();
+        } finally {
+            ejecutor.shutdown();
+        }
+
+        assertThat(smtp.getRecibidos()).isEqualTo(2);
+        assertThat(lote.subList(0, 2)).allSatisfy(enviado -> {
+            assertThat(enviado.getEstado()).isEqualTo(CorreoSaliente.ENVIADO);
+            assertThat(enviado.getIntentos()).isEqualTo(2);
+        });
+        assertThat(lote.subList(2, 5)).allSatisfy(aplazado -> {
+            assertThat(aplazado.getEstado()).isEqualTo(CorreoSaliente.PENDIENTE);
+            assertThat(aplazado.getIntentos()).isEqualTo(1);
+            assertThat(aplazado.getProximoIntento()).isAfter(LocalDateTime.now());
+        });
+        assertThat(proteccion.getEstado()).isEqualTo(ProteccionSmtpService.EstadoCircuito.CERRADO);
+    }
+
+    /**
+     * Crear la protección con esta configuración y un emailService que la use
+     */
+    private void proteger(double porMinuto, int rafaga, int fallosParaAbrir, long esperaSegundos) {
+        proteccion = new ProteccionSmtpService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(proteccion, "correosPorMinuto", porMinuto);
+        ReflectionTestUtils.setField(proteccion, "rafaga", rafaga);
+        ReflectionTestUtils.setField(proteccion, "fallosParaAbrir", fallosParaAbrir);
+        ReflectionTestUtils.setField(proteccion, "esperaSegundos", esperaSegundos);
+        proteccion.iniciar();
+
+        correo = new emailService(mailSender, mock(CorreoSalienteRepository.class),
+                mock(PlantillasCorreoService.class), mock(CitacionRepository.class),
+                mock(AcudienteRepository.class), proteccion);
+        ReflectionTestUtils.setField(correo, "correoRemitente", "institucion@ejemplo.com");
+    }
+
+    private static List<CorreoSaliente> correos(int cantidad) {
+        List<CorreoSaliente> correos = new ArrayList<>(cantidad);
+        LongStream.rangeClosed(1, cantidad)
+                .forEach(id -> correos.add(correo(id, "acudiente" + id + "@ejemplo.com")));
+        return correos;
+    }
+
+    private static CorreoSaliente correo(Long id, String destinatario) {
+        CorreoSaliente correo = new CorreoSaliente();
+        correo.setIdCorreo(id);
+        correo.setTipo(emailService.TIPO_CITACION);
+        correo.setDestinatario(destinatario);
+        correo.setAsunto("Citación");
+        correo.setContenidoHtml("<p>Citación</p>");
+        correo.setEstado(CorreoSaliente.PENDIENTE);
+        correo.setProximoIntento(LocalDateTime.now());
+        return correo;
+    }
+}
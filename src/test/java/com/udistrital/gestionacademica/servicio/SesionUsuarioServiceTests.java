@@ -0,0 +1,80 @@
+package com.udistrital.gestionacademica.servicio;
+
+import com.udistrital.gestionacademica.modelo.TokenUsuario;
+import com.udistrital.gestionacademica.repositorio.AcudienteRepository;
+import com.udistrital.gestionacademica.repositorio.ProfesorRepository;
+import com.udistrital.gestionacademica.repositorio.TokenUsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Emisión, verificación y revocación de tokens de sesión sin base de datos
+ */
+class SesionUsuarioServiceTests {
+
+    @Test
+    void sinSecretoUsaUnaClaveAleatoriaPorArranque() {
+        SesionUsuarioService sesiones = crear("");
+        String token = sesiones.iniciar(usuario()).token();
+
+        assertThat(sesiones.verificar(token)).isPresent();
+        // Otro arranque sin secreto tiene otra clave
+        assertThat(crear("").verificar(token)).isEmpty();
+    }
+
+    @Test
+    void elTokenFirmadoPorOtraClaveSeRechaza() {
+        String token = crear("secreto-a").iniciar(usuario()).token();
+
+        assertThat(crear("secreto-b").verificar(token)).isEmpty();
+        assertThat(crear("secreto-a").verificar(token)).isPresent();
+    }
+
+    @Test
+    void laInvalidacionRechazaSoloLosTokensEmitidosAntes() throws InterruptedException {
+        SesionUsuarioService sesiones = crear("secreto");
+        String anterior = sesiones.iniciar(usuario()).token();
+        Thread.sleep(5);
+
+        sesiones.invalidarUsuarioAlConfirmar(7L);
+        Thread.sleep(5);
+        // Emitido en el mismo segundo que la invalidación, pero después
+        String posterior = sesiones.iniciar(usuario()).token();
+
+        assertThat(sesiones.verificar(anterior)).isEmpty();
+        assertThat(sesiones.verificar(posterior)).isPresent();
+    }
+
+    @Test
+    void cerrarSesionRevocaSoloEseToken() {
+        SesionUsuarioService sesiones = crear("secreto");
+        String cerrado = sesiones.iniciar(usuario()).token();
+        String otro = sesiones.iniciar(usuario()).token();
+
+        sesiones.cerrarSesion(cerrado);
+
+        assertThat(sesiones.verificar(cerrado)).isEmpty();
+        assertThat(sesiones.verificar(otro)).isPresent();
+    }
+
+    private static SesionUsuarioService crear(String secreto) {
+        SesionUsuarioService sesiones = new SesionUsuarioService(mock(TokenUsuarioRepository.class),
+                mock(ProfesorRepository.class), mock(AcudienteRepository.class));
+        ReflectionTestUtils.setField(sesiones, "secretoConfigurado", secreto);
+        ReflectionTestUtils.setField(sesiones, "ttlMinutos", 480L);
+        sesiones.iniciarClave();
+        return sesiones;
+    }
+
+    private static TokenUsuario usuario() {
+        TokenUsuario usuario = new TokenUsuario();
+        usuario.setIdTokenUsuario(7L);
+        usuario.setNombreUsuario("docente");
+        usuario.setRol("Profesor");
+        usuario.setEstado(true);
+        return usuario;
+    }
+}
@@ -0,0 +1,187 @@
+package com.udistrital.gestionacademica.soporte;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo para pruebas del envío de correos (sin TLS).
+ *
+ * Acepta cualquier autenticación y permite simular:
+ * - latencia: espera antes de cada respuesta (setLatencia)
+ * - límite del proveedor: respuesta a MAIL FROM, p. ej.
+ *   "421 4.7.0 Try again later" o "550 5.4.5 Daily user sending quota exceeded"
+ *   (setRespuestaRemitente)
+ *
+ * Uso con la aplicación:
+ *
+ *   ServidorSmtpFalso smtp = ServidorSmtpFalso.iniciar();
+ *   spring.mail.host=localhost
+ *   spring.mail.port=smtp.getPuerto()
+ *   spring.mail.properties.mail.smtp.starttls.enable=false
+ *   spring.mail.properties.mail.smtp.starttls.required=false
+ */
+public class ServidorSmtpFalso implements Closeable {
+
+    private final ServerSocket servidor;
+    private final ExecutorService conexiones = Executors.newCachedThreadPool();
+    private final AtomicInteger recibidos = new AtomicInteger();
+    private final AtomicInteger sesiones = new AtomicInteger();
+
+    private volatile Duration latencia = Duration.ZERO;
+    private volatile String respuestaRemitente = "250 2.1.0 OK";
+
+    private ServidorSmtpFalso(ServerSocket servidor) {
+        this.servidor = servidor;
+    }
+
+    /**
+     * Iniciar en un puerto libre de localhost
+     */
+    public static ServidorSmtpFalso iniciar() throws IOException {
+        ServidorSmtpFalso smtp = new ServidorSmtpFalso(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        smtp.conexiones.execute(smtp::aceptar);
+        return smtp;
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Correos aceptados (DATA completo)
+     */
+    public int getRecibidos() {
+        return recibidos.get();
+    }
+
+    /**
+     * Conexiones abiertas por el cliente
+     */
+    public int getSesiones() {
+        return sesiones.get();
+    }
+
+    public void setLatencia(Duration latencia) {
+        this.latencia = latencia;
+    }
+
+    /**
+     * Respuesta a MAIL FROM; un código 4xx o 5xx rechaza el correo
+     */
+    public void setRespuestaRemitente(String respuestaRemitente) {
+        this.respuestaRemitente = respuestaRemitente;
+    }
+
+    /**
+     * Volver a aceptar todos los correos sin latencia
+     */
+    public void restablecer() {
+        latencia = Duration.ZERO;
+        respuestaRemitente = "250 2.1.0 OK";
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        conexiones.shutdownNow();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                sesiones.incrementAndGet();
+                conexiones.execute(() -> atender(socket));
+            } catch (IOException e) {
+                // Servidor cerrado
+                return;
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             BufferedWriter salida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+
+            responder(salida, "220 localhost ESMTP falso");
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                switch (comando) {
+                    case "EHLO" -> responder(salida, "250-localhost\r\n250-AUTH PLAIN LOGIN\r\n250 8BITMIME");
+                    case "HELO" -> responder(salida, "250 localhost");
+                    case "AUTH" -> autenticar(linea, entrada, salida);
+                    case "MAIL" -> {
+                        String respuesta = respuestaRemitente;
+                        responder(salida, respuesta);
+                        if (respuesta.startsWith("421")) {
+                            // 421: el servidor cierra la conexión
+                            return;
+                        }
+                    }
+                    case "RCPT" -> responder(salida, "250 2.1.5 OK");
+                    case "DATA" -> {
+                        responder(salida, "354 Fin con <CRLF>.<CRLF>");
+                        while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+                            // Se descarta el contenido
+                        }
+                        recibidos.incrementAndGet();
+                        responder(salida, "250 2.0.0 OK");
+                    }
+                    case "RSET", "NOOP" -> responder(salida, "250 2.0.0 OK");
+                    case "QUIT" -> {
+                        responder(salida, "221 2.0.0 Adiós");
+                        return;
+                    }
+                    default -> responder(salida, "502 5.5.2 Comando no soportado");
+                }
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión
+        }
+    }
+
+    private void autenticar(String linea, BufferedReader entrada, BufferedWriter salida) throws IOException {
+        String[] partes = linea.split(" ");
+        String mecanismo = partes.length > 1 ? partes[1].toUpperCase() : "";
+        if (mecanismo.equals("LOGIN")) {
+            // Usuario y contraseña en dos pasos ("Username:", "Password:")
+            responder(salida, "334 VXNlcm5hbWU6");
+            entrada.readLine();
+            responder(salida, "334 UGFzc3dvcmQ6");
+            entrada.readLine();
+        } else if (mecanismo.equals("PLAIN") && partes.length == 2) {
+            responder(salida, "334 ");
+            entrada.readLine();
+        }
+        responder(salida, "235 2.7.0 Autenticado");
+    }
+
+    private void responder(BufferedWriter salida, String respuesta) throws IOException {
+        long milisegundos = latencia.toMillis();
+        if (milisegundos > 0) {
+            try {
+                Thread.sleep(milisegundos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido", e);
+            }
+        }
+        salida.write(respuesta);
+        salida.write("\r\n");
+        salida.flush();
+    }
+}